@@ -0,0 +1,206 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Builds the in-memory state the benchmarks run against, so that none of them needs a live cluster.
+ */
+class BenchmarkFixtures {
+
+    static final ProtocolVersion VERSION = ProtocolVersion.V3;
+
+    private static final int RESULT_OPCODE = 0x08;
+
+    // Rows.Metadata flags
+    private static final int GLOBAL_TABLES_SPEC = 1;
+
+    // DataType option ids
+    private static final int INT = 0x0009;
+    private static final int BIGINT = 0x0002;
+    private static final int VARCHAR = 0x000D;
+
+    private BenchmarkFixtures() {}
+
+    /**
+     * Creates {@code count} up hosts spread evenly over {@code dcs} data centers (named dc1, dc2...),
+     * with 3 racks each.
+     */
+    static List<Host> hosts(int count, int dcs) {
+        List<Host> hosts = new ArrayList<Host>(count);
+        ConvictionPolicy.Factory convictionPolicyFactory = new ConvictionPolicy.Simple.Factory();
+        for (int i = 0; i < count; i++) {
+            Host host = new Host(new InetSocketAddress(address(i), 9042), convictionPolicyFactory, null);
+            host.setLocationInfo("dc" + (i % dcs + 1), "rack" + (i / dcs % 3 + 1));
+            host.setUp();
+            hosts.add(host);
+        }
+        return hosts;
+    }
+
+    /**
+     * Assigns {@code vnodes} random Murmur3 tokens to each host. A fixed seed is used so that runs are comparable.
+     */
+    static Map<Host, Collection<String>> murmur3Tokens(List<Host> hosts, int vnodes) {
+        Random random = new Random(42);
+        Map<Host, Collection<String>> tokens = new HashMap<Host, Collection<String>>();
+        for (Host host : hosts) {
+            List<String> hostTokens = new ArrayList<String>(vnodes);
+            for (int i = 0; i < vnodes; i++)
+                hostTokens.add(Long.toString(random.nextLong()));
+            tokens.put(host, hostTokens);
+        }
+        return tokens;
+    }
+
+    static KeyspaceMetadata simpleStrategyKeyspace(String name, int replicationFactor) {
+        return keyspace(name, "org.apache.cassandra.locator.SimpleStrategy",
+                        "{\"replication_factor\":\"" + replicationFactor + "\"}");
+    }
+
+    static KeyspaceMetadata networkTopologyKeyspace(String name, int dcs, int replicationFactor) {
+        StringBuilder options = new StringBuilder("{");
+        for (int i = 1; i <= dcs; i++) {
+            if (i > 1)
+                options.append(',');
+            options.append("\"dc").append(i).append("\":\"").append(replicationFactor).append('"');
+        }
+        options.append('}');
+        return keyspace(name, "org.apache.cassandra.locator.NetworkTopologyStrategy", options.toString());
+    }
+
+    // Goes through the same path as a schema refresh, since KeyspaceMetadata can only be built from a system table row
+    private static KeyspaceMetadata keyspace(String name, String strategyClass, String strategyOptions) {
+        ColumnDefinitions definitions = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+            new ColumnDefinitions.Definition("system", "schema_keyspaces", "keyspace_name", DataType.text()),
+            new ColumnDefinitions.Definition("system", "schema_keyspaces", "durable_writes", DataType.cboolean()),
+            new ColumnDefinitions.Definition("system", "schema_keyspaces", "strategy_class", DataType.text()),
+            new ColumnDefinitions.Definition("system", "schema_keyspaces", "strategy_options", DataType.text())
+        });
+        List<ByteBuffer> values = Arrays.asList(
+            DataType.text().serialize(name, VERSION),
+            DataType.cboolean().serialize(true, VERSION),
+            DataType.text().serialize(strategyClass, VERSION),
+            DataType.text().serialize(strategyOptions, VERSION));
+        Row row = ArrayBackedRow.fromData(definitions, null, VERSION, values);
+        return KeyspaceMetadata.build(row, null);
+    }
+
+    /**
+     * Builds a Metadata instance that is not attached to a cluster, but knows about a token map.
+     */
+    static Metadata metadata(Map<Host, Collection<String>> tokens, Collection<KeyspaceMetadata> keyspaces) {
+        Metadata metadata = new Metadata(null);
+        metadata.tokenMap = Metadata.TokenMap.build(Token.getFactory("Murmur3Partitioner"), tokens, keyspaces, null);
+        return metadata;
+    }
+
+    /**
+     * Serialized partition keys for {@code count} distinct bigint keys.
+     */
+    static ByteBuffer[] partitionKeys(int count) {
+        Random random = new Random(42);
+        ByteBuffer[] keys = new ByteBuffer[count];
+        for (int i = 0; i < count; i++)
+            keys[i] = DataType.bigint().serialize(random.nextLong(), VERSION);
+        return keys;
+    }
+
+    /**
+     * A complete RESULT frame, as received from the server, holding {@code rowCount} rows
+     * of (int, bigint, varchar) with full metadata.
+     */
+    static ByteBuf rowsFrame(int rowCount, int stringLength) {
+        ByteBuf body = Unpooled.buffer();
+        body.writeInt(2); // kind: ROWS
+        body.writeInt(GLOBAL_TABLES_SPEC);
+        body.writeInt(3); // column count
+        CBUtil.writeString("ks", body);
+        CBUtil.writeString("t", body);
+        writeColumnSpec(body, "k", INT);
+        writeColumnSpec(body, "c", BIGINT);
+        writeColumnSpec(body, "v", VARCHAR);
+
+        char[] chars = new char[stringLength];
+        Arrays.fill(chars, 'a');
+        String text = new String(chars);
+
+        body.writeInt(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            CBUtil.writeValue(DataType.cint().serialize(i, VERSION), body);
+            CBUtil.writeValue(DataType.bigint().serialize((long)i, VERSION), body);
+            CBUtil.writeValue(DataType.text().serialize(text, VERSION), body);
+        }
+        return frame(body);
+    }
+
+    /**
+     * A PREPARED result whose bound variables are (int, bigint, varchar).
+     */
+    static Responses.Result.Prepared preparedResult() {
+        ByteBuf body = Unpooled.buffer();
+        body.writeInt(4); // kind: PREPARED
+        CBUtil.writeBytes(new byte[]{ 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15 }, body);
+
+        body.writeInt(GLOBAL_TABLES_SPEC);
+        body.writeInt(3);
+        CBUtil.writeString("ks", body);
+        CBUtil.writeString("t", body);
+        writeColumnSpec(body, "k", INT);
+        writeColumnSpec(body, "c", BIGINT);
+        writeColumnSpec(body, "v", VARCHAR);
+
+        // result metadata: none, this is an INSERT
+        body.writeInt(0);
+        body.writeInt(0);
+
+        return (Responses.Result.Prepared)Responses.Result.decoder.decode(body, VERSION);
+    }
+
+    private static void writeColumnSpec(ByteBuf body, String name, int typeId) {
+        CBUtil.writeString(name, body);
+        body.writeShort(typeId);
+    }
+
+    private static ByteBuf frame(ByteBuf body) {
+        ByteBuf frame = Unpooled.buffer(9 + body.readableBytes());
+        frame.writeByte(0x80 | VERSION.toInt()); // response direction bit
+        frame.writeByte(0); // flags
+        frame.writeShort(1); // stream id
+        frame.writeByte(RESULT_OPCODE);
+        frame.writeInt(body.readableBytes());
+        frame.writeBytes(body);
+        body.release();
+        return frame;
+    }
+
+    private static InetAddress address(int i) {
+        try {
+            int n = i + 1;
+            return InetAddress.getByAddress(new byte[]{ 127, (byte)(n >> 16), (byte)(n >> 8), (byte)n });
+        } catch (UnknownHostException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
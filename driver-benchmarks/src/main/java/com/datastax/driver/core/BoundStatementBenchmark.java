@@ -0,0 +1,67 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures binding values to a prepared statement, either all at once or through the typed setters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoundStatementBenchmark {
+
+    private static final String VALUE = "The quick brown fox jumps over the lazy dog";
+
+    private PreparedStatement prepared;
+    private int i;
+
+    @Setup
+    public void setup() {
+        prepared = DefaultPreparedStatement.fromMessage(BenchmarkFixtures.preparedResult(), new Metadata(null),
+                                                        BenchmarkFixtures.VERSION, "INSERT INTO ks.t (k, c, v) VALUES (?, ?, ?)", "ks");
+    }
+
+    @Benchmark
+    public BoundStatement bind() {
+        i++;
+        return prepared.bind(i, (long)i, VALUE);
+    }
+
+    @Benchmark
+    public BoundStatement bindBySetters() {
+        i++;
+        return prepared.bind()
+                       .setInt(0, i)
+                       .setLong(1, i)
+                       .setString(2, VALUE);
+    }
+
+    @Benchmark
+    public BoundStatement bindByName() {
+        i++;
+        return prepared.bind()
+                       .setInt("k", i)
+                       .setLong("c", i)
+                       .setString("v", VALUE);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures decoding a ROWS response from the raw bytes read off the socket, through the same
+ * {@link Frame.Decoder} and {@link Message.ProtocolDecoder} handlers as the connection pipeline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FrameDecodingBenchmark {
+
+    @Param({ "1", "100", "5000" })
+    public int rows;
+
+    @Param({ "false", "true" })
+    public boolean compactRows;
+
+    private ByteBuf frame;
+    private EmbeddedChannel channel;
+
+    @Setup
+    public void setup() {
+        frame = BenchmarkFixtures.rowsFrame(rows, 32);
+        channel = new EmbeddedChannel(new Frame.Decoder(), new Message.ProtocolDecoder(compactRows));
+    }
+
+    @TearDown
+    public void tearDown() {
+        channel.finish();
+        frame.release();
+    }
+
+    @Benchmark
+    public Object decodeRows() {
+        // The decoders release what they consume, retain so that the captured frame can be reused
+        channel.writeInbound(frame.duplicate().retain());
+        return channel.readInbound();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.datastax.driver.core.policies.DCAwareRoundRobinPolicy;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
+import com.datastax.driver.core.policies.RoundRobinPolicy;
+import com.datastax.driver.core.policies.TokenAwarePolicy;
+
+/**
+ * Measures computing and fully iterating a query plan, which is done for every request.
+ * <p>
+ * The policies are initialized against a {@link Cluster} that is never connected; only its
+ * configuration and (fake) metadata are used.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryPlanBenchmark {
+
+    private static final int KEYS = 1024;
+
+    @Param({ "RoundRobin", "DCAwareRoundRobin", "TokenAware(DCAwareRoundRobin)" })
+    public String policy;
+
+    @Param({ "6", "48" })
+    public int hosts;
+
+    private Cluster cluster;
+    private LoadBalancingPolicy loadBalancingPolicy;
+    private Statement[] statements;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setup() {
+        List<Host> allHosts = BenchmarkFixtures.hosts(hosts, 2);
+        final Metadata metadata = BenchmarkFixtures.metadata(BenchmarkFixtures.murmur3Tokens(allHosts, 256),
+                                                             Collections.singletonList(BenchmarkFixtures.networkTopologyKeyspace(ReplicasBenchmark.NTS_KEYSPACE, 2, 3)));
+        cluster = new Cluster(Cluster.builder().addContactPoint("127.0.0.1")) {
+            @Override
+            public Metadata getMetadata() {
+                return metadata;
+            }
+        };
+
+        if (policy.equals("RoundRobin"))
+            loadBalancingPolicy = new RoundRobinPolicy();
+        else if (policy.equals("DCAwareRoundRobin"))
+            loadBalancingPolicy = new DCAwareRoundRobinPolicy("dc1");
+        else if (policy.equals("TokenAware(DCAwareRoundRobin)"))
+            loadBalancingPolicy = new TokenAwarePolicy(new DCAwareRoundRobinPolicy("dc1"));
+        else
+            throw new IllegalArgumentException("Unknown policy " + policy);
+        loadBalancingPolicy.init(cluster, allHosts);
+
+        ByteBuffer[] keys = BenchmarkFixtures.partitionKeys(KEYS);
+        statements = new Statement[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            statements[i] = new SimpleStatement("SELECT * FROM t WHERE k = ?")
+                                .setRoutingKey(keys[i])
+                                .setKeyspace(ReplicasBenchmark.NTS_KEYSPACE);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        cluster.close();
+    }
+
+    @Benchmark
+    public void newQueryPlan(Cursor cursor, Blackhole blackhole) {
+        Statement statement = statements[cursor.next++ & (KEYS - 1)];
+        Iterator<Host> plan = loadBalancingPolicy.newQueryPlan(ReplicasBenchmark.NTS_KEYSPACE, statement);
+        while (plan.hasNext())
+            blackhole.consume(plan.next());
+    }
+
+    @Benchmark
+    public Host firstHost(Cursor cursor) {
+        Statement statement = statements[cursor.next++ & (KEYS - 1)];
+        return loadBalancingPolicy.newQueryPlan(ReplicasBenchmark.NTS_KEYSPACE, statement).next();
+    }
+}
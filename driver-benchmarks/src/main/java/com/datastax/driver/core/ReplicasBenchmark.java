@@ -0,0 +1,84 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures looking up the replicas of a partition key, as done by token-aware routing for every
+ * request, and rebuilding the token map, as done on every topology or keyspace change.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReplicasBenchmark {
+
+    static final String SIMPLE_KEYSPACE = "simple_ks";
+    static final String NTS_KEYSPACE = "nts_ks";
+
+    private static final int KEYS = 1024;
+
+    @Param({ "6", "48" })
+    public int hosts;
+
+    @Param({ "1", "256" })
+    public int vnodes;
+
+    @Param({ SIMPLE_KEYSPACE, NTS_KEYSPACE })
+    public String keyspace;
+
+    private Map<Host, Collection<String>> tokens;
+    private List<KeyspaceMetadata> keyspaces;
+    private Metadata metadata;
+    private ByteBuffer[] keys;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setup() {
+        tokens = BenchmarkFixtures.murmur3Tokens(BenchmarkFixtures.hosts(hosts, 2), vnodes);
+        keyspaces = Arrays.asList(BenchmarkFixtures.simpleStrategyKeyspace(SIMPLE_KEYSPACE, 3),
+                                  BenchmarkFixtures.networkTopologyKeyspace(NTS_KEYSPACE, 2, 3));
+        metadata = BenchmarkFixtures.metadata(tokens, keyspaces);
+        keys = BenchmarkFixtures.partitionKeys(KEYS);
+    }
+
+    @Benchmark
+    public Set<Host> getReplicas(Cursor cursor) {
+        ByteBuffer key = keys[cursor.next++ & (KEYS - 1)];
+        return metadata.getReplicas(keyspace, key);
+    }
+
+    @Benchmark
+    public Metadata.TokenMap rebuildTokenMap() {
+        return Metadata.TokenMap.build(Token.getFactory("Murmur3Partitioner"), tokens, keyspaces, null);
+    }
+
+    @Benchmark
+    public Metadata.TokenMap rebuildTokenMapFromPrevious() {
+        return Metadata.TokenMap.build(Token.getFactory("Murmur3Partitioner"), tokens, keyspaces, metadata.tokenMap);
+    }
+}
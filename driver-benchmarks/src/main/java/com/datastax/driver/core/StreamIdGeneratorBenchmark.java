@@ -0,0 +1,61 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures acquiring and releasing a stream id, as done for every request sent on a connection.
+ * <p>
+ * The group benchmark runs with several threads sharing the generator, like the request threads
+ * and I/O threads of a busy connection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StreamIdGeneratorBenchmark {
+
+    @Param({ "V2", "V3" })
+    public String protocolVersion;
+
+    private StreamIdGenerator generator;
+
+    @Setup
+    public void setup() {
+        generator = StreamIdGenerator.newInstance(ProtocolVersion.valueOf(protocolVersion));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int nextAndRelease_uncontended() throws BusyConnectionException {
+        int id = generator.next();
+        generator.release(id);
+        return id;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int nextAndRelease_contended() throws BusyConnectionException {
+        int id = generator.next();
+        generator.release(id);
+        return id;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures serializing and deserializing a single value of each common CQL type.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TypeCodecBenchmark {
+
+    @Param({ "int", "bigint", "double", "varchar", "timestamp", "uuid", "blob", "list<int>", "map<varchar,bigint>" })
+    public String type;
+
+    private DataType dataType;
+    private Object value;
+    private ByteBuffer serialized;
+
+    @Setup
+    public void setup() {
+        if (type.equals("int")) {
+            dataType = DataType.cint();
+            value = 42;
+        } else if (type.equals("bigint")) {
+            dataType = DataType.bigint();
+            value = 42L;
+        } else if (type.equals("double")) {
+            dataType = DataType.cdouble();
+            value = 42.0;
+        } else if (type.equals("varchar")) {
+            dataType = DataType.varchar();
+            value = "The quick brown fox jumps over the lazy dog";
+        } else if (type.equals("timestamp")) {
+            dataType = DataType.timestamp();
+            value = new Date(1430000000000L);
+        } else if (type.equals("uuid")) {
+            dataType = DataType.uuid();
+            value = UUID.randomUUID();
+        } else if (type.equals("blob")) {
+            dataType = DataType.blob();
+            value = ByteBuffer.wrap(new byte[128]);
+        } else if (type.equals("list<int>")) {
+            dataType = DataType.list(DataType.cint());
+            List<Integer> list = new ArrayList<Integer>();
+            for (int i = 0; i < 16; i++)
+                list.add(i);
+            value = list;
+        } else if (type.equals("map<varchar,bigint>")) {
+            dataType = DataType.map(DataType.varchar(), DataType.bigint());
+            Map<String, Long> map = new HashMap<String, Long>();
+            for (int i = 0; i < 16; i++)
+                map.put("key" + i, (long)i);
+            value = map;
+        } else {
+            throw new IllegalArgumentException("Unknown type " + type);
+        }
+        serialized = dataType.serialize(value, BenchmarkFixtures.VERSION);
+    }
+
+    @Benchmark
+    public ByteBuffer serialize() {
+        return dataType.serialize(value, BenchmarkFixtures.VERSION);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return dataType.deserialize(serialized.duplicate(), BenchmarkFixtures.VERSION);
+    }
+}
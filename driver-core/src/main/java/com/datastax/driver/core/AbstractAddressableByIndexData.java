@@ -184,6 +184,21 @@ abstract class AbstractAddressableByIndexData<T extends SettableByIndexData<T>>
         return setValue(i, type.codec(protocolVersion).serialize(v));
     }
 
+    public T setIntArray(int i, int[] v) {
+        checkArrayType(i, DataType.Name.INT, DataType.Name.INT);
+        return setValue(i, v == null ? null : TypeCodec.IntArrayCodec.instance(protocolVersion).serialize(v));
+    }
+
+    public T setLongArray(int i, long[] v) {
+        checkArrayType(i, DataType.Name.BIGINT, DataType.Name.COUNTER);
+        return setValue(i, v == null ? null : TypeCodec.LongArrayCodec.instance(protocolVersion).serialize(v));
+    }
+
+    public T setDoubleArray(int i, double[] v) {
+        checkArrayType(i, DataType.Name.DOUBLE, DataType.Name.DOUBLE);
+        return setValue(i, v == null ? null : TypeCodec.DoubleArrayCodec.instance(protocolVersion).serialize(v));
+    }
+
     public T setUDTValue(int i, UDTValue v) {
         DataType type = getType(i);
         if (type.getName() != DataType.Name.UDT)
@@ -368,6 +368,51 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
         return wrapped;
     }
 
+    public T setIntArray(int i, int[] v) {
+        checkArrayType(i, DataType.Name.INT, DataType.Name.INT);
+        return setValue(i, v == null ? null : TypeCodec.IntArrayCodec.instance(protocolVersion).serialize(v));
+    }
+
+    public T setIntArray(String name, int[] v) {
+        int[] indexes = getAllIndexesOf(name);
+        ByteBuffer value = v == null ? null : TypeCodec.IntArrayCodec.instance(protocolVersion).serialize(v);
+        for (int i = 0; i < indexes.length; i++) {
+            checkArrayType(indexes[i], DataType.Name.INT, DataType.Name.INT);
+            setValue(indexes[i], value);
+        }
+        return wrapped;
+    }
+
+    public T setLongArray(int i, long[] v) {
+        checkArrayType(i, DataType.Name.BIGINT, DataType.Name.COUNTER);
+        return setValue(i, v == null ? null : TypeCodec.LongArrayCodec.instance(protocolVersion).serialize(v));
+    }
+
+    public T setLongArray(String name, long[] v) {
+        int[] indexes = getAllIndexesOf(name);
+        ByteBuffer value = v == null ? null : TypeCodec.LongArrayCodec.instance(protocolVersion).serialize(v);
+        for (int i = 0; i < indexes.length; i++) {
+            checkArrayType(indexes[i], DataType.Name.BIGINT, DataType.Name.COUNTER);
+            setValue(indexes[i], value);
+        }
+        return wrapped;
+    }
+
+    public T setDoubleArray(int i, double[] v) {
+        checkArrayType(i, DataType.Name.DOUBLE, DataType.Name.DOUBLE);
+        return setValue(i, v == null ? null : TypeCodec.DoubleArrayCodec.instance(protocolVersion).serialize(v));
+    }
+
+    public T setDoubleArray(String name, double[] v) {
+        int[] indexes = getAllIndexesOf(name);
+        ByteBuffer value = v == null ? null : TypeCodec.DoubleArrayCodec.instance(protocolVersion).serialize(v);
+        for (int i = 0; i < indexes.length; i++) {
+            checkArrayType(indexes[i], DataType.Name.DOUBLE, DataType.Name.DOUBLE);
+            setValue(indexes[i], value);
+        }
+        return wrapped;
+    }
+
     public T setUDTValue(int i, UDTValue v) {
         DataType type = getType(i);
         if (type.getName() != DataType.Name.UDT)
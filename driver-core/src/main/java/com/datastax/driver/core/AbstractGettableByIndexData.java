@@ -68,6 +68,48 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
      */
     protected abstract ByteBuffer getValue(int i);
 
+    /**
+     * Deserializes the value at index {@code i} into a value that cannot be modified.
+     * <p>
+     * This is used by the getters of strings, varints, decimals, UUIDs, inet addresses and
+     * collections, so that implementations can return the values they have already decoded
+     * (see {@link ArrayBackedRow}). Collections are returned as unmodifiable views. It must not
+     * be used for types which values are mutable, like blobs, timestamps, UDT or tuple values.
+     *
+     * @param i the index of the value.
+     * @param codec the codec for the type of the value.
+     * @param value the value at index {@code i}, which is not {@code null}.
+     * @return the deserialized value.
+     */
+    protected Object decode(int i, TypeCodec<?> codec, ByteBuffer value) {
+        return unmodifiable(codec.deserialize(value));
+    }
+
+    /**
+     * Deserializes the UDT or tuple value at index {@code i}.
+     * <p>
+     * Those values can be modified by the caller, so implementations that keep the values they have
+     * decoded (see {@link ArrayBackedRow}) must return a new value every time.
+     *
+     * @param i the index of the value.
+     * @param codec the codec for the type of the value.
+     * @param value the value at index {@code i}, which is not {@code null}.
+     * @return the deserialized value.
+     */
+    protected Object decodeMutable(int i, TypeCodec<?> codec, ByteBuffer value) {
+        return codec.deserialize(value);
+    }
+
+    static Object unmodifiable(Object value) {
+        if (value instanceof List)
+            return Collections.unmodifiableList((List<?>)value);
+        if (value instanceof Set)
+            return Collections.unmodifiableSet((Set<?>)value);
+        if (value instanceof Map)
+            return Collections.unmodifiableMap((Map<?, ?>)value);
+        return value;
+    }
+
     // Note: we avoid having a vararg method to avoid the array allocation that comes with it.
     protected void checkType(int i, DataType.Name name) {
         DataType defined = getType(i);
@@ -217,9 +259,9 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
         if (value == null)
             return null;
 
-        return type == DataType.Name.ASCII
-             ? TypeCodec.StringCodec.asciiInstance.deserialize(value)
-             : TypeCodec.StringCodec.utf8Instance.deserialize(value);
+        return (String)decode(i, type == DataType.Name.ASCII
+                                 ? TypeCodec.StringCodec.asciiInstance
+                                 : TypeCodec.StringCodec.utf8Instance, value);
     }
 
     /**
@@ -233,7 +275,7 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
         if (value == null || value.remaining() == 0)
             return null;
 
-        return TypeCodec.BigIntegerCodec.instance.deserialize(value);
+        return (BigInteger)decode(i, TypeCodec.BigIntegerCodec.instance, value);
     }
 
     /**
@@ -247,7 +289,7 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
         if (value == null || value.remaining() == 0)
             return null;
 
-        return TypeCodec.DecimalCodec.instance.deserialize(value);
+        return (BigDecimal)decode(i, TypeCodec.DecimalCodec.instance, value);
     }
 
     /**
@@ -261,9 +303,9 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
         if (value == null || value.remaining() == 0)
             return null;
 
-        return type == DataType.Name.UUID
-             ? TypeCodec.UUIDCodec.instance.deserialize(value)
-             : TypeCodec.TimeUUIDCodec.instance.deserialize(value);
+        return (UUID)decode(i, type == DataType.Name.UUID
+                               ? TypeCodec.UUIDCodec.instance
+                               : TypeCodec.TimeUUIDCodec.instance, value);
     }
 
     /**
@@ -277,7 +319,7 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
         if (value == null || value.remaining() == 0)
             return null;
 
-        return TypeCodec.InetCodec.instance.deserialize(value);
+        return (InetAddress)decode(i, TypeCodec.InetCodec.instance, value);
     }
 
     /**
@@ -298,7 +340,7 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
         if (value == null)
             return Collections.<T>emptyList();
 
-        return Collections.unmodifiableList((List<T>)type.codec(protocolVersion).deserialize(value));
+        return (List<T>)decode(i, type.codec(protocolVersion), value);
     }
 
     /**
@@ -319,7 +361,7 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
         if (value == null)
             return Collections.<T>emptyList();
 
-        return Collections.unmodifiableList((List<T>)type.codec(protocolVersion).deserialize(value));
+        return (List<T>)decode(i, type.codec(protocolVersion), value);
     }
 
     /**
@@ -340,7 +382,7 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
         if (value == null)
             return Collections.<T>emptySet();
 
-        return Collections.unmodifiableSet((Set<T>)type.codec(protocolVersion).deserialize(value));
+        return (Set<T>)decode(i, type.codec(protocolVersion), value);
     }
 
     /**
@@ -361,7 +403,7 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
         if (value == null)
             return Collections.<T>emptySet();
 
-        return Collections.unmodifiableSet((Set<T>)type.codec(protocolVersion).deserialize(value));
+        return (Set<T>)decode(i, type.codec(protocolVersion), value);
     }
 
     /**
@@ -383,7 +425,7 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
         if (value == null)
             return Collections.<K, V>emptyMap();
 
-        return Collections.unmodifiableMap((Map<K, V>)type.codec(protocolVersion).deserialize(value));
+        return (Map<K, V>)decode(i, type.codec(protocolVersion), value);
     }
 
     /**
@@ -405,7 +447,61 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
         if (value == null)
             return Collections.<K, V>emptyMap();
 
-        return Collections.unmodifiableMap((Map<K, V>)type.codec(protocolVersion).deserialize(value));
+        return (Map<K, V>)decode(i, type.codec(protocolVersion), value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] getIntArray(int i) {
+        checkArrayType(i, DataType.Name.INT, DataType.Name.INT);
+
+        ByteBuffer value = getValue(i);
+        if (value == null)
+            return TypeCodec.IntArrayCodec.EMPTY;
+
+        return TypeCodec.IntArrayCodec.instance(protocolVersion).deserialize(value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long[] getLongArray(int i) {
+        checkArrayType(i, DataType.Name.BIGINT, DataType.Name.COUNTER);
+
+        ByteBuffer value = getValue(i);
+        if (value == null)
+            return TypeCodec.LongArrayCodec.EMPTY;
+
+        return TypeCodec.LongArrayCodec.instance(protocolVersion).deserialize(value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double[] getDoubleArray(int i) {
+        checkArrayType(i, DataType.Name.DOUBLE, DataType.Name.DOUBLE);
+
+        ByteBuffer value = getValue(i);
+        if (value == null)
+            return TypeCodec.DoubleArrayCodec.EMPTY;
+
+        return TypeCodec.DoubleArrayCodec.instance(protocolVersion).deserialize(value);
+    }
+
+    // Checks that value i is a list or set of elements of one of the given types
+    protected void checkArrayType(int i, DataType.Name elementName1, DataType.Name elementName2) {
+        DataType defined = getType(i);
+        DataType.Name name = defined.getName();
+        if (name == DataType.Name.LIST || name == DataType.Name.SET) {
+            DataType.Name elementName = defined.getTypeArguments().get(0).getName();
+            if (elementName == elementName1 || elementName == elementName2)
+                return;
+        }
+        throw new InvalidTypeException(String.format("Value %s is of type %s, cannot be accessed as an array of %s", getName(i), defined, elementName1));
     }
 
     /**
@@ -423,7 +519,7 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
             return null;
 
         // UDT always use the protocol V3 to encode values
-        return (UDTValue)type.codec(ProtocolVersion.V3).deserialize(value);
+        return (UDTValue)decodeMutable(i, type.codec(ProtocolVersion.V3), value);
     }
 
     /**
@@ -441,7 +537,7 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
             return null;
 
         // tuples always use the protocol V3 to encode values
-        return (TupleValue)type.codec(ProtocolVersion.V3).deserialize(value);
+        return (TupleValue)decodeMutable(i, type.codec(ProtocolVersion.V3), value);
     }
 
     /**
@@ -462,7 +558,20 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
                 default:
                     return null;
             }
-        else
-            return type.deserialize(raw, protocolVersion);
+
+        switch (type.getName()) {
+            case ASCII:
+            case TEXT:
+            case VARCHAR:
+            case VARINT:
+            case DECIMAL:
+            case UUID:
+            case TIMEUUID:
+            case INET:
+                return decode(i, type.codec(protocolVersion), raw);
+            default:
+                // Mutable values, and collections that are returned modifiable by this method
+                return type.deserialize(raw, protocolVersion);
+        }
     }
 }
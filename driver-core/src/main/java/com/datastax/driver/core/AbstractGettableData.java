@@ -219,6 +219,30 @@ public abstract class AbstractGettableData extends AbstractGettableByIndexData i
         return getMap(getIndexOf(name), keysType, valuesType);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] getIntArray(String name) {
+        return getIntArray(getIndexOf(name));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long[] getLongArray(String name) {
+        return getLongArray(getIndexOf(name));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double[] getDoubleArray(String name) {
+        return getDoubleArray(getIndexOf(name));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -20,6 +20,7 @@ import java.util.*;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
@@ -76,9 +77,10 @@ abstract class ArrayBackedResultSet implements ResultSet {
                 // info can be null only for internal calls, but we don't page those. We assert
                 // this explicitly because MultiPage implementation don't support info == null.
                 assert r.metadata.pagingState == null || info != null;
+                int maxCachedValuesPerPage = maxCachedValuesPerPage(session, statement);
                 return r.metadata.pagingState == null
-                    ? new SinglePage(columnDefs, tokenFactory, protocolVersion, r.data, info)
-                    : new MultiPage(columnDefs, tokenFactory, protocolVersion, r.data, info, r.metadata.pagingState, session, statement);
+                    ? new SinglePage(columnDefs, tokenFactory, protocolVersion, r.data, info, maxCachedValuesPerPage)
+                    : new MultiPage(columnDefs, tokenFactory, protocolVersion, r.data, info, r.metadata.pagingState, session, statement, maxCachedValuesPerPage);
 
             case SET_KEYSPACE:
             case SCHEMA_CHANGE:
@@ -91,6 +93,18 @@ abstract class ArrayBackedResultSet implements ResultSet {
         }
     }
 
+    private static int maxCachedValuesPerPage(SessionManager session, Statement statement) {
+        int max = statement == null ? -1 : statement.getMaxCachedValuesPerPage();
+        if (max < 0)
+            max = session == null ? 0 : session.configuration().getQueryOptions().getMaxCachedValuesPerPage();
+        return max;
+    }
+
+    // The budget of cached values for a new page of rows, or null if rows don't cache values
+    private static ArrayBackedRow.CacheBudget newCacheBudget(int maxCachedValuesPerPage) {
+        return maxCachedValuesPerPage > 0 ? new ArrayBackedRow.CacheBudget(maxCachedValuesPerPage) : null;
+    }
+
     private static ExecutionInfo update(ExecutionInfo info, Responses.Result msg, SessionManager session) {
         UUID tracingId = msg.getTracingId();
         return tracingId == null || info == null ? info : info.withTrace(new QueryTrace(tracingId, session));
@@ -98,7 +112,7 @@ abstract class ArrayBackedResultSet implements ResultSet {
 
     private static ArrayBackedResultSet empty(ExecutionInfo info) {
         // We could pass the protocol version but we know we won't need it so passing a bogus value (null)
-        return new SinglePage(ColumnDefinitions.EMPTY, null,  null, EMPTY_QUEUE, info);
+        return new SinglePage(ColumnDefinitions.EMPTY, null,  null, EMPTY_QUEUE, info, 0);
     }
 
     public ColumnDefinitions getColumnDefinitions() {
@@ -155,15 +169,18 @@ abstract class ArrayBackedResultSet implements ResultSet {
 
         private final Queue<List<ByteBuffer>> rows;
         private final ExecutionInfo info;
+        private final ArrayBackedRow.CacheBudget cacheBudget;
 
         private SinglePage(ColumnDefinitions metadata,
                            Token.Factory tokenFactory,
                            ProtocolVersion protocolVersion,
                            Queue<List<ByteBuffer>> rows,
-                           ExecutionInfo info) {
+                           ExecutionInfo info,
+                           int maxCachedValuesPerPage) {
             super(metadata, tokenFactory, rows.peek(), protocolVersion);
             this.info = info;
             this.rows = rows;
+            this.cacheBudget = newCacheBudget(maxCachedValuesPerPage);
         }
 
         public boolean isExhausted() {
@@ -171,7 +188,7 @@ abstract class ArrayBackedResultSet implements ResultSet {
         }
 
         public Row one() {
-            return ArrayBackedRow.fromData(metadata, tokenFactory, protocolVersion, rows.poll());
+            return ArrayBackedRow.fromData(metadata, tokenFactory, protocolVersion, rows.poll(), cacheBudget);
         }
 
         public int getAvailableWithoutFetching() {
@@ -220,6 +237,14 @@ abstract class ArrayBackedResultSet implements ResultSet {
         private final SessionManager session;
         private final Statement statement;
 
+        // 0 if prefetching is disabled
+        private final int prefetchThreshold;
+        private final int maxPrefetchedPages;
+
+        private final int maxCachedValuesPerPage;
+        // The budget of the current page
+        private ArrayBackedRow.CacheBudget cacheBudget;
+
         private MultiPage(ColumnDefinitions metadata,
                           Token.Factory tokenFactory,
                           ProtocolVersion protocolVersion,
@@ -227,7 +252,8 @@ abstract class ArrayBackedResultSet implements ResultSet {
                           ExecutionInfo info,
                           ByteBuffer pagingState,
                           SessionManager session,
-                          Statement statement) {
+                          Statement statement,
+                          int maxCachedValuesPerPage) {
 
             // Note: as of Cassandra 2.1.0, it turns out that the result of a CAS update is never paged, so
             // we could hard-code the result of wasApplied in this class to "true". However, we can not be sure
@@ -239,6 +265,13 @@ abstract class ArrayBackedResultSet implements ResultSet {
             this.fetchState = new FetchingState(pagingState, null);
             this.session = session;
             this.statement = statement;
+
+            QueryOptions queryOptions = session.configuration().getQueryOptions();
+            int threshold = statement.getPrefetchThreshold();
+            this.prefetchThreshold = threshold < 0 ? queryOptions.getPrefetchThreshold() : threshold;
+            this.maxPrefetchedPages = queryOptions.getMaxPrefetchedPages();
+            this.maxCachedValuesPerPage = maxCachedValuesPerPage;
+            this.cacheBudget = newCacheBudget(maxCachedValuesPerPage);
         }
 
         public boolean isExhausted() {
@@ -248,7 +281,22 @@ abstract class ArrayBackedResultSet implements ResultSet {
 
         public Row one() {
             prepareNextRow();
-            return ArrayBackedRow.fromData(metadata, tokenFactory, protocolVersion, currentPage.poll());
+            Row row = ArrayBackedRow.fromData(metadata, tokenFactory, protocolVersion, currentPage.poll(), cacheBudget);
+            if (prefetchThreshold > 0)
+                maybePrefetch();
+            return row;
+        }
+
+        private void maybePrefetch() {
+            // Cheapest checks first, this is called for every row
+            if (currentPage.size() > prefetchThreshold)
+                return;
+            FetchingState fetchingState = this.fetchState;
+            if (fetchingState == null || fetchingState.inProgress != null)
+                return;
+            if (nextPages.size() >= maxPrefetchedPages || getAvailableWithoutFetching() > prefetchThreshold)
+                return;
+            fetchMoreResults(fetchingState);
         }
 
         public int getAvailableWithoutFetching() {
@@ -272,6 +320,7 @@ abstract class ArrayBackedResultSet implements ResultSet {
                 Queue<List<ByteBuffer>> nextPage = nextPages.poll();
                 if (nextPage != null) {
                     currentPage = nextPage;
+                    cacheBudget = newCacheBudget(maxCachedValuesPerPage);
                     continue;
                 }
                 if (fetchingState == null)
@@ -279,11 +328,15 @@ abstract class ArrayBackedResultSet implements ResultSet {
 
                 // We need to know if there is more result, so fetch the next page and
                 // wait on it.
+                long start = System.nanoTime();
                 try {
                     Uninterruptibles.getUninterruptibly(fetchMoreResults());
                 } catch (ExecutionException e) {
                     throw DefaultResultSetFuture.extractCauseFromExecutionException(e);
                 }
+                Metrics metrics = session.cluster.manager.metrics;
+                if (metrics != null)
+                    metrics.getPageFetchStalls().update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             }
         }
 
@@ -17,11 +17,17 @@ package com.datastax.driver.core;
 
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.datastax.driver.core.exceptions.DriverInternalError;
 
 /**
  * Implementation of a Row backed by an ArrayList.
+ * <p>
+ * If the row is given a {@link CacheBudget}, it keeps the immutable values it decodes (strings, UUIDs, unmodifiable
+ * collections...) to return them again on the next reads of the same cells, as long as the budget of its page allows.
+ * It also keeps the UDT and tuple values it decodes, but since those are mutable, it returns copies of them, which
+ * share the field buffers of the kept value instead of splitting the serialized value again.
  */
 class ArrayBackedRow extends AbstractGettableData implements Row {
 
@@ -29,18 +35,28 @@ class ArrayBackedRow extends AbstractGettableData implements Row {
     private final Token.Factory tokenFactory;
     private final List<ByteBuffer> data;
 
-    private ArrayBackedRow(ColumnDefinitions metadata, Token.Factory tokenFactory, ProtocolVersion protocolVersion, List<ByteBuffer> data) {
+    // null if this row doesn't cache decoded values
+    private final CacheBudget cacheBudget;
+    // Allocated on the first cached value
+    private Object[] decoded;
+
+    private ArrayBackedRow(ColumnDefinitions metadata, Token.Factory tokenFactory, ProtocolVersion protocolVersion, List<ByteBuffer> data, CacheBudget cacheBudget) {
         super(protocolVersion);
         this.metadata = metadata;
         this.tokenFactory = tokenFactory;
         this.data = data;
+        this.cacheBudget = cacheBudget;
     }
 
     static Row fromData(ColumnDefinitions metadata, Token.Factory tokenFactory, ProtocolVersion protocolVersion, List<ByteBuffer> data) {
+        return fromData(metadata, tokenFactory, protocolVersion, data, null);
+    }
+
+    static Row fromData(ColumnDefinitions metadata, Token.Factory tokenFactory, ProtocolVersion protocolVersion, List<ByteBuffer> data, CacheBudget cacheBudget) {
         if (data == null)
             return null;
 
-        return new ArrayBackedRow(metadata, tokenFactory, protocolVersion, data);
+        return new ArrayBackedRow(metadata, tokenFactory, protocolVersion, data, cacheBudget);
     }
 
     @Override
@@ -63,6 +79,44 @@ class ArrayBackedRow extends AbstractGettableData implements Row {
         return data.get(i);
     }
 
+    @Override
+    protected Object decode(int i, TypeCodec<?> codec, ByteBuffer value) {
+        Object cached = cached(i);
+        if (cached != null)
+            return cached;
+
+        Object v = unmodifiable(codec.deserialize(value));
+        cache(i, v);
+        return v;
+    }
+
+    @Override
+    protected Object decodeMutable(int i, TypeCodec<?> codec, ByteBuffer value) {
+        Object cached = cached(i);
+        if (cached == null) {
+            Object v = codec.deserialize(value);
+            if (!cache(i, v))
+                return v;
+            cached = v;
+        }
+        // The kept value is never handed out, the caller could modify it
+        return cached instanceof UDTValue ? ((UDTValue)cached).copy() : ((TupleValue)cached).copy();
+    }
+
+    // Not synchronized: a row that caches values is not meant to be read by several threads at once
+    private Object cached(int i) {
+        return decoded == null ? null : decoded[i];
+    }
+
+    private boolean cache(int i, Object v) {
+        if (cacheBudget == null || v == null || !cacheBudget.tryAcquire())
+            return false;
+        if (decoded == null)
+            decoded = new Object[data.size()];
+        decoded[i] = v;
+        return true;
+    }
+
     @Override
     protected int getIndexOf(String name) {
         return metadata.getFirstIdx(name);
@@ -113,4 +167,28 @@ class ArrayBackedRow extends AbstractGettableData implements Row {
         sb.append(']');
         return sb.toString();
     }
-}
\ No newline at end of file
+
+    /**
+     * The number of values that the rows of a page can still cache.
+     * <p>
+     * This is shared by the rows of a page, which can be read by different threads: it bounds the
+     * memory that the cached values take, in addition to the page itself.
+     */
+    static class CacheBudget {
+        private final AtomicInteger remaining;
+
+        CacheBudget(int size) {
+            this.remaining = new AtomicInteger(size);
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = remaining.get();
+                if (current <= 0)
+                    return false;
+                if (remaining.compareAndSet(current, current - 1))
+                    return true;
+            }
+        }
+    }
+}
@@ -26,7 +26,8 @@ import java.util.concurrent.atomic.AtomicLong;
  * depends on the operating system).
  * <p>
  * If that rate is exceeded, a warning is logged and the timestamps don't increment anymore until the next clock
- * tick. If you consistently exceed that rate, consider using {@link ThreadLocalMonotonicTimestampGenerator}.
+ * tick. If you consistently exceed that rate, consider using {@link ThreadLocalMonotonicTimestampGenerator} or
+ * {@link StripedMonotonicTimestampGenerator}.
  */
 public class AtomicMonotonicTimestampGenerator extends AbstractMonotonicTimestampGenerator {
     private AtomicLong lastRef = new AtomicLong(0);
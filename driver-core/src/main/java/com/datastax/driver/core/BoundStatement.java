@@ -944,6 +944,114 @@ public class BoundStatement extends Statement implements SettableData<BoundState
         return wrapper.setSet(name, v);
     }
 
+    /**
+     * Sets the {@code i}th bound variable, a list or set of ints, to the elements of the provided array.
+     * <p>
+     * Unlike {@link #setList(int, List)} and {@link #setSet(int, Set)}, this encodes the elements
+     * straight from the array, without boxing them.
+     *
+     * @param i the index of the variable to set.
+     * @param v the value to set.
+     * @return this BoundStatement.
+     *
+     * @throws IndexOutOfBoundsException if {@code i < 0 || i >= this.preparedStatement().variables().size()}.
+     * @throws InvalidTypeException if column {@code i} is not a list or set of type INT.
+     */
+    public BoundStatement setIntArray(int i, int[] v) {
+        return wrapper.setIntArray(i, v);
+    }
+
+    /**
+     * Sets the value for (all occurrences of) variable {@code name}, a list or set of ints, to the elements of the provided array.
+     * <p>
+     * Unlike {@link #setList(String, List)} and {@link #setSet(String, Set)}, this encodes the elements
+     * straight from the array, without boxing them.
+     *
+     * @param name the name of the variable to set; if multiple variables
+     * {@code name} are prepared, all of them are set.
+     * @param v the value to set.
+     * @return this BoundStatement.
+     *
+     * @throws IllegalArgumentException if {@code name} is not a prepared
+     * variable, that is, if {@code !this.preparedStatement().variables().names().contains(name)}.
+     * @throws InvalidTypeException if (any occurrence of) {@code name} is not a list or set of type INT.
+     */
+    public BoundStatement setIntArray(String name, int[] v) {
+        return wrapper.setIntArray(name, v);
+    }
+
+    /**
+     * Sets the {@code i}th bound variable, a list or set of longs, to the elements of the provided array.
+     * <p>
+     * Unlike {@link #setList(int, List)} and {@link #setSet(int, Set)}, this encodes the elements
+     * straight from the array, without boxing them.
+     *
+     * @param i the index of the variable to set.
+     * @param v the value to set.
+     * @return this BoundStatement.
+     *
+     * @throws IndexOutOfBoundsException if {@code i < 0 || i >= this.preparedStatement().variables().size()}.
+     * @throws InvalidTypeException if column {@code i} is not a list or set of type BIGINT or COUNTER.
+     */
+    public BoundStatement setLongArray(int i, long[] v) {
+        return wrapper.setLongArray(i, v);
+    }
+
+    /**
+     * Sets the value for (all occurrences of) variable {@code name}, a list or set of longs, to the elements of the provided array.
+     * <p>
+     * Unlike {@link #setList(String, List)} and {@link #setSet(String, Set)}, this encodes the elements
+     * straight from the array, without boxing them.
+     *
+     * @param name the name of the variable to set; if multiple variables
+     * {@code name} are prepared, all of them are set.
+     * @param v the value to set.
+     * @return this BoundStatement.
+     *
+     * @throws IllegalArgumentException if {@code name} is not a prepared
+     * variable, that is, if {@code !this.preparedStatement().variables().names().contains(name)}.
+     * @throws InvalidTypeException if (any occurrence of) {@code name} is not a list or set of type BIGINT or COUNTER.
+     */
+    public BoundStatement setLongArray(String name, long[] v) {
+        return wrapper.setLongArray(name, v);
+    }
+
+    /**
+     * Sets the {@code i}th bound variable, a list or set of doubles, to the elements of the provided array.
+     * <p>
+     * Unlike {@link #setList(int, List)} and {@link #setSet(int, Set)}, this encodes the elements
+     * straight from the array, without boxing them.
+     *
+     * @param i the index of the variable to set.
+     * @param v the value to set.
+     * @return this BoundStatement.
+     *
+     * @throws IndexOutOfBoundsException if {@code i < 0 || i >= this.preparedStatement().variables().size()}.
+     * @throws InvalidTypeException if column {@code i} is not a list or set of type DOUBLE.
+     */
+    public BoundStatement setDoubleArray(int i, double[] v) {
+        return wrapper.setDoubleArray(i, v);
+    }
+
+    /**
+     * Sets the value for (all occurrences of) variable {@code name}, a list or set of doubles, to the elements of the provided array.
+     * <p>
+     * Unlike {@link #setList(String, List)} and {@link #setSet(String, Set)}, this encodes the elements
+     * straight from the array, without boxing them.
+     *
+     * @param name the name of the variable to set; if multiple variables
+     * {@code name} are prepared, all of them are set.
+     * @param v the value to set.
+     * @return this BoundStatement.
+     *
+     * @throws IllegalArgumentException if {@code name} is not a prepared
+     * variable, that is, if {@code !this.preparedStatement().variables().names().contains(name)}.
+     * @throws InvalidTypeException if (any occurrence of) {@code name} is not a list or set of type DOUBLE.
+     */
+    public BoundStatement setDoubleArray(String name, double[] v) {
+        return wrapper.setDoubleArray(name, v);
+    }
+
     /**
      * Sets the {@code i}th value to the provided UDT value.
      *
@@ -1317,6 +1425,48 @@ public class BoundStatement extends Statement implements SettableData<BoundState
         return wrapper.getMap(name, keysType, valuesType);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public int[] getIntArray(int i) {
+        return wrapper.getIntArray(i);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int[] getIntArray(String name) {
+        return wrapper.getIntArray(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long[] getLongArray(int i) {
+        return wrapper.getLongArray(i);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long[] getLongArray(String name) {
+        return wrapper.getLongArray(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public double[] getDoubleArray(int i) {
+        return wrapper.getDoubleArray(i);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public double[] getDoubleArray(String name) {
+        return wrapper.getDoubleArray(name);
+    }
+
     /**
      * {@inheritDoc}
      */
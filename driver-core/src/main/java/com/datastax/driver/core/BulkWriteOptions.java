@@ -0,0 +1,185 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+/**
+ * Options for the bulk writes performed by {@link BulkWriter#execute(Session, java.util.Iterator, BulkWriteOptions)}.
+ */
+public class BulkWriteOptions {
+
+    /**
+     * The default maximum number of statements in a batch: 100.
+     */
+    public static final int DEFAULT_MAX_BATCH_STATEMENTS = 100;
+
+    /**
+     * The default maximum size of a batch: 5 kilobytes, which is Cassandra's default
+     * {@code batch_size_warn_threshold_in_kb}.
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE_IN_BYTES = 5 * 1024;
+
+    /**
+     * The default maximum number of requests in flight for a bulk write: 32.
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 32;
+
+    /**
+     * The default type of the batches: {@link BatchStatement.Type#UNLOGGED}.
+     */
+    public static final BatchStatement.Type DEFAULT_BATCH_TYPE = BatchStatement.Type.UNLOGGED;
+
+    private volatile int maxBatchStatements = DEFAULT_MAX_BATCH_STATEMENTS;
+    private volatile int maxBatchSizeInBytes = DEFAULT_MAX_BATCH_SIZE_IN_BYTES;
+    private volatile int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+    private volatile BatchStatement.Type batchType = DEFAULT_BATCH_TYPE;
+    private volatile ConsistencyLevel consistency;
+
+    /**
+     * Creates a new {@link BulkWriteOptions} instance using the default values.
+     */
+    public BulkWriteOptions() {}
+
+    /**
+     * Sets the maximum number of statements grouped in a single batch.
+     * <p>
+     * Setting this to 1 disables batching: statements are then only sent with
+     * bounded concurrency.
+     *
+     * @param maxBatchStatements the new maximum number of statements.
+     * @return this {@code BulkWriteOptions} instance.
+     *
+     * @throws IllegalArgumentException if {@code maxBatchStatements} is not
+     * between 1 and 65535.
+     */
+    public BulkWriteOptions setMaxBatchStatements(int maxBatchStatements) {
+        if (maxBatchStatements < 1 || maxBatchStatements > 0xFFFF)
+            throw new IllegalArgumentException("Invalid maxBatchStatements, should be between 1 and 65535, got " + maxBatchStatements);
+        this.maxBatchStatements = maxBatchStatements;
+        return this;
+    }
+
+    /**
+     * The maximum number of statements grouped in a single batch.
+     *
+     * @return the maximum number of statements grouped in a single batch.
+     */
+    public int getMaxBatchStatements() {
+        return maxBatchStatements;
+    }
+
+    /**
+     * Sets the maximum size of a batch.
+     * <p>
+     * The size of a batch is estimated from the size of the values (and, for non
+     * prepared statements, of the query string) of its statements. A statement
+     * larger than this limit is sent on its own.
+     *
+     * @param maxBatchSizeInBytes the new maximum size of a batch.
+     * @return this {@code BulkWriteOptions} instance.
+     *
+     * @throws IllegalArgumentException if {@code maxBatchSizeInBytes <= 0}.
+     */
+    public BulkWriteOptions setMaxBatchSizeInBytes(int maxBatchSizeInBytes) {
+        if (maxBatchSizeInBytes <= 0)
+            throw new IllegalArgumentException("Invalid maxBatchSizeInBytes, should be > 0, got " + maxBatchSizeInBytes);
+        this.maxBatchSizeInBytes = maxBatchSizeInBytes;
+        return this;
+    }
+
+    /**
+     * The maximum size of a batch.
+     *
+     * @return the maximum size of a batch, in bytes.
+     */
+    public int getMaxBatchSizeInBytes() {
+        return maxBatchSizeInBytes;
+    }
+
+    /**
+     * Sets the maximum number of requests (batches or single statements) that a
+     * bulk write keeps in flight.
+     *
+     * @param maxConcurrentRequests the new maximum number of requests in flight.
+     * @return this {@code BulkWriteOptions} instance.
+     *
+     * @throws IllegalArgumentException if {@code maxConcurrentRequests <= 0}.
+     */
+    public BulkWriteOptions setMaxConcurrentRequests(int maxConcurrentRequests) {
+        if (maxConcurrentRequests <= 0)
+            throw new IllegalArgumentException("Invalid maxConcurrentRequests, should be > 0, got " + maxConcurrentRequests);
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        return this;
+    }
+
+    /**
+     * The maximum number of requests that a bulk write keeps in flight.
+     *
+     * @return the maximum number of requests that a bulk write keeps in flight.
+     */
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    /**
+     * Sets the type of the batches.
+     * <p>
+     * Grouped statements never span more than one replica set, so there is usually
+     * no point in using {@link BatchStatement.Type#LOGGED} batches; use
+     * {@link BatchStatement.Type#COUNTER} for counter updates.
+     *
+     * @param batchType the new type of the batches.
+     * @return this {@code BulkWriteOptions} instance.
+     */
+    public BulkWriteOptions setBatchType(BatchStatement.Type batchType) {
+        if (batchType == null)
+            throw new NullPointerException();
+        this.batchType = batchType;
+        return this;
+    }
+
+    /**
+     * The type of the batches.
+     *
+     * @return the type of the batches.
+     */
+    public BatchStatement.Type getBatchType() {
+        return batchType;
+    }
+
+    /**
+     * Sets the consistency level of the batches.
+     * <p>
+     * If this is {@code null} (the default), a batch uses the consistency level
+     * of its first statement.
+     *
+     * @param consistencyLevel the new consistency level of the batches.
+     * @return this {@code BulkWriteOptions} instance.
+     */
+    public BulkWriteOptions setConsistencyLevel(ConsistencyLevel consistencyLevel) {
+        this.consistency = consistencyLevel;
+        return this;
+    }
+
+    /**
+     * The consistency level of the batches.
+     *
+     * @return the consistency level of the batches, or {@code null} if batches use
+     * the consistency level of their first statement.
+     */
+    public ConsistencyLevel getConsistencyLevel() {
+        return consistency;
+    }
+}
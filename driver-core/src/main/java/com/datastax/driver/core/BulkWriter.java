@@ -0,0 +1,345 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.Executor;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import com.datastax.driver.core.policies.RetryPolicy;
+
+/**
+ * Executes a stream of write statements, grouping the statements that have the same replicas
+ * into batches.
+ * <p>
+ * Bulk writes are started with {@link #execute(Session, Iterator, BulkWriteOptions)}.
+ */
+public final class BulkWriter {
+
+    // Rough per-statement overhead in a BATCH message: kind, query string or id length, value count
+    private static final int STATEMENT_OVERHEAD = 1 + 4 + 2;
+    private static final int VALUE_OVERHEAD = 4;
+    private static final int PREPARED_ID_SIZE = 16;
+
+    private final Session session;
+    private final Metadata metadata;
+    private final String loggedKeyspace;
+    private final BulkWriteOptions options;
+    private final int maxBatchStatements;
+    private final ProtocolVersion protocolVersion;
+    private final Iterator<? extends Statement> statements;
+    // Runs the callbacks of the requests, and thus iterates the input: this must not be an I/O thread
+    private final Executor executor;
+
+    // All the fields below are guarded by this
+    private final Map<GroupKey, Group> groups = new HashMap<GroupKey, Group>();
+    private final Queue<Statement> ready = new LinkedList<Statement>();
+    private int inFlight;
+
+    private final SettableFuture<Void> result = SettableFuture.create();
+
+    BulkWriter(Session session, Metadata metadata, ProtocolVersion protocolVersion, BulkWriteOptions options, Iterator<? extends Statement> statements, Executor executor) {
+        this.session = session;
+        this.metadata = metadata;
+        this.loggedKeyspace = session.getLoggedKeyspace();
+        this.options = options;
+        this.protocolVersion = protocolVersion;
+        // Batches are not supported by the version 1 of the protocol
+        this.maxBatchStatements = protocolVersion == ProtocolVersion.V1 ? 1 : options.getMaxBatchStatements();
+        this.statements = statements;
+        this.executor = executor;
+    }
+
+    /**
+     * Executes the provided write statements asynchronously, grouping them into
+     * batches of statements that have the same replicas.
+     * <p>
+     * This is equivalent to {@code execute(session, statements, new BulkWriteOptions())}.
+     *
+     * @param session the session to execute the statements with.
+     * @param statements the write statements to execute.
+     * @return a future that completes when all the statements have been executed,
+     * or fails with the first error encountered.
+     *
+     * @see #execute(Session, Iterator, BulkWriteOptions)
+     */
+    public static ListenableFuture<Void> execute(Session session, Iterator<? extends Statement> statements) {
+        return execute(session, statements, new BulkWriteOptions());
+    }
+
+    /**
+     * Executes the provided write statements asynchronously, grouping them into
+     * batches of statements that have the same replicas.
+     * <p>
+     * This is meant for loading large amounts of data that spans many partitions.
+     * Unlike a single {@link BatchStatement} holding all the statements, or one
+     * {@link Session#executeAsync(Statement)} call per statement, this method:
+     * <ul>
+     *   <li>groups the statements by the set of replicas of their routing key (see
+     *   {@link Metadata#getReplicas(String, java.nio.ByteBuffer)}), into batches of
+     *   type {@link BulkWriteOptions#getBatchType()} that are no larger than the
+     *   configured limits. With a {@link com.datastax.driver.core.policies.TokenAwarePolicy},
+     *   each batch is then coordinated by one of the replicas of all its statements,
+     *   and does not need to be forwarded to other nodes. Statements which routing key
+     *   is unknown, as well as {@code BatchStatement}s, are sent on their own;</li>
+     *   <li>keeps at most {@link BulkWriteOptions#getMaxConcurrentRequests()} requests in
+     *   flight. {@code statements} is consumed lazily as requests complete, so it can be
+     *   backed by a data source larger than the available memory.</li>
+     * </ul>
+     * Note that {@code statements} is iterated by the calling thread, then by the driver's
+     * worker threads (never by its I/O threads), so it should not block for long.
+     * <p>
+     * Only statements with the same execution settings are grouped: consistency level
+     * (unless {@link BulkWriteOptions#getConsistencyLevel()} is set, in which case all
+     * batches use it), serial consistency level, default timestamp, retry policy and
+     * tracing. Each batch is executed with the settings of its statements.
+     * <p>
+     * The returned future fails as soon as a request fails, without sending the
+     * remaining statements; some statements might then have been applied while others
+     * have not.
+     *
+     * @param session the session to execute the statements with.
+     * @param statements the write statements to execute.
+     * @param options the options of the bulk write.
+     * @return a future that completes when all the statements have been executed,
+     * or fails with the first error encountered.
+     */
+    public static ListenableFuture<Void> execute(Session session, Iterator<? extends Statement> statements, BulkWriteOptions options) {
+        Cluster cluster = session.getCluster();
+        ProtocolVersion protocolVersion = cluster.getConfiguration().getProtocolOptions().getProtocolVersionEnum();
+        return new BulkWriter(session, cluster.getMetadata(), protocolVersion, options, statements, cluster.manager.executor).start();
+    }
+
+    ListenableFuture<Void> start() {
+        pump();
+        return result;
+    }
+
+    /**
+     * Sends requests until the maximum number of requests in flight is reached or the input is exhausted.
+     * <p>
+     * This is called by the thread that starts the bulk write, then by the executor when requests complete.
+     */
+    private void pump() {
+        while (true) {
+            Statement next;
+            synchronized (this) {
+                if (result.isDone() || inFlight >= options.getMaxConcurrentRequests())
+                    return;
+                try {
+                    next = nextRequest();
+                } catch (RuntimeException e) {
+                    // Thrown by the user-provided iterator
+                    result.setException(e);
+                    return;
+                }
+                if (next == null) {
+                    if (inFlight == 0)
+                        result.set(null);
+                    return;
+                }
+                inFlight++;
+            }
+            send(next);
+        }
+    }
+
+    private void send(Statement statement) {
+        ResultSetFuture future;
+        try {
+            future = session.executeAsync(statement);
+        } catch (RuntimeException e) {
+            result.setException(e);
+            return;
+        }
+        Futures.addCallback(future, new FutureCallback<ResultSet>() {
+            @Override
+            public void onSuccess(ResultSet rs) {
+                synchronized (BulkWriter.this) {
+                    inFlight--;
+                }
+                pump();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                result.setException(t);
+            }
+        }, executor);
+    }
+
+    /**
+     * Returns the next statement or batch to send, or {@code null} if everything has been sent.
+     */
+    @VisibleForTesting
+    synchronized Statement nextRequest() {
+        while (ready.isEmpty()) {
+            if (!statements.hasNext()) {
+                if (groups.isEmpty())
+                    return null;
+                for (Group group : groups.values())
+                    ready.add(group.toStatement());
+                groups.clear();
+                break;
+            }
+            add(statements.next());
+        }
+        return ready.poll();
+    }
+
+    private void add(Statement statement) {
+        if (statement == null)
+            throw new NullPointerException("Bulk writes do not accept null statements");
+
+        Set<Host> replicas = replicas(statement);
+        if (replicas.isEmpty() || maxBatchStatements == 1 || !(statement instanceof RegularStatement || statement instanceof BoundStatement)) {
+            ready.add(statement);
+            return;
+        }
+
+        int size = estimateSize(statement);
+        GroupKey key = new GroupKey(replicas, statement, options.getConsistencyLevel());
+        Group group = groups.get(key);
+        if (group == null) {
+            group = new Group(key);
+            groups.put(key, group);
+        } else if (group.size + size > options.getMaxBatchSizeInBytes()) {
+            ready.add(group.toStatement());
+            group.clear();
+        }
+
+        group.add(statement, size);
+        if (group.statements.size() >= maxBatchStatements || group.size >= options.getMaxBatchSizeInBytes()) {
+            ready.add(group.toStatement());
+            groups.remove(key);
+        }
+    }
+
+    private Set<Host> replicas(Statement statement) {
+        ByteBuffer routingKey = statement.getRoutingKey();
+        String keyspace = statement.getKeyspace();
+        if (keyspace == null)
+            keyspace = loggedKeyspace;
+        if (routingKey == null || keyspace == null)
+            return Collections.emptySet();
+        // The keyspace is the exact, case-sensitive name, which Metadata expects quoted
+        return metadata.getReplicas(Metadata.quote(keyspace), routingKey);
+    }
+
+    private int estimateSize(Statement statement) {
+        int size = STATEMENT_OVERHEAD;
+        ByteBuffer[] values;
+        if (statement instanceof BoundStatement) {
+            size += PREPARED_ID_SIZE;
+            values = ((BoundStatement)statement).wrapper.values;
+        } else {
+            RegularStatement regular = (RegularStatement)statement;
+            size += regular.getQueryString().length();
+            values = regular.getValues(protocolVersion);
+        }
+        if (values != null) {
+            for (ByteBuffer value : values)
+                size += VALUE_OVERHEAD + (value == null ? 0 : value.remaining());
+        }
+        return size;
+    }
+
+    /**
+     * Statements are only grouped if they have the same replicas and would be executed with the same settings.
+     */
+    private static final class GroupKey {
+        private final Set<Host> replicas;
+        private final ConsistencyLevel consistency;
+        private final ConsistencyLevel serialConsistency;
+        private final long defaultTimestamp;
+        private final RetryPolicy retryPolicy;
+        private final boolean tracing;
+
+        GroupKey(Set<Host> replicas, Statement statement, ConsistencyLevel consistency) {
+            this.replicas = replicas;
+            this.consistency = consistency == null ? statement.getConsistencyLevel() : consistency;
+            this.serialConsistency = statement.getSerialConsistencyLevel();
+            this.defaultTimestamp = statement.getDefaultTimestamp();
+            this.retryPolicy = statement.getRetryPolicy();
+            this.tracing = statement.isTracing();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof GroupKey))
+                return false;
+            GroupKey that = (GroupKey)o;
+            return replicas.equals(that.replicas)
+                && consistency == that.consistency
+                && serialConsistency == that.serialConsistency
+                && defaultTimestamp == that.defaultTimestamp
+                && Objects.equal(retryPolicy, that.retryPolicy)
+                && tracing == that.tracing;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(replicas, consistency, serialConsistency, defaultTimestamp, retryPolicy, tracing);
+        }
+    }
+
+    private class Group {
+        private final GroupKey key;
+        private final List<Statement> statements = new ArrayList<Statement>();
+        private int size;
+
+        Group(GroupKey key) {
+            this.key = key;
+        }
+
+        void add(Statement statement, int statementSize) {
+            statements.add(statement);
+            size += statementSize;
+        }
+
+        void clear() {
+            statements.clear();
+            size = 0;
+        }
+
+        Statement toStatement() {
+            Statement first = statements.get(0);
+            if (statements.size() == 1)
+                return first;
+
+            BatchStatement batch = new BatchStatement(options.getBatchType());
+            batch.addAll(statements);
+            batch.setConsistencyLevel(key.consistency);
+            if (key.serialConsistency != null)
+                batch.setSerialConsistencyLevel(key.serialConsistency);
+            batch.setDefaultTimestamp(key.defaultTimestamp);
+            if (key.retryPolicy != null)
+                batch.setRetryPolicy(key.retryPolicy);
+            if (key.tracing)
+                batch.enableTracing();
+            return batch;
+        }
+    }
+}
@@ -19,6 +19,7 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.CharacterCodingException;
 import java.util.*;
 
@@ -267,8 +268,31 @@ abstract class CBUtil { // TODO rename
             return;
         }
 
-        cb.writeInt(bytes.remaining());
-        cb.writeBytes(bytes.duplicate());
+        // Use absolute reads, so that the value is not modified (it could be written concurrently by other
+        // connections) and no duplicate needs to be allocated
+        int length = bytes.remaining();
+        int position = bytes.position();
+        cb.writeInt(length);
+        // Write fixed-size values (ints, floats, bigints, doubles, timestamps, UUIDs) with primitive writes. This
+        // requires the value to have the same byte order as the frame.
+        if (bytes.order() == ByteOrder.BIG_ENDIAN) {
+            switch (length) {
+                case 4:
+                    cb.writeInt(bytes.getInt(position));
+                    return;
+                case 8:
+                    cb.writeLong(bytes.getLong(position));
+                    return;
+                case 16:
+                    cb.writeLong(bytes.getLong(position));
+                    cb.writeLong(bytes.getLong(position + 8));
+                    return;
+            }
+        }
+        if (bytes.hasArray())
+            cb.writeBytes(bytes.array(), bytes.arrayOffset() + position, length);
+        else
+            cb.writeBytes(bytes.duplicate());
     }
 
     public static int sizeOfValue(byte[] bytes) {
@@ -577,6 +577,7 @@ public class Cluster implements Closeable {
         private SpeculativeExecutionPolicy speculativeExecutionPolicy;
 
         private ProtocolOptions.Compression compression = ProtocolOptions.Compression.NONE;
+        private boolean compactRowDecoding = false;
         private SSLOptions sslOptions = null;
         private boolean metricsEnabled = true;
         private boolean jmxEnabled = true;
@@ -987,6 +988,18 @@ public class Cluster implements Closeable {
             return this;
         }
 
+        /**
+         * Enables compact row decoding for the created cluster.
+         *
+         * @return this Builder.
+         *
+         * @see ProtocolOptions#setCompactRowDecoding(boolean)
+         */
+        public Builder withCompactRowDecoding() {
+            this.compactRowDecoding = true;
+            return this;
+        }
+
         /**
          * Disables metrics collection for the created cluster (metrics are
          * enabled by default otherwise).
@@ -1131,7 +1144,7 @@ public class Cluster implements Closeable {
                 Objects.firstNonNull(speculativeExecutionPolicy, Policies.defaultSpeculativeExecutionPolicy())
             );
             return new Configuration(policies,
-                                     new ProtocolOptions(port, protocolVersion, maxSchemaAgreementWaitSeconds, sslOptions, authProvider).setCompression(compression),
+                                     new ProtocolOptions(port, protocolVersion, maxSchemaAgreementWaitSeconds, sslOptions, authProvider).setCompression(compression).setCompactRowDecoding(compactRowDecoding),
                                      poolingOptions == null ? new PoolingOptions() : poolingOptions,
                                      socketOptions == null ? new SocketOptions() : socketOptions,
                                      metricsEnabled ? new MetricsOptions(jmxEnabled) : null,
@@ -1188,6 +1201,7 @@ public class Cluster implements Closeable {
 
         Connection.Factory connectionFactory;
         ControlConnection controlConnection;
+        MetadataRefreshScheduler refreshScheduler;
 
         final ConvictionPolicy.Factory convictionPolicyFactory = new ConvictionPolicy.Simple.Factory();
 
@@ -1251,6 +1265,7 @@ public class Cluster implements Closeable {
             this.metadata = new Metadata(this);
             this.connectionFactory = new Connection.Factory(this, configuration);
             this.controlConnection = new ControlConnection(this);
+            this.refreshScheduler = new MetadataRefreshScheduler(configuration.getQueryOptions(), controlConnection, executor, scheduledTasksExecutor);
             this.metrics = configuration.getMetricsOptions() == null ? null : new Metrics(this);
             this.preparedQueries = new MapMaker().weakValues().makeMap();
 
@@ -2007,14 +2022,14 @@ public class Cluster implements Closeable {
             }
         }
 
-        public void submitSchemaRefresh(final SchemaElement targetType, final String targetKeyspace, final String targetName) {
+        public void submitSchemaRefresh(SchemaElement targetType, String targetKeyspace, String targetName) {
             logger.trace("Submitting schema refresh");
-            executor.submit(new ExceptionCatchingRunnable() {
-                @Override
-                public void runMayThrow() throws InterruptedException, ExecutionException {
-                    controlConnection.refreshSchema(targetType, targetKeyspace, targetName);
-                }
-            });
+            refreshScheduler.submitSchemaRefresh(targetType, targetKeyspace, targetName);
+        }
+
+        void submitNodeListRefresh() {
+            logger.trace("Submitting node list refresh");
+            refreshScheduler.submitNodeListRefresh();
         }
 
         // refresh the schema using the provided connection, and notice the future with the provided resultset once done
@@ -2106,12 +2121,7 @@ public class Cluster implements Closeable {
                             removeHost(metadata.getHost(tpAddr), false);
                             break;
                         case MOVED_NODE:
-                            executor.submit(new ExceptionCatchingRunnable() {
-                                @Override
-                                public void runMayThrow() {
-                                    controlConnection.refreshNodeListAndTokenMap();
-                                }
-                            });
+                            submitNodeListRefresh();
                             break;
                     }
                     break;
@@ -0,0 +1,174 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+
+/**
+ * A column resolved once from its name, to read and write its values without looking the name up each time.
+ * <p>
+ * Accessors are obtained from the {@link ColumnDefinitions} of a result set or of the variables of a prepared
+ * statement (see {@link ColumnDefinitions#getAccessor(String, Class)}), and can then be used with any row of results
+ * that have the same columns, or any statement bound from the same prepared statement:
+ * <pre>
+ * PreparedStatement ps = session.prepare("INSERT INTO sensors (id, ts, value) VALUES (?, ?, ?)");
+ * ColumnAccessor&lt;Double&gt; value = ps.getVariables().getAccessor("value", Double.class);
+ * ...
+ * BoundStatement bs = ps.bind();
+ * value.set(bs, 42.0);
+ * </pre>
+ * <p>
+ * Accessors are immutable and thread-safe.
+ *
+ * @param <T> the Java type of the column's values.
+ */
+public final class ColumnAccessor<T> {
+
+    private final String name;
+    private final DataType type;
+    private final int[] indexes;
+    // Codecs resolved for each protocol version, lazily (a race only means resolving the same codec twice)
+    private final TypeCodec<Object>[] codecs;
+
+    @SuppressWarnings("unchecked")
+    ColumnAccessor(String name, DataType type, int[] indexes) {
+        this.name = name;
+        this.type = type;
+        this.indexes = indexes;
+        this.codecs = new TypeCodec[ProtocolVersion.values().length];
+    }
+
+    /**
+     * Returns the name of the column.
+     *
+     * @return the name of the column.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the CQL type of the column.
+     *
+     * @return the CQL type of the column.
+     */
+    public DataType getType() {
+        return type;
+    }
+
+    /**
+     * Returns the index of the column.
+     * <p>
+     * If several columns (or bind variables) have the same name, this is the index of the first one.
+     *
+     * @return the index of the column.
+     */
+    public int getIndex() {
+        return indexes[0];
+    }
+
+    /**
+     * Returns the value of the column in a row or a bound statement.
+     * <p>
+     * As with {@link GettableByIndexData#getObject(int)}, a {@code null} collection is returned as
+     * an empty collection.
+     *
+     * @param data the row or bound statement.
+     * @return the value of the column in {@code data}.
+     *
+     * @throws IndexOutOfBoundsException if {@code data} has fewer columns than the metadata this accessor
+     * was obtained from.
+     * @throws InvalidTypeException if the column of {@code data} at this accessor's index does not have the
+     * type of this accessor.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(GettableByIndexData data) {
+        int i = indexes[0];
+        ByteBuffer value;
+        ProtocolVersion protocolVersion;
+        if (data instanceof BoundStatement)
+            data = ((BoundStatement)data).wrapper;
+        if (data instanceof AbstractGettableByIndexData) {
+            AbstractGettableByIndexData d = (AbstractGettableByIndexData)data;
+            checkType(d.getType(i));
+            value = d.getValue(i);
+            protocolVersion = d.protocolVersion;
+        } else {
+            value = data.getBytesUnsafe(i);
+            protocolVersion = ProtocolVersion.NEWEST_SUPPORTED;
+        }
+
+        if (value == null) {
+            switch (type.getName()) {
+                case LIST:
+                    return (T)Collections.emptyList();
+                case SET:
+                    return (T)Collections.emptySet();
+                case MAP:
+                    return (T)Collections.emptyMap();
+                default:
+                    return null;
+            }
+        }
+        return (T)codec(protocolVersion).deserialize(value);
+    }
+
+    /**
+     * Sets the value of the column in a bound statement.
+     * <p>
+     * If several bind variables have the name of this accessor, all of them are set.
+     *
+     * @param statement the bound statement.
+     * @param value the value to set, or {@code null} to set the column to {@code null}.
+     * @return {@code statement}.
+     *
+     * @throws IndexOutOfBoundsException if {@code statement} has fewer variables than the metadata this accessor
+     * was obtained from.
+     * @throws InvalidTypeException if the variable of {@code statement} at this accessor's index does not have the
+     * type of this accessor.
+     */
+    public BoundStatement set(BoundStatement statement, T value) {
+        BoundStatement.DataWrapper wrapper = statement.wrapper;
+        ByteBuffer bytes = value == null ? null : codec(wrapper.protocolVersion).serialize(value);
+        for (int i : indexes) {
+            checkType(wrapper.getType(i));
+            wrapper.values[i] = bytes;
+        }
+        return statement;
+    }
+
+    private void checkType(DataType actual) {
+        if (actual != type && !actual.equals(type))
+            throw new InvalidTypeException(String.format("Column %s is of type %s, but this accessor was created for type %s", name, actual, type));
+    }
+
+    private TypeCodec<Object> codec(ProtocolVersion protocolVersion) {
+        TypeCodec<Object> codec = codecs[protocolVersion.ordinal()];
+        if (codec == null) {
+            codec = type.codec(protocolVersion);
+            codecs[protocolVersion.ordinal()] = codec;
+        }
+        return codec;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ColumnAccessor(%s %s)", name, type);
+    }
+}
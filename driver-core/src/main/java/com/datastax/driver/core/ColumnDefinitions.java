@@ -17,6 +17,8 @@ package com.datastax.driver.core;
 
 import java.util.*;
 
+import com.google.common.reflect.TypeToken;
+
 import com.datastax.driver.core.exceptions.InvalidTypeException;
 
 /**
@@ -216,6 +218,64 @@ public class ColumnDefinitions implements Iterable<ColumnDefinitions.Definition>
         return getTable(getFirstIdx(name));
     }
 
+    /**
+     * Returns an accessor to the values of column {@code name}.
+     * <p>
+     * The name is resolved once, when the accessor is created: the accessor can then be used
+     * with any row or bound statement described by this metadata, without looking the name up
+     * again (see {@link ColumnAccessor}). If several columns (or bind variables) have this name,
+     * the accessor reads the first one, and writes all of them.
+     *
+     * @param name the name of the column.
+     * @param javaClass the Java class of the values.
+     * @param <T> the Java type of the values.
+     * @return the accessor.
+     *
+     * @throws IllegalArgumentException if {@code name} is not in this metadata.
+     * @throws InvalidTypeException if the values of column {@code name} cannot be accessed as
+     * {@code javaClass} instances.
+     */
+    public <T> ColumnAccessor<T> getAccessor(String name, Class<T> javaClass) {
+        int[] indexes = getAllIdx(name);
+        DataType type = checkAccessorType(indexes);
+        if (!javaClass.isAssignableFrom(type.asJavaClass()))
+            throw new InvalidTypeException(String.format("Column %s is of type %s, cannot be accessed as %s", name, type, javaClass));
+        return new ColumnAccessor<T>(name, type, indexes);
+    }
+
+    /**
+     * Returns an accessor to the values of column {@code name}.
+     * <p>
+     * This method is the same as {@link #getAccessor(String, Class)}, but accepts a
+     * parameterized type, for example for collection columns:
+     * {@code getAccessor("tags", new TypeToken<Set<String>>() {})}.
+     *
+     * @param name the name of the column.
+     * @param javaType the Java type of the values.
+     * @param <T> the Java type of the values.
+     * @return the accessor.
+     *
+     * @throws IllegalArgumentException if {@code name} is not in this metadata.
+     * @throws InvalidTypeException if the values of column {@code name} cannot be accessed as
+     * {@code javaType} instances.
+     */
+    public <T> ColumnAccessor<T> getAccessor(String name, TypeToken<T> javaType) {
+        int[] indexes = getAllIdx(name);
+        DataType type = checkAccessorType(indexes);
+        if (!type.canBeDeserializedAs(javaType))
+            throw new InvalidTypeException(String.format("Column %s is of type %s, cannot be accessed as %s", name, type, javaType));
+        return new ColumnAccessor<T>(name, type, indexes);
+    }
+
+    private DataType checkAccessorType(int[] indexes) {
+        DataType type = getType(indexes[0]);
+        for (int i = 1; i < indexes.length; i++) {
+            if (!getType(indexes[i]).equals(type))
+                throw new InvalidTypeException(String.format("Columns named %s have different types (%s and %s)", getName(indexes[0]), type, getType(indexes[i])));
+        }
+        return type;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
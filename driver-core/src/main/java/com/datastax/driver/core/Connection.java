@@ -17,16 +17,16 @@ package com.datastax.driver.core;
 
 import java.lang.ref.WeakReference;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
-import com.google.common.collect.Lists;
 import com.google.common.collect.MapMaker;
 import com.google.common.util.concurrent.*;
 import io.netty.bootstrap.Bootstrap;
@@ -40,6 +40,7 @@ import io.netty.handler.timeout.IdleStateHandler;
 import io.netty.util.HashedWheelTimer;
 import io.netty.util.Timeout;
 import io.netty.util.TimerTask;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.GlobalEventExecutor;
 import javax.net.ssl.SSLEngine;
 import org.slf4j.Logger;
@@ -126,10 +127,12 @@ class Connection {
         final SettableFuture<Void> channelReadyFuture = SettableFuture.create();
 
         try {
-            Bootstrap bootstrap = factory.newBootstrap();
+            HostConnectionPool pool = poolRef.get();
+            Bootstrap bootstrap = factory.newBootstrap(pool == null ? null : pool.eventLoop);
             ProtocolOptions protocolOptions = factory.configuration.getProtocolOptions();
             bootstrap.handler(
-                new Initializer(this, protocolVersion, protocolOptions.getCompression().compressor(), protocolOptions.getSSLOptions(),
+                new Initializer(this, protocolVersion, protocolOptions.getCompression().compressor(), protocolOptions.isCompactRowDecoding(),
+                    protocolOptions.getSSLOptions(),
                     factory.configuration.getPoolingOptions().getHeartbeatIntervalSeconds(),
                     factory.configuration.getNettyOptions()));
 
@@ -478,6 +481,56 @@ class Connection {
         }
     }
 
+    /**
+     * Non-blocking version of {@link #setKeyspace(String)}, used when a connection is
+     * borrowed asynchronously. The returned future fails with a {@code ConnectionException}
+     * if the keyspace could not be set, or with an {@code OperationTimedOutException} if the
+     * request timed out (in which case the connection has already been released).
+     */
+    ListenableFuture<Void> setKeyspaceAsync(final String keyspace) {
+        if (keyspace == null || keyspace.equals(this.keyspace))
+            return MoreFutures.VOID_SUCCESS;
+
+        logger.trace("{} Setting keyspace {}", this, keyspace);
+        Future future;
+        try {
+            future = write(new Requests.Query("USE \"" + keyspace + '"'));
+        } catch (ConnectionException e) {
+            return Futures.immediateFailedFuture(defunct(e));
+        } catch (BusyConnectionException e) {
+            logger.warn(String.format("Tried to set the keyspace on busy connection to %s. This should not happen but is not critical (it will retried)", address));
+            return Futures.immediateFailedFuture(new ConnectionException(address, "Tried to set the keyspace on busy connection"));
+        }
+
+        final SettableFuture<Void> keyspaceFuture = SettableFuture.create();
+        Futures.addCallback(future, new FutureCallback<Message.Response>() {
+            @Override
+            public void onSuccess(Message.Response response) {
+                if (response.type == Message.Response.Type.RESULT) {
+                    Connection.this.keyspace = keyspace;
+                    keyspaceFuture.set(null);
+                } else {
+                    // See setKeyspace for why defuncting is acceptable here
+                    String message = String.format("Problem while setting keyspace, got %s as response", response);
+                    logger.warn("{} {}", Connection.this, message);
+                    keyspaceFuture.setException(defunct(new ConnectionException(address, message)));
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                if (t instanceof OperationTimedOutException) {
+                    // Do not defunct. Note that the read timeout logic has already released the connection.
+                    logger.warn(String.format("Timeout while setting keyspace on connection to %s. This should not happen but is not critical (it will retried)", address));
+                    keyspaceFuture.setException(t);
+                } else {
+                    keyspaceFuture.setException(defunct(new ConnectionException(address, "Error while setting keyspace", t)));
+                }
+            }
+        });
+        return keyspaceFuture;
+    }
+
     /**
      * Write a request on this connection.
      *
@@ -524,10 +577,11 @@ class Connection {
         logger.trace("{} writing request {}", this, request);
         writer.incrementAndGet();
 
-        if (DISABLE_COALESCING) {
+        if (DISABLE_COALESCING || factory.configuration.getSocketOptions().getWriteCoalescing() == SocketOptions.WriteCoalescing.NONE) {
             channel.writeAndFlush(request).addListener(writeHandler(request, handler));
         } else {
-            flush(new FlushItem(channel, request, writeHandler(request, handler)));
+            long queuedAt = factory.manager.metrics == null ? 0 : System.nanoTime();
+            flush(new FlushItem(channel, request, writeHandler(request, handler), queuedAt));
         }
         if (startTimeout)
             handler.startTimeout();
@@ -577,6 +631,12 @@ class Connection {
         return this.poolRef.get() != null;
     }
 
+    /** @return the event loop of this connection's channel, or null if it is not connected yet */
+    EventLoop eventLoop() {
+        Channel channel = this.channel;
+        return channel == null ? null : channel.eventLoop();
+    }
+
     /** @return whether the connection was already associated with a pool */
     boolean setPool(HostConnectionPool pool) {
         return poolRef.compareAndSet(null, pool);
@@ -646,7 +706,7 @@ class Connection {
             logger.debug("{} has already terminated", this);
             return true;
         } else {
-            if (force || dispatcher.pending.isEmpty()) {
+            if (force || dispatcher.pendingCount.get() == 0) {
                 if (force)
                     logger.warn("Forcing termination of {}. This should not happen and is likely a bug, please report.", this);
                 future.force();
@@ -684,6 +744,11 @@ class Connection {
         volatile ProtocolVersion protocolVersion;
         private final NettyOptions nettyOptions;
 
+        private final ConcurrentMap<EventLoop, Flusher> flusherLookup = new MapMaker()
+            .concurrencyLevel(16)
+            .weakKeys()
+            .makeMap();
+
         Factory(Cluster.Manager manager, Configuration configuration) {
             this.defaultHandler = manager;
             this.manager = manager;
@@ -783,9 +848,12 @@ class Connection {
             return configuration.getSocketOptions().getReadTimeoutMillis();
         }
 
-        private Bootstrap newBootstrap() {
+        /**
+         * @param eventLoop the event loop to register the channel with, or null to pick one from the driver's event loop group.
+         */
+        private Bootstrap newBootstrap(EventLoop eventLoop) {
             Bootstrap b = new Bootstrap();
-            b.group(eventLoopGroup)
+            b.group(eventLoop == null ? eventLoopGroup : eventLoop)
                 .channel(channelClass);
 
             SocketOptions options = configuration.getSocketOptions();
@@ -814,6 +882,18 @@ class Connection {
             return b;
         }
 
+        /**
+         * Returns the event loops of the driver's event loop group.
+         */
+        List<EventLoop> eventLoops() {
+            List<EventLoop> eventLoops = new ArrayList<EventLoop>();
+            for (EventExecutor executor : eventLoopGroup) {
+                if (executor instanceof EventLoop)
+                    eventLoops.add((EventLoop)executor);
+            }
+            return eventLoops;
+        }
+
         public void shutdown() {
             // Make sure we skip creating connection from now on.
             isShutdown = true;
@@ -828,16 +908,31 @@ class Connection {
     }
 
     private static final class Flusher implements Runnable {
+        // When coalescing for throughput, the maximum number of runs that we wait before flushing, and the
+        // average number of frames per run below which we don't wait at all.
+        private static final int MAX_RUNS_BEFORE_FLUSH = 3;
+        private static final double LOW_WRITE_RATE = 2;
+        // The maximum number of frames in a batch, no matter the strategy
+        private static final int MAX_FRAMES_PER_FLUSH = 50;
+        // Delay between two runs, and number of runs with no work before we stop rescheduling
+        private static final long RESCHEDULE_DELAY_NANOS = 10000;
+        private static final int MAX_RUNS_WITH_NO_WORK = 5;
+
         final WeakReference<EventLoop> eventLoopRef;
+        final Factory factory;
         final Queue<FlushItem> queued = new ConcurrentLinkedQueue<FlushItem>();
         final AtomicBoolean running = new AtomicBoolean(false);
         final HashSet<Channel> channels = new HashSet<Channel>();
-        final List<FlushItem> flushed = Lists.newArrayListWithExpectedSize(50);
+        int framesSinceFlush = 0;
+        long oldestQueuedAt = 0;
         int runsSinceFlush = 0;
         int runsWithNoWork = 0;
+        // Moving average of the number of frames written by the runs that did work
+        double averageFramesPerRun = 0;
 
-        private Flusher(EventLoop eventLoop) {
+        private Flusher(EventLoop eventLoop, Factory factory) {
             this.eventLoopRef = new WeakReference<EventLoop>(eventLoop);
+            this.factory = factory;
         }
 
         void start() {
@@ -850,32 +945,45 @@ class Connection {
 
         @Override
         public void run() {
+            SocketOptions.WriteCoalescing coalescing = factory.configuration.getSocketOptions().getWriteCoalescing();
 
-            boolean doneWork = false;
+            int frames = 0;
             FlushItem flush;
             while (null != (flush = queued.poll())) {
                 channels.add(flush.channel);
                 flush.channel.write(flush.request).addListener(flush.listener);
-                flushed.add(flush);
-                doneWork = true;
+                if (framesSinceFlush == 0)
+                    oldestQueuedAt = flush.queuedAt;
+                framesSinceFlush++;
+                frames++;
+                if (framesSinceFlush >= MAX_FRAMES_PER_FLUSH)
+                    flushChannels();
             }
+            boolean doneWork = frames > 0;
+            if (doneWork)
+                averageFramesPerRun += (frames - averageFramesPerRun) / 8;
 
             runsSinceFlush++;
 
-            if (!doneWork || runsSinceFlush > 2 || flushed.size() > 50) {
-                for (Channel channel : channels)
-                    channel.flush();
+            if (!doneWork || coalescing != SocketOptions.WriteCoalescing.THROUGHPUT || runsSinceFlush >= runsBeforeFlush())
+                flushChannels();
 
-                channels.clear();
-                flushed.clear();
-                runsSinceFlush = 0;
+            if (coalescing != SocketOptions.WriteCoalescing.THROUGHPUT) {
+                // Don't keep running once the queue is drained, the next write will restart us
+                running.set(false);
+                if (queued.isEmpty() || !running.compareAndSet(false, true))
+                    return;
+                EventLoop eventLoop = eventLoopRef.get();
+                if (eventLoop != null)
+                    eventLoop.execute(this);
+                return;
             }
 
             if (doneWork) {
                 runsWithNoWork = 0;
             } else {
                 // either reschedule or cancel
-                if (++runsWithNoWork > 5) {
+                if (++runsWithNoWork > MAX_RUNS_WITH_NO_WORK) {
                     running.set(false);
                     if (queued.isEmpty() || !running.compareAndSet(false, true))
                         return;
@@ -884,33 +992,52 @@ class Connection {
 
             EventLoop eventLoop = eventLoopRef.get();
             if(eventLoop != null) {
-                eventLoop.schedule(this, 10000, TimeUnit.NANOSECONDS);
+                eventLoop.schedule(this, RESCHEDULE_DELAY_NANOS, TimeUnit.NANOSECONDS);
             }
         }
-    }
 
-    private static final ConcurrentMap<EventLoop, Flusher> flusherLookup = new MapMaker()
-        .concurrencyLevel(16)
-            .weakKeys()
-            .makeMap();
+        // When few frames get written, waiting for more runs adds latency without coalescing much
+        private int runsBeforeFlush() {
+            return averageFramesPerRun < LOW_WRITE_RATE ? 1 : MAX_RUNS_BEFORE_FLUSH;
+        }
+
+        private void flushChannels() {
+            for (Channel channel : channels)
+                channel.flush();
+            channels.clear();
+
+            if (framesSinceFlush > 0) {
+                Metrics metrics = factory.manager.metrics;
+                if (metrics != null) {
+                    metrics.getFramesPerFlush().update(framesSinceFlush);
+                    if (oldestQueuedAt != 0)
+                        metrics.getFlushDelay().update(System.nanoTime() - oldestQueuedAt, TimeUnit.NANOSECONDS);
+                }
+            }
+            framesSinceFlush = 0;
+            runsSinceFlush = 0;
+        }
+    }
 
     private static class FlushItem {
         final Channel channel;
         final Object request;
         final ChannelFutureListener listener;
+        final long queuedAt; // 0 if metrics are disabled
 
-        private FlushItem(Channel channel, Object request, ChannelFutureListener listener) {
+        private FlushItem(Channel channel, Object request, ChannelFutureListener listener, long queuedAt) {
             this.channel = channel;
             this.request = request;
             this.listener = listener;
+            this.queuedAt = queuedAt;
         }
     }
 
     private void flush(FlushItem item) {
         EventLoop loop = item.channel.eventLoop();
-        Flusher flusher = flusherLookup.get(loop);
+        Flusher flusher = factory.flusherLookup.get(loop);
         if (flusher == null) {
-            Flusher alt = flusherLookup.putIfAbsent(loop, flusher = new Flusher(loop));
+            Flusher alt = factory.flusherLookup.putIfAbsent(loop, flusher = new Flusher(loop, factory));
             if (alt != null)
                 flusher = alt;
         }
@@ -919,10 +1046,64 @@ class Connection {
         flusher.start();
     }
 
+    /**
+     * The handlers of a connection, indexed by stream id.
+     * <p>
+     * {@link StreamIdGenerator} hands out the lowest free id of each 64-id word, so the position of an id in its
+     * word only grows with the number of concurrent requests. Slots are grouped in chunks by that position, and each
+     * chunk is only allocated when first used: a connection with few requests in flight holds a couple of small
+     * chunks, rather than a slot for each of the 32768 ids of protocol v3.
+     */
+    private static class PendingHandlers {
+        private final int maxIds;
+        private final AtomicReferenceArray<AtomicReferenceArray<ResponseHandler>> chunks;
+
+        PendingHandlers(int maxIds) {
+            this.maxIds = maxIds;
+            this.chunks = new AtomicReferenceArray<AtomicReferenceArray<ResponseHandler>>(64);
+        }
+
+        int maxIds() {
+            return maxIds;
+        }
+
+        ResponseHandler get(int streamId) {
+            AtomicReferenceArray<ResponseHandler> chunk = chunks.get(streamId & 63);
+            return chunk == null ? null : chunk.get(streamId >>> 6);
+        }
+
+        boolean compareAndSet(int streamId, ResponseHandler expect, ResponseHandler update) {
+            AtomicReferenceArray<ResponseHandler> chunk = (update == null)
+                ? chunks.get(streamId & 63)
+                : chunk(streamId & 63);
+            if (chunk == null)
+                return expect == null;
+            return chunk.compareAndSet(streamId >>> 6, expect, update);
+        }
+
+        ResponseHandler getAndSet(int streamId, ResponseHandler update) {
+            AtomicReferenceArray<ResponseHandler> chunk = (update == null)
+                ? chunks.get(streamId & 63)
+                : chunk(streamId & 63);
+            return chunk == null ? null : chunk.getAndSet(streamId >>> 6, update);
+        }
+
+        private AtomicReferenceArray<ResponseHandler> chunk(int index) {
+            AtomicReferenceArray<ResponseHandler> chunk = chunks.get(index);
+            if (chunk == null) {
+                chunks.compareAndSet(index, null, new AtomicReferenceArray<ResponseHandler>(maxIds / 64));
+                chunk = chunks.get(index);
+            }
+            return chunk;
+        }
+    }
+
     private class Dispatcher extends SimpleChannelInboundHandler<Message.Response> {
 
         public final StreamIdGenerator streamIdHandler;
-        private final ConcurrentMap<Integer, ResponseHandler> pending = new ConcurrentHashMap<Integer, ResponseHandler>();
+        // Handlers indexed by stream id (ids are dense and bounded by the generator, so there's no need for a map)
+        private final PendingHandlers pending;
+        private final AtomicInteger pendingCount = new AtomicInteger();
 
         Dispatcher() {
             ProtocolVersion protocolVersion = factory.protocolVersion;
@@ -933,11 +1114,13 @@ class Connection {
                 protocolVersion = ProtocolVersion.V2;
             }
             streamIdHandler = StreamIdGenerator.newInstance(protocolVersion);
+            pending = new PendingHandlers(streamIdHandler.maxIds());
         }
 
         public void add(ResponseHandler handler) {
-            ResponseHandler old = pending.put(handler.streamId, handler);
-            assert old == null;
+            if (!pending.compareAndSet(handler.streamId, null, handler))
+                throw new DriverInternalError(String.format("Stream id %d is already in use on %s", handler.streamId, Connection.this));
+            pendingCount.incrementAndGet();
         }
 
         public void removeHandler(ResponseHandler handler, boolean releaseStreamId) {
@@ -950,13 +1133,14 @@ class Connection {
             // If a RequestHandler is cancelled right when the response arrives, this method (called with releaseStreamId=false) will race with messageReceived.
             // messageReceived could have already released the streamId, which could have already been reused by another request. We must not remove the handler
             // if it's not ours, because that would cause the other request to hang forever.
-            boolean removed = pending.remove(handler.streamId, handler);
+            boolean removed = pending.compareAndSet(handler.streamId, handler, null);
             if (!removed) {
                 // We raced, so if we marked the streamId above, that was wrong.
                 if (!releaseStreamId)
                     streamIdHandler.unmark(handler.streamId);
                 return;
             }
+            pendingCount.decrementAndGet();
             handler.cancelTimeout();
 
             if (releaseStreamId)
@@ -978,7 +1162,9 @@ class Connection {
                 return;
             }
 
-            ResponseHandler handler = pending.remove(streamId);
+            ResponseHandler handler = pending.getAndSet(streamId, null);
+            if (handler != null)
+                pendingCount.decrementAndGet();
             streamIdHandler.release(streamId);
             if (handler == null) {
                 /**
@@ -1038,13 +1224,15 @@ class Connection {
         }
 
         public void errorOutAllHandler(ConnectionException ce) {
-            Iterator<ResponseHandler> iter = pending.values().iterator();
-            while (iter.hasNext())
-            {
-                ResponseHandler handler = iter.next();
+            for (int i = 0; i < pending.maxIds(); i++) {
+                if (pending.get(i) == null)
+                    continue;
+                ResponseHandler handler = pending.getAndSet(i, null);
+                if (handler == null)
+                    continue;
+                pendingCount.decrementAndGet();
                 handler.cancelTimeout();
                 handler.callback.onException(Connection.this, ce, System.nanoTime() - handler.startTime, handler.retryCount);
-                iter.remove();
             }
         }
     }
@@ -1259,7 +1447,8 @@ class Connection {
 
     private static class Initializer extends ChannelInitializer<SocketChannel> {
         // Stateless handlers
-        private static final Message.ProtocolDecoder messageDecoder = new Message.ProtocolDecoder();
+        private static final Message.ProtocolDecoder messageDecoder = new Message.ProtocolDecoder(false);
+        private static final Message.ProtocolDecoder compactRowsMessageDecoder = new Message.ProtocolDecoder(true);
         private static final Message.ProtocolEncoder messageEncoderV1 = new Message.ProtocolEncoder(ProtocolVersion.V1);
         private static final Message.ProtocolEncoder messageEncoderV2 = new Message.ProtocolEncoder(ProtocolVersion.V2);
         private static final Message.ProtocolEncoder messageEncoderV3 = new Message.ProtocolEncoder(ProtocolVersion.V3);
@@ -1268,14 +1457,16 @@ class Connection {
         private final ProtocolVersion protocolVersion;
         private final Connection connection;
         private final FrameCompressor compressor;
+        private final boolean compactRowDecoding;
         private final SSLOptions sslOptions;
         private final NettyOptions nettyOptions;
         private final ChannelHandler idleStateHandler;
 
-        public Initializer(Connection connection, ProtocolVersion protocolVersion, FrameCompressor compressor, SSLOptions sslOptions, int heartBeatIntervalSeconds, NettyOptions nettyOptions) {
+        public Initializer(Connection connection, ProtocolVersion protocolVersion, FrameCompressor compressor, boolean compactRowDecoding, SSLOptions sslOptions, int heartBeatIntervalSeconds, NettyOptions nettyOptions) {
             this.connection = connection;
             this.protocolVersion = protocolVersion;
             this.compressor = compressor;
+            this.compactRowDecoding = compactRowDecoding;
             this.sslOptions = sslOptions;
             this.nettyOptions = nettyOptions;
             this.idleStateHandler = new IdleStateHandler(0, 0, heartBeatIntervalSeconds);
@@ -1303,7 +1494,7 @@ class Connection {
                 pipeline.addLast("frameCompressor", new Frame.Compressor(compressor));
             }
 
-            pipeline.addLast("messageDecoder", messageDecoder);
+            pipeline.addLast("messageDecoder", compactRowDecoding ? compactRowsMessageDecoder : messageDecoder);
             pipeline.addLast("messageEncoder", messageEncoderFor(protocolVersion));
 
             pipeline.addLast("idleStateHandler", idleStateHandler);
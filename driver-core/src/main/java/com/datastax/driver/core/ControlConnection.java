@@ -724,6 +724,6 @@ class ControlConnection implements Host.StateListener {
             backgroundReconnect(0);
         }
 
-        refreshNodeListAndTokenMap();
+        cluster.submitNodeListRefresh();
     }
 }
@@ -198,6 +198,61 @@ class DynamicConnectionPool extends HostConnectionPool {
             }
         }
 
+        onConnectionBorrowed();
+
+        leastBusy.setKeyspace(manager.poolsState.keyspace);
+        return leastBusy;
+    }
+
+    @Override
+    Connection tryBorrowConnection() {
+        if (isClosed())
+            return null;
+
+        if (connections.isEmpty()) {
+            // Same as in borrowConnection, but only schedule the creations once: the
+            // borrowers will be served when the connections get added
+            if (scheduledForCreation.get() == 0) {
+                for (int i = 0; i < options().getCoreConnectionsPerHost(hostDistance); i++) {
+                    scheduledForCreation.incrementAndGet();
+                    manager.blockingExecutor().submit(newConnectionTask);
+                }
+            }
+            return null;
+        }
+
+        Connection leastBusy = null;
+        int minInFlight = Integer.MAX_VALUE;
+        for (Connection connection : connections) {
+            int inFlight = connection.inFlight.get();
+            if (inFlight < minInFlight) {
+                minInFlight = inFlight;
+                leastBusy = connection;
+            }
+        }
+
+        if (leastBusy == null)
+            return null;
+
+        while (true) {
+            int inFlight = leastBusy.inFlight.get();
+
+            if (inFlight >= leastBusy.maxAvailableStreams()) {
+                // All connections are busy, so we're at full capacity
+                if (open.get() + scheduledForCreation.get() < options().getMaxConnectionsPerHost(hostDistance))
+                    maybeSpawnNewConnection();
+                return null;
+            }
+
+            if (leastBusy.inFlight.compareAndSet(inFlight, inFlight + 1))
+                break;
+        }
+
+        onConnectionBorrowed();
+        return leastBusy;
+    }
+
+    private void onConnectionBorrowed() {
         int totalInFlightCount = totalInFlight.incrementAndGet();
         // update max atomically:
         while (true) {
@@ -214,9 +269,6 @@ class DynamicConnectionPool extends HostConnectionPool {
             if (totalInFlightCount > currentCapacity)
                 maybeSpawnNewConnection();
         }
-
-        leastBusy.setKeyspace(manager.poolsState.keyspace);
-        return leastBusy;
     }
 
     private void awaitAvailableConnection(long timeout, TimeUnit unit) throws InterruptedException {
@@ -231,6 +283,8 @@ class DynamicConnectionPool extends HostConnectionPool {
     }
 
     private void signalAvailableConnection() {
+        servePendingBorrows();
+
         // Quick check if it's worth signaling to avoid locking
         if (waiter == 0)
             return;
@@ -0,0 +1,240 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.netty.channel.EventLoop;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A connection pool with a connection for each of the driver's event loops.
+ *
+ * This is used with {@link ProtocolVersion#V3} and higher, when {@link PoolingOptions#isEventLoopAffinityEnabled()}.
+ * Each connection is registered with its own event loop, and a request is sent on the connection of the
+ * event loop that the calling thread runs (if the request is sent from an I/O thread, typically from the
+ * callback of a previous request), or else on the connection of an event loop designated by the calling
+ * thread. This way requests sent by a given thread are always written and handled by the same I/O thread.
+ * A request only goes to another event loop if the designated loop's connection is saturated.
+ * <p>
+ * The per-loop connections are managed by {@link SingleConnectionPool}s, which share the host's request
+ * threshold ({@link PoolingOptions#getMaxSimultaneousRequestsPerHostThreshold(HostDistance)}).
+ */
+class EventLoopAffinityPool extends HostConnectionPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventLoopAffinityPool.class);
+
+    @VisibleForTesting
+    final List<SingleConnectionPool> pools;
+
+    EventLoopAffinityPool(Host host, HostDistance hostDistance, SessionManager manager) {
+        super(host, hostDistance, manager);
+        List<EventLoop> eventLoops = manager.connectionFactory().eventLoops();
+        this.pools = new ArrayList<SingleConnectionPool>(eventLoops.size());
+        for (EventLoop eventLoop : eventLoops)
+            pools.add(new SingleConnectionPool(host, hostDistance, manager, eventLoop, eventLoops.size()));
+        // The event loop group is not made of event loops that we can bind to, use a single connection
+        if (pools.isEmpty())
+            pools.add(new SingleConnectionPool(host, hostDistance, manager));
+    }
+
+    @Override
+    ListenableFuture<Void> initAsync(Connection reusedConnection) {
+        List<ListenableFuture<Void>> futures = new ArrayList<ListenableFuture<Void>>(pools.size());
+        SingleConnectionPool reusingPool = poolOf(reusedConnection);
+        for (SingleConnectionPool pool : pools)
+            futures.add(pool.initAsync(pool == reusingPool ? reusedConnection : null));
+
+        final SettableFuture<Void> initFuture = SettableFuture.create();
+        Futures.addCallback(Futures.allAsList(futures), new FutureCallback<List<Void>>() {
+            @Override
+            public void onSuccess(List<Void> result) {
+                if (isClosed()) {
+                    initFuture.setException(new ConnectionException(host.getSocketAddress(), "Pool was closed during initialization"));
+                } else {
+                    logger.trace("Created connection pool to host {} with {} event loops", host, pools.size());
+                    phase.compareAndSet(Phase.INITIALIZING, Phase.READY);
+                    initFuture.set(null);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                phase.compareAndSet(Phase.INITIALIZING, Phase.INIT_FAILED);
+                // Close the per-loop pools that succeeded
+                for (SingleConnectionPool pool : pools)
+                    pool.closeAsync();
+                initFuture.setException(t);
+            }
+        });
+        return initFuture;
+    }
+
+    /**
+     * The pool that a reused connection should go to: the one of its event loop if there is one, the first one otherwise.
+     */
+    private SingleConnectionPool poolOf(Connection connection) {
+        if (connection == null)
+            return null;
+        EventLoop eventLoop = connection.eventLoop();
+        for (SingleConnectionPool pool : pools) {
+            if (pool.eventLoop == eventLoop)
+                return pool;
+        }
+        return pools.get(0);
+    }
+
+    /**
+     * The index of the pool of the event loop that runs the calling thread if any, or else of the pool
+     * designated by the calling thread.
+     */
+    @VisibleForTesting
+    int preferredIndex() {
+        int size = pools.size();
+        for (int i = 0; i < size; i++) {
+            EventLoop eventLoop = pools.get(i).eventLoop;
+            if (eventLoop != null && eventLoop.inEventLoop())
+                return i;
+        }
+        return (int)(Thread.currentThread().getId() % size);
+    }
+
+    @Override
+    void setHostDistance(HostDistance hostDistance) {
+        super.setHostDistance(hostDistance);
+        for (SingleConnectionPool pool : pools)
+            pool.setHostDistance(hostDistance);
+    }
+
+    @Override
+    Connection borrowConnection(long timeout, TimeUnit unit) throws ConnectionException, TimeoutException {
+        Phase phase = this.phase.get();
+        if (phase != Phase.READY)
+            throw new ConnectionException(host.getSocketAddress(), "Pool is " + phase);
+
+        Connection connection = tryBorrowConnection();
+        if (connection != null) {
+            connection.setKeyspace(manager.poolsState.keyspace);
+            return connection;
+        }
+        return pools.get(preferredIndex()).borrowConnection(timeout, unit);
+    }
+
+    @Override
+    Connection tryBorrowConnection() {
+        if (isClosed())
+            return null;
+
+        int preferred = preferredIndex();
+        int size = pools.size();
+        for (int i = 0; i < size; i++) {
+            SingleConnectionPool pool = pools.get((preferred + i) % size);
+            // Don't overtake borrowers that are already waiting on that loop
+            if (pool.pendingBorrowCount() > 0)
+                continue;
+            Connection connection = pool.tryBorrowConnection();
+            if (connection != null)
+                return connection;
+        }
+        return null;
+    }
+
+    @Override
+    ListenableFuture<Connection> borrowConnectionAsync(long timeout, TimeUnit unit) {
+        Phase phase = this.phase.get();
+        if (phase != Phase.READY)
+            return Futures.immediateFailedFuture(new ConnectionException(host.getSocketAddress(), "Pool is " + phase));
+
+        Connection connection = tryBorrowConnection();
+        if (connection != null)
+            return withKeyspace(connection);
+
+        // Every loop is saturated, wait on the preferred one
+        return pools.get(preferredIndex()).borrowConnectionAsync(timeout, unit);
+    }
+
+    @Override
+    void returnConnection(Connection connection) {
+        // Connections are normally released to their per-loop pool directly
+        poolOf(connection).returnConnection(connection);
+    }
+
+    @Override
+    void ensureCoreConnections() {
+        for (SingleConnectionPool pool : pools)
+            pool.ensureCoreConnections();
+    }
+
+    @Override
+    void replaceDefunctConnection(Connection connection) {
+        poolOf(connection).replaceDefunctConnection(connection);
+    }
+
+    @Override
+    void cleanupIdleConnections(long now) {
+        for (SingleConnectionPool pool : pools)
+            pool.cleanupIdleConnections(now);
+    }
+
+    @Override
+    int opened() {
+        int opened = 0;
+        for (SingleConnectionPool pool : pools)
+            opened += pool.opened();
+        return opened;
+    }
+
+    @Override
+    int trashed() {
+        int trashed = 0;
+        for (SingleConnectionPool pool : pools)
+            trashed += pool.trashed();
+        return trashed;
+    }
+
+    @Override
+    int inFlightQueriesCount() {
+        int inFlight = 0;
+        for (SingleConnectionPool pool : pools)
+            inFlight += pool.inFlightQueriesCount();
+        return inFlight;
+    }
+
+    @Override
+    int pendingBorrowCount() {
+        int pending = 0;
+        for (SingleConnectionPool pool : pools)
+            pending += pool.pendingBorrowCount();
+        return pending;
+    }
+
+    @Override
+    protected CloseFuture makeCloseFuture() {
+        List<CloseFuture> futures = new ArrayList<CloseFuture>(pools.size());
+        for (SingleConnectionPool pool : pools)
+            futures.add(pool.closeAsync());
+        return new CloseFuture.Forwarding(futures);
+    }
+}
@@ -212,16 +212,34 @@ class Frame {
         @Override
         protected void encode(ChannelHandlerContext ctx, Frame frame, List<Object> out) throws Exception {
             ProtocolVersion protocolVersion = frame.header.version;
-            ByteBuf header = ctx.alloc().ioBuffer(Frame.Header.lengthFor(protocolVersion));
+            int headerLength = Frame.Header.lengthFor(protocolVersion);
+            ByteBuf body = frame.body;
+            int bodyLength = body.readableBytes();
+
+            if (body.readerIndex() >= headerLength) {
+                // There is room for the header before the body (see Message.ProtocolEncoder): write it in place and
+                // send a single buffer
+                int headerIndex = body.readerIndex() - headerLength;
+                int writerIndex = body.writerIndex();
+                body.setIndex(headerIndex, headerIndex);
+                writeHeader(frame.header, bodyLength, body);
+                body.writerIndex(writerIndex);
+                out.add(body);
+            } else {
+                ByteBuf header = ctx.alloc().ioBuffer(headerLength);
+                writeHeader(frame.header, bodyLength, header);
+                out.add(header);
+                out.add(body);
+            }
+        }
+
+        private void writeHeader(Header header, int bodyLength, ByteBuf dest) {
             // We don't bother with the direction, we only send requests.
-            header.writeByte(frame.header.version.toInt());
-            header.writeByte(Header.Flag.serialize(frame.header.flags));
-            writeStreamId(frame.header.streamId, header, protocolVersion);
-            header.writeByte(frame.header.opcode);
-            header.writeInt(frame.body.readableBytes());
-
-            out.add(header);
-            out.add(frame.body);
+            dest.writeByte(header.version.toInt());
+            dest.writeByte(Header.Flag.serialize(header.flags));
+            writeStreamId(header.streamId, dest, header.version);
+            dest.writeByte(header.opcode);
+            dest.writeInt(bodyLength);
         }
 
         private void writeStreamId(int streamId, ByteBuf header, ProtocolVersion protocolVersion) {
@@ -255,7 +273,7 @@ class Frame {
                 // we have a reference to the compressed body (and therefore a chance to release it).
                 ByteBuf compressedBody = frame.body;
                 try {
-                    out.add(compressor.decompress(frame));
+                    out.add(compressor.decompress(ctx.alloc(), frame));
                 } finally {
                     compressedBody.release();
                 }
@@ -284,7 +302,7 @@ class Frame {
                 // See comment in decode()
                 ByteBuf uncompressedBody = frame.body;
                 try {
-                    out.add(compressor.compress(frame));
+                    out.add(compressor.compress(ctx.alloc(), frame));
                 } finally {
                     uncompressedBody.release();
                 }
@@ -16,8 +16,10 @@
 package com.datastax.driver.core;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import net.jpountz.lz4.LZ4Factory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,12 +27,29 @@ import org.xerial.snappy.Snappy;
 
 import com.datastax.driver.core.exceptions.DriverInternalError;
 
+/**
+ * Compresses and decompresses frame bodies.
+ * <p>
+ * Implementations read the input body in place whenever possible, and write their result
+ * into a new buffer obtained from the channel's allocator (so pooled if the allocator is).
+ * Releasing the input body is the responsibility of the caller.
+ */
 abstract class FrameCompressor {
 
     private static final Logger logger = LoggerFactory.getLogger(FrameCompressor.class);
 
-    public abstract Frame compress(Frame frame) throws IOException;
-    public abstract Frame decompress(Frame frame) throws IOException;
+    public abstract Frame compress(ByteBufAllocator alloc, Frame frame) throws IOException;
+    public abstract Frame decompress(ByteBufAllocator alloc, Frame frame) throws IOException;
+
+    // Allocates a buffer of the same kind (heap or direct) as the input, so that both can be handled the same way
+    private static ByteBuf allocateLike(ByteBufAllocator alloc, ByteBuf input, int capacity) {
+        return input.isDirect() ? alloc.directBuffer(capacity) : alloc.heapBuffer(capacity);
+    }
+
+    // Whether the readable bytes of the buffer can be exposed as a single NIO buffer without copy
+    private static boolean isSingleNioBuffer(ByteBuf buffer) {
+        return buffer.nioBufferCount() == 1;
+    }
 
     public static class SnappyCompressor extends FrameCompressor {
 
@@ -55,23 +74,96 @@ abstract class FrameCompressor {
             Snappy.getNativeLibraryVersion();
         }
 
-        public Frame compress(Frame frame) throws IOException {
-            byte[] input = CBUtil.readRawBytes(frame.body);
-            byte[] output = new byte[Snappy.maxCompressedLength(input.length)];
-
-            int written = Snappy.compress(input, 0, input.length, output, 0);
-            return frame.with(Unpooled.wrappedBuffer(output, 0, written));
+        public Frame compress(ByteBufAllocator alloc, Frame frame) throws IOException {
+            ByteBuf input = frame.body;
+            int maxCompressedLength = Snappy.maxCompressedLength(input.readableBytes());
+            ByteBuf output;
+            if (input.hasArray()) {
+                output = alloc.heapBuffer(maxCompressedLength);
+                try {
+                    int written = Snappy.compress(input.array(), input.arrayOffset() + input.readerIndex(), input.readableBytes(),
+                                                  output.array(), output.arrayOffset() + output.writerIndex());
+                    output.writerIndex(output.writerIndex() + written);
+                } catch (IOException e) {
+                    output.release();
+                    throw e;
+                }
+            } else if (input.isDirect() && isSingleNioBuffer(input)) {
+                // Snappy's ByteBuffer API only accepts direct buffers
+                output = alloc.directBuffer(maxCompressedLength);
+                try {
+                    ByteBuffer in = input.nioBuffer(input.readerIndex(), input.readableBytes());
+                    ByteBuffer out = output.nioBuffer(output.writerIndex(), output.writableBytes());
+                    int written = Snappy.compress(in, out);
+                    output.writerIndex(output.writerIndex() + written);
+                } catch (IOException e) {
+                    output.release();
+                    throw e;
+                }
+            } else {
+                byte[] in = CBUtil.readRawBytes(input);
+                output = alloc.heapBuffer(maxCompressedLength);
+                try {
+                    int written = Snappy.compress(in, 0, in.length, output.array(), output.arrayOffset() + output.writerIndex());
+                    output.writerIndex(output.writerIndex() + written);
+                } catch (IOException e) {
+                    output.release();
+                    throw e;
+                }
+            }
+            return frame.with(output);
         }
 
-        public Frame decompress(Frame frame) throws IOException {
-            byte[] input = CBUtil.readRawBytes(frame.body);
-
-            if (!Snappy.isValidCompressedBuffer(input, 0, input.length))
-                throw new DriverInternalError("Provided frame does not appear to be Snappy compressed");
-
-            byte[] output = new byte[Snappy.uncompressedLength(input)];
-            int size = Snappy.uncompress(input, 0, input.length, output, 0);
-            return frame.with(Unpooled.wrappedBuffer(output, 0, size));
+        public Frame decompress(ByteBufAllocator alloc, Frame frame) throws IOException {
+            ByteBuf input = frame.body;
+            ByteBuf output;
+            if (input.hasArray()) {
+                byte[] in = input.array();
+                int offset = input.arrayOffset() + input.readerIndex();
+                int length = input.readableBytes();
+
+                if (!Snappy.isValidCompressedBuffer(in, offset, length))
+                    throw new DriverInternalError("Provided frame does not appear to be Snappy compressed");
+
+                output = alloc.heapBuffer(Snappy.uncompressedLength(in, offset, length));
+                try {
+                    int size = Snappy.uncompress(in, offset, length, output.array(), output.arrayOffset() + output.writerIndex());
+                    output.writerIndex(output.writerIndex() + size);
+                } catch (IOException e) {
+                    output.release();
+                    throw e;
+                }
+            } else if (input.isDirect() && isSingleNioBuffer(input)) {
+                ByteBuffer in = input.nioBuffer(input.readerIndex(), input.readableBytes());
+
+                if (!Snappy.isValidCompressedBuffer(in))
+                    throw new DriverInternalError("Provided frame does not appear to be Snappy compressed");
+
+                output = alloc.directBuffer(Snappy.uncompressedLength(in));
+                try {
+                    ByteBuffer out = output.nioBuffer(output.writerIndex(), output.writableBytes());
+                    int size = Snappy.uncompress(in, out);
+                    output.writerIndex(output.writerIndex() + size);
+                } catch (IOException e) {
+                    output.release();
+                    throw e;
+                }
+            } else {
+                byte[] in = CBUtil.readRawBytes(input);
+
+                if (!Snappy.isValidCompressedBuffer(in, 0, in.length))
+                    throw new DriverInternalError("Provided frame does not appear to be Snappy compressed");
+
+                output = alloc.heapBuffer(Snappy.uncompressedLength(in));
+                try {
+                    int size = Snappy.uncompress(in, 0, in.length, output.array(), output.arrayOffset() + output.writerIndex());
+                    output.writerIndex(output.writerIndex() + size);
+                } catch (IOException e) {
+                    output.release();
+                    throw e;
+                }
+            }
+            return frame.with(output);
         }
     }
 
@@ -103,44 +195,51 @@ abstract class FrameCompressor {
             decompressor = lz4Factory.fastDecompressor();
         }
 
-        public Frame compress(Frame frame) throws IOException {
-            byte[] input = CBUtil.readRawBytes(frame.body);
-
-            int maxCompressedLength = compressor.maxCompressedLength(input.length);
-            byte[] output = new byte[INTEGER_BYTES + maxCompressedLength];
-
-            output[0] = (byte) (input.length >>> 24);
-            output[1] = (byte) (input.length >>> 16);
-            output[2] = (byte) (input.length >>>  8);
-            output[3] = (byte) (input.length);
+        public Frame compress(ByteBufAllocator alloc, Frame frame) throws IOException {
+            ByteBuf input = frame.body;
+            int uncompressedLength = input.readableBytes();
+            int maxCompressedLength = compressor.maxCompressedLength(uncompressedLength);
 
+            ByteBuf output = allocateLike(alloc, input, INTEGER_BYTES + maxCompressedLength);
             try {
-                int written = compressor.compress(input, 0, input.length, output, INTEGER_BYTES, maxCompressedLength);
-                return frame.with(Unpooled.wrappedBuffer(output, 0, INTEGER_BYTES + written));
+                output.writeInt(uncompressedLength);
+
+                ByteBuffer in = inputNioBuffer(input);
+                ByteBuffer out = output.nioBuffer(output.writerIndex(), output.writableBytes());
+                int written = compressor.compress(in, in.position(), in.remaining(), out, out.position(), maxCompressedLength);
+                output.writerIndex(output.writerIndex() + written);
+                return frame.with(output);
             } catch (Exception e) {
+                output.release();
                 throw new IOException(e);
             }
         }
 
-        public Frame decompress(Frame frame) throws IOException {
-            byte[] input = CBUtil.readRawBytes(frame.body);
-
-            int uncompressedLength = ((input[0] & 0xFF) << 24)
-                                   | ((input[1] & 0xFF) << 16)
-                                   | ((input[2] & 0xFF) <<  8)
-                                   | ((input[3] & 0xFF));
-
-            byte[] output = new byte[uncompressedLength];
+        public Frame decompress(ByteBufAllocator alloc, Frame frame) throws IOException {
+            ByteBuf input = frame.body;
+            int uncompressedLength = input.readInt();
 
+            ByteBuf output = allocateLike(alloc, input, uncompressedLength);
             try {
-                int read = decompressor.decompress(input, INTEGER_BYTES, output, 0, uncompressedLength);
-                if (read != input.length - INTEGER_BYTES)
+                ByteBuffer in = inputNioBuffer(input);
+                ByteBuffer out = output.nioBuffer(output.writerIndex(), uncompressedLength);
+                int read = decompressor.decompress(in, in.position(), out, out.position(), uncompressedLength);
+                if (read != in.remaining())
                     throw new IOException("Compressed lengths mismatch");
 
-                return frame.with(Unpooled.wrappedBuffer(output));
+                output.writerIndex(output.writerIndex() + uncompressedLength);
+                return frame.with(output);
             } catch (Exception e) {
+                output.release();
                 throw new IOException(e);
             }
         }
+
+        // LZ4's ByteBuffer API works on both heap and direct buffers, but we need the readable bytes in a single buffer
+        private static ByteBuffer inputNioBuffer(ByteBuf input) {
+            return isSingleNioBuffer(input)
+                 ? input.nioBuffer(input.readerIndex(), input.readableBytes())
+                 : ByteBuffer.wrap(CBUtil.readRawBytes(input));
+        }
     }
 }
@@ -330,6 +330,54 @@ public interface GettableByIndexData {
      */
     public <K, V> Map<K, V> getMap(int i, TypeToken<K> keysType, TypeToken<V> valuesType);
 
+    /**
+     * Returns the {@code i}th value, a list or set of ints, as an array.
+     * <p>
+     * Unlike {@link #getList(int, Class)} and {@link #getSet(int, Class)}, this decodes the elements
+     * straight into the array, without boxing them.
+     *
+     * @param i the index ({@code 0 <= i < size()}) to retrieve.
+     * @return the value of the {@code i}th element as an array of ints.
+     * If the value is NULL, an empty array is returned (note that Cassandra
+     * makes no difference between an empty collection and a collection column that is not set).
+     *
+     * @throws IndexOutOfBoundsException if {@code i} is not a valid index for this object.
+     * @throws InvalidTypeException if value {@code i} is not a list or set of type INT.
+     */
+    public int[] getIntArray(int i);
+
+    /**
+     * Returns the {@code i}th value, a list or set of longs, as an array.
+     * <p>
+     * Unlike {@link #getList(int, Class)} and {@link #getSet(int, Class)}, this decodes the elements
+     * straight into the array, without boxing them.
+     *
+     * @param i the index ({@code 0 <= i < size()}) to retrieve.
+     * @return the value of the {@code i}th element as an array of longs.
+     * If the value is NULL, an empty array is returned (note that Cassandra
+     * makes no difference between an empty collection and a collection column that is not set).
+     *
+     * @throws IndexOutOfBoundsException if {@code i} is not a valid index for this object.
+     * @throws InvalidTypeException if value {@code i} is not a list or set of type BIGINT or COUNTER.
+     */
+    public long[] getLongArray(int i);
+
+    /**
+     * Returns the {@code i}th value, a list or set of doubles, as an array.
+     * <p>
+     * Unlike {@link #getList(int, Class)} and {@link #getSet(int, Class)}, this decodes the elements
+     * straight into the array, without boxing them.
+     *
+     * @param i the index ({@code 0 <= i < size()}) to retrieve.
+     * @return the value of the {@code i}th element as an array of doubles.
+     * If the value is NULL, an empty array is returned (note that Cassandra
+     * makes no difference between an empty collection and a collection column that is not set).
+     *
+     * @throws IndexOutOfBoundsException if {@code i} is not a valid index for this object.
+     * @throws InvalidTypeException if value {@code i} is not a list or set of type DOUBLE.
+     */
+    public double[] getDoubleArray(int i);
+
     /**
      * Return the {@code i}th value as a UDT value.
      *
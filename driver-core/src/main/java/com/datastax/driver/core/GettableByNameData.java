@@ -329,6 +329,54 @@ public interface GettableByNameData {
      */
     public <K, V> Map<K, V> getMap(String name, TypeToken<K> keysType, TypeToken<V> valuesType);
 
+    /**
+     * Returns the value for {@code name}, a list or set of ints, as an array.
+     * <p>
+     * Unlike {@link #getList(String, Class)} and {@link #getSet(String, Class)}, this decodes the elements
+     * straight into the array, without boxing them.
+     *
+     * @param name the name to retrieve.
+     * @return the value of {@code name} as an array of ints.
+     * If the value is NULL, an empty array is returned (note that Cassandra
+     * makes no difference between an empty collection and a collection column that is not set).
+     *
+     * @throws IllegalArgumentException if {@code name} is not valid name for this object.
+     * @throws InvalidTypeException if value {@code name} is not a list or set of type INT.
+     */
+    public int[] getIntArray(String name);
+
+    /**
+     * Returns the value for {@code name}, a list or set of longs, as an array.
+     * <p>
+     * Unlike {@link #getList(String, Class)} and {@link #getSet(String, Class)}, this decodes the elements
+     * straight into the array, without boxing them.
+     *
+     * @param name the name to retrieve.
+     * @return the value of {@code name} as an array of longs.
+     * If the value is NULL, an empty array is returned (note that Cassandra
+     * makes no difference between an empty collection and a collection column that is not set).
+     *
+     * @throws IllegalArgumentException if {@code name} is not valid name for this object.
+     * @throws InvalidTypeException if value {@code name} is not a list or set of type BIGINT or COUNTER.
+     */
+    public long[] getLongArray(String name);
+
+    /**
+     * Returns the value for {@code name}, a list or set of doubles, as an array.
+     * <p>
+     * Unlike {@link #getList(String, Class)} and {@link #getSet(String, Class)}, this decodes the elements
+     * straight into the array, without boxing them.
+     *
+     * @param name the name to retrieve.
+     * @return the value of {@code name} as an array of doubles.
+     * If the value is NULL, an empty array is returned (note that Cassandra
+     * makes no difference between an empty collection and a collection column that is not set).
+     *
+     * @throws IllegalArgumentException if {@code name} is not valid name for this object.
+     * @throws InvalidTypeException if value {@code name} is not a list or set of type DOUBLE.
+     */
+    public double[] getDoubleArray(String name);
+
     /**
      * Return the value for {@code name} as a UDT value.
      *
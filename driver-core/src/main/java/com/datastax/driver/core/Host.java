@@ -186,6 +186,31 @@ public class Host {
         return state == State.UP;
     }
 
+    /**
+     * Returns the number of requests currently in flight to this host, over all the
+     * sessions of its {@code Cluster}.
+     * <p>
+     * This includes requests that are waiting for a connection to this host to become
+     * available. It is computed on each call, without locking, and is thus only an
+     * approximation when requests are concurrently sent or completed. It is meant to be
+     * cheap enough to be called by load balancing policies for every query plan; to
+     * inspect the load of a given session, prefer {@link Session.State#getInFlightQueries}.
+     *
+     * @return the number of requests currently in flight to this host, or 0 if
+     * the host is not attached to a {@code Cluster} or has no connection pool.
+     */
+    public int getInFlightQueries() {
+        if (manager == null)
+            return 0;
+        int count = 0;
+        for (SessionManager session : manager.sessions) {
+            HostConnectionPool pool = session.pools.get(this);
+            if (pool != null)
+                count += pool.inFlightQueriesCount() + pool.pendingBorrowCount();
+        }
+        return count;
+    }
+
     /**
      * Returns a description of the host's state, as seen by the driver.
      * <p>
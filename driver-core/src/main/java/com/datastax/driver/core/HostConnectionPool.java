@@ -15,11 +15,23 @@
  */
 package com.datastax.driver.core;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.netty.channel.EventLoop;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+
+import com.datastax.driver.core.utils.MoreFutures;
 
 /**
  * A set of connections to a live host.
@@ -34,7 +46,9 @@ abstract class HostConnectionPool {
             case V2:
                 return new DynamicConnectionPool(host, hostDistance, manager);
             case V3:
-                return new SingleConnectionPool(host, hostDistance, manager);
+                return manager.configuration().getPoolingOptions().isEventLoopAffinityEnabled()
+                    ? new EventLoopAffinityPool(host, hostDistance, manager)
+                    : new SingleConnectionPool(host, hostDistance, manager);
             default:
                 throw version.unsupported();
         }
@@ -43,17 +57,29 @@ abstract class HostConnectionPool {
     final Host host;
     volatile HostDistance hostDistance;
     protected final SessionManager manager;
+    // The event loop that the connections of this pool are registered with, or null for any of the driver's event loops
+    final EventLoop eventLoop;
 
     protected final AtomicReference<CloseFuture> closeFuture = new AtomicReference<CloseFuture>();
 
     protected enum Phase { INITIALIZING, READY, INIT_FAILED, CLOSING }
     protected final AtomicReference<Phase> phase = new AtomicReference<Phase>(Phase.INITIALIZING);
 
+    // Asynchronous borrowers waiting for a connection, in arrival order. See borrowConnectionAsync.
+    private final Queue<PendingBorrow> pendingBorrows = new ConcurrentLinkedQueue<PendingBorrow>();
+    // Size of pendingBorrows, maintained separately as ConcurrentLinkedQueue.size() is not constant-time
+    private final AtomicInteger pendingBorrowCount = new AtomicInteger();
+
     protected HostConnectionPool(Host host, HostDistance hostDistance, SessionManager manager) {
+        this(host, hostDistance, manager, null);
+    }
+
+    protected HostConnectionPool(Host host, HostDistance hostDistance, SessionManager manager, EventLoop eventLoop) {
         assert hostDistance != HostDistance.IGNORED;
         this.host = host;
         this.hostDistance = hostDistance;
         this.manager = manager;
+        this.eventLoop = eventLoop;
     }
 
     /**
@@ -63,8 +89,131 @@ abstract class HostConnectionPool {
      */
     abstract ListenableFuture<Void> initAsync(Connection reusedConnection);
 
+    void setHostDistance(HostDistance hostDistance) {
+        this.hostDistance = hostDistance;
+    }
+
     abstract Connection borrowConnection(long timeout, TimeUnit unit) throws ConnectionException, TimeoutException;
 
+    /**
+     * Tries to reserve a connection without waiting.
+     *
+     * This may schedule the creation of new connections (following the same rules as
+     * {@link #borrowConnection(long, TimeUnit)}), but never blocks.
+     *
+     * @return a connection whose in-flight count has been incremented, or {@code null} if
+     * none is available right now.
+     */
+    abstract Connection tryBorrowConnection();
+
+    /**
+     * Borrows a connection without ever blocking the calling thread.
+     *
+     * If no connection is available right away, the borrower is queued and the returned
+     * future will complete when a connection is returned to (or added to) the pool. It fails
+     * with a {@code TimeoutException} if that doesn't happen within the provided timeout, and
+     * with a {@code ConnectionException} if the pool is closed in the meantime.
+     * <p>
+     * The number of queued borrowers is bounded by {@link PoolingOptions#getMaxQueueSize()}:
+     * past that, the returned future fails right away with a {@code BusyPoolException}.
+     */
+    ListenableFuture<Connection> borrowConnectionAsync(long timeout, TimeUnit unit) {
+        Phase phase = this.phase.get();
+        if (phase != Phase.READY)
+            return Futures.immediateFailedFuture(new ConnectionException(host.getSocketAddress(), "Pool is " + phase));
+
+        // Don't overtake borrowers that are already waiting
+        if (pendingBorrows.isEmpty()) {
+            Connection connection = tryBorrowConnection();
+            if (connection != null)
+                return withKeyspace(connection);
+        }
+
+        if (timeout == 0)
+            return Futures.immediateFailedFuture(new TimeoutException());
+
+        int maxQueueSize = manager.configuration().getPoolingOptions().getMaxQueueSize();
+        if (pendingBorrowCount.incrementAndGet() > maxQueueSize) {
+            pendingBorrowCount.decrementAndGet();
+            return Futures.immediateFailedFuture(new BusyPoolException(maxQueueSize));
+        }
+
+        PendingBorrow pending = new PendingBorrow(timeout, unit);
+        pendingBorrows.offer(pending);
+
+        // We might have raced with a release or a shutdown that happened before we were queued
+        if (isClosed())
+            failPendingBorrows();
+        else
+            servePendingBorrows();
+
+        return pending.future;
+    }
+
+    /**
+     * Hands available connections to queued asynchronous borrowers, if any.
+     *
+     * Implementations must call this whenever a connection becomes available.
+     */
+    protected void servePendingBorrows() {
+        while (!pendingBorrows.isEmpty()) {
+            Connection connection = tryBorrowConnection();
+            if (connection == null)
+                return;
+
+            PendingBorrow pending;
+            do {
+                pending = pollPendingBorrow();
+            } while (pending != null && !pending.complete(connection));
+
+            if (pending == null) {
+                // Everyone who was waiting timed out or was served by someone else
+                connection.release();
+                return;
+            }
+        }
+    }
+
+    private void failPendingBorrows() {
+        PendingBorrow pending;
+        while ((pending = pollPendingBorrow()) != null)
+            pending.fail(new ConnectionException(host.getSocketAddress(), "Pool is shutdown"));
+    }
+
+    private PendingBorrow pollPendingBorrow() {
+        PendingBorrow pending = pendingBorrows.poll();
+        if (pending != null)
+            pendingBorrowCount.decrementAndGet();
+        return pending;
+    }
+
+    int pendingBorrowCount() {
+        return pendingBorrowCount.get();
+    }
+
+    ListenableFuture<Connection> withKeyspace(final Connection connection) {
+        ListenableFuture<Void> keyspaceFuture = connection.setKeyspaceAsync(manager.poolsState.keyspace);
+        if (keyspaceFuture == MoreFutures.VOID_SUCCESS)
+            return Futures.immediateFuture(connection);
+
+        final SettableFuture<Connection> future = SettableFuture.create();
+        Futures.addCallback(keyspaceFuture, new FutureCallback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+                future.set(connection);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                // If the request timed out, that already released the connection
+                if (!(t instanceof OperationTimedOutException))
+                    connection.release();
+                future.setException(t);
+            }
+        });
+        return future;
+    }
+
     abstract void returnConnection(Connection connection);
 
     abstract void ensureCoreConnections();
@@ -93,6 +242,8 @@ abstract class HostConnectionPool {
 
         phase.set(Phase.CLOSING);
 
+        failPendingBorrows();
+
         future = makeCloseFuture();
 
         return closeFuture.compareAndSet(null, future)
@@ -100,6 +251,60 @@ abstract class HostConnectionPool {
             : closeFuture.get(); // We raced, it's ok, return the future that was actually set
     }
 
+    private class PendingBorrow {
+        final SettableFuture<Connection> future = SettableFuture.create();
+        // Set by whoever completes this borrow first (a connection being handed over, the timeout or the shutdown)
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final Timeout timeout;
+        private final long queuedAt = System.nanoTime();
+
+        PendingBorrow(long timeout, TimeUnit unit) {
+            this.timeout = manager.connectionFactory().timer.newTimeout(new TimerTask() {
+                @Override
+                public void run(Timeout t) {
+                    if (claimed.compareAndSet(false, true)) {
+                        if (pendingBorrows.remove(PendingBorrow.this))
+                            pendingBorrowCount.decrementAndGet();
+                        future.setException(new TimeoutException());
+                    }
+                }
+            }, timeout, unit);
+        }
+
+        /**
+         * @return whether the connection was handed to this borrower. If not (because it timed
+         * out in the meantime), the caller keeps ownership of the connection.
+         */
+        boolean complete(Connection connection) {
+            if (!claimed.compareAndSet(false, true))
+                return false;
+            timeout.cancel();
+
+            Metrics metrics = manager.cluster.manager.metrics;
+            if (metrics != null)
+                metrics.getQueueWait().update(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            Futures.addCallback(withKeyspace(connection), new FutureCallback<Connection>() {
+                @Override
+                public void onSuccess(Connection connection) {
+                    future.set(connection);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    future.setException(t);
+                }
+            });
+            return true;
+        }
+
+        void fail(Throwable t) {
+            if (claimed.compareAndSet(false, true)) {
+                timeout.cancel();
+                future.setException(t);
+            }
+        }
+    }
+
     static class PoolState {
         volatile String keyspace;
 
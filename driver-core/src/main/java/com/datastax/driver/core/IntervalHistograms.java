@@ -0,0 +1,143 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import com.google.common.collect.MapMaker;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.core.exceptions.DriverInternalError;
+
+/**
+ * Records latencies per key over a sliding time interval, for the percentile trackers.
+ * <p>
+ * For each key, there is a "live" histogram where current latencies are recorded, and a "cached", read-only histogram
+ * that is returned by {@link #getLastIntervalHistogram(Object)}. Each time the cached histogram becomes older than the
+ * interval, the two histograms are switched.
+ */
+class IntervalHistograms<K> {
+    private static final Logger logger = LoggerFactory.getLogger(IntervalHistograms.class);
+
+    private final ConcurrentMap<K, Recorder> recorders;
+    private final ConcurrentMap<K, CachedHistogram> cachedHistograms;
+    private final long highestTrackableLatencyMillis;
+    private final int numberOfSignificantValueDigits;
+    private final long intervalMs;
+
+    IntervalHistograms(long highestTrackableLatencyMillis, int numberOfSignificantValueDigits, int expectedKeys, long intervalMs) {
+        this.highestTrackableLatencyMillis = highestTrackableLatencyMillis;
+        this.numberOfSignificantValueDigits = numberOfSignificantValueDigits;
+        this.intervalMs = intervalMs;
+        this.recorders = new MapMaker().initialCapacity(expectedKeys).makeMap();
+        this.cachedHistograms = new MapMaker().initialCapacity(expectedKeys).makeMap();
+    }
+
+    /**
+     * Records a latency for a key.
+     *
+     * @return whether this is the first latency recorded for the key.
+     */
+    boolean record(K key, long latencyMs) {
+        boolean created = false;
+        Recorder recorder = recorders.get(key);
+        if (recorder == null) {
+            recorder = new Recorder(highestTrackableLatencyMillis, numberOfSignificantValueDigits);
+            Recorder old = recorders.putIfAbsent(key, recorder);
+            if (old != null) {
+                // We got beaten at creating the recorder, use the actual instance and discard ours
+                recorder = old;
+            } else {
+                // Also set an empty cache entry to remember the time we started recording:
+                cachedHistograms.putIfAbsent(key, CachedHistogram.empty());
+                created = true;
+            }
+        }
+        try {
+            recorder.recordValue(latencyMs);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            logger.warn("Got request with latency of {} ms, which exceeds the configured maximum trackable value {}",
+                latencyMs, highestTrackableLatencyMillis);
+        }
+        return created;
+    }
+
+    Set<K> keys() {
+        return recorders.keySet();
+    }
+
+    /** @return null if no histogram is available yet (no entries recorded, or not for long enough) */
+    Histogram getLastIntervalHistogram(K key) {
+        try {
+            while (true) {
+                CachedHistogram entry = cachedHistograms.get(key);
+                if (entry == null)
+                    return null;
+
+                long age = System.currentTimeMillis() - entry.timestamp;
+                if (age < intervalMs) { // current histogram is recent enough
+                    return entry.histogram.get();
+                } else { // need to refresh
+                    Recorder recorder = recorders.get(key);
+                    // intervalMs should be much larger than the time it takes to replace a histogram, so this future should never block
+                    Histogram staleHistogram = entry.histogram.get(0, MILLISECONDS);
+                    SettableFuture<Histogram> future = SettableFuture.create();
+                    CachedHistogram newEntry = new CachedHistogram(future);
+                    if (cachedHistograms.replace(key, entry, newEntry)) {
+                        // Only get the new histogram if we successfully replaced the cache entry.
+                        // This ensures that only one thread will do it.
+                        Histogram newHistogram = recorder.getIntervalHistogram(staleHistogram);
+                        future.set(newHistogram);
+                        return newHistogram;
+                    }
+                    // If we couldn't replace the entry it means we raced, so loop to try again
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new DriverInternalError("Unexpected error", e.getCause());
+        } catch (TimeoutException e) {
+            throw new DriverInternalError("Unexpected timeout while getting histogram", e);
+        }
+    }
+
+    static class CachedHistogram {
+        final ListenableFuture<Histogram> histogram;
+        final long timestamp;
+
+        CachedHistogram(ListenableFuture<Histogram> histogram) {
+            this.histogram = histogram;
+            this.timestamp = System.currentTimeMillis();
+        }
+
+        static CachedHistogram empty() {
+            return new CachedHistogram(Futures.<Histogram>immediateFuture(null));
+        }
+    }
+}
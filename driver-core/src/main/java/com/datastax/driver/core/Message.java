@@ -195,13 +195,23 @@ abstract class Message {
     @ChannelHandler.Sharable
     public static class ProtocolDecoder extends MessageToMessageDecoder<Frame> {
 
+        private final boolean compactRows;
+
+        public ProtocolDecoder(boolean compactRows) {
+            this.compactRows = compactRows;
+        }
+
         @Override
         protected void decode(ChannelHandlerContext ctx, Frame frame, List<Object> out) throws Exception {
             boolean isTracing = frame.header.flags.contains(Frame.Header.Flag.TRACING);
             UUID tracingId = isTracing ? CBUtil.readUUID(frame.body) : null;
 
             try {
-                Response response = Response.Type.fromOpcode(frame.header.opcode).decoder.decode(frame.body, frame.header.version);
+                Response.Type type = Response.Type.fromOpcode(frame.header.opcode);
+                Decoder<?> decoder = compactRows && type == Response.Type.RESULT
+                                   ? Responses.Result.compactDecoder
+                                   : type.decoder;
+                Response response = decoder.decode(frame.body, frame.header.version);
                 response.setTracingId(tracingId).setStreamId(frame.header.streamId);
                 out.add(response);
             } finally {
@@ -227,7 +237,11 @@ abstract class Message {
 
             @SuppressWarnings("unchecked")
             Coder<Request> coder = (Coder<Request>)request.type.coder;
-            ByteBuf body = ctx.alloc().buffer(coder.encodedSize(request, protocolVersion));
+            // Allocate the whole frame at once: the body is written after some room for the header, that
+            // Frame.Encoder fills in place (unless the frame is compressed, which allocates a new body).
+            int headerLength = Frame.Header.lengthFor(protocolVersion);
+            ByteBuf body = ctx.alloc().ioBuffer(headerLength + coder.encodedSize(request, protocolVersion));
+            body.setIndex(headerLength, headerLength);
             coder.encode(request, body, protocolVersion);
 
             out.add(Frame.create(protocolVersion, request.type.opcode, request.getStreamId(), flags, body));
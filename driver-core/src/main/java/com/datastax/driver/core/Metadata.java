@@ -204,7 +204,7 @@ public class Metadata {
         if (factory == null)
             return;
 
-        this.tokenMap = TokenMap.build(factory, allTokens, keyspaces.values());
+        this.tokenMap = TokenMap.build(factory, allTokens, keyspaces.values(), tokenMap);
     }
 
     Host add(InetSocketAddress address) {
@@ -423,7 +423,7 @@ public class Metadata {
     void removeKeyspace(String keyspace) {
         keyspaces.remove(keyspace);
         if (tokenMap != null)
-            tokenMap.tokenToHosts.remove(keyspace);
+            tokenMap.tokenToReplicas.remove(keyspace);
     }
 
     /**
@@ -495,42 +495,60 @@ public class Metadata {
     static class TokenMap {
 
         private final Token.Factory factory;
-        private final Map<String, Map<Token, Set<Host>>> tokenToHosts;
+        // For each keyspace, the replicas of each token of the ring, in ring order
+        private final Map<String, Set<Host>[]> tokenToReplicas;
         private final Map<String, Map<Host, Set<TokenRange>>> hostsToRanges;
         private final List<Token> ring;
+        // The values of the ring's tokens with Murmur3Partitioner (null otherwise), so that lookups don't compare Token objects
+        private final long[] m3pRing;
         private final Set<TokenRange> tokenRanges;
         final Set<Host> hosts;
 
+        // What the replicas were computed from, and the results for each distinct replication strategy (the null key
+        // being used for keyspaces with no known strategy). This allows the next build to reuse them if nothing changed.
+        private final Map<Token, Host> tokenToPrimary;
+        private final Map<Host, List<String>> hostLocations;
+        private final Map<ReplicationStrategy, StrategyReplicas> replicasByStrategy;
+
         private TokenMap(Token.Factory factory,
                          Map<Host, Set<Token>> primaryToTokens,
-                         Map<String, Map<Token, Set<Host>>> tokenToHosts,
+                         Map<String, Set<Host>[]> tokenToReplicas,
                          Map<String, Map<Host, Set<TokenRange>>> hostsToRanges,
-                         List<Token> ring, Set<TokenRange> tokenRanges, Set<Host> hosts) {
+                         List<Token> ring, long[] m3pRing, Set<TokenRange> tokenRanges, Set<Host> hosts,
+                         Map<Token, Host> tokenToPrimary,
+                         Map<Host, List<String>> hostLocations,
+                         Map<ReplicationStrategy, StrategyReplicas> replicasByStrategy) {
             this.factory = factory;
-            this.tokenToHosts = tokenToHosts;
+            this.tokenToReplicas = tokenToReplicas;
             this.hostsToRanges = hostsToRanges;
             this.ring = ring;
+            this.m3pRing = m3pRing;
             this.tokenRanges = tokenRanges;
             this.hosts = hosts;
+            this.tokenToPrimary = tokenToPrimary;
+            this.hostLocations = hostLocations;
+            this.replicasByStrategy = replicasByStrategy;
             for (Map.Entry<Host, Set<Token>> entry : primaryToTokens.entrySet()) {
                 Host host = entry.getKey();
                 host.setTokens(ImmutableSet.copyOf(entry.getValue()));
             }
         }
 
-        public static TokenMap build(Token.Factory factory, Map<Host, Collection<String>> allTokens, Collection<KeyspaceMetadata> keyspaces) {
+        /**
+         * @param previous the current token map, if any. Its replicas are reused for the replication strategies
+         *                 that are still in use, provided that token ownership and host locations didn't change.
+         */
+        public static TokenMap build(Token.Factory factory, Map<Host, Collection<String>> allTokens, Collection<KeyspaceMetadata> keyspaces, TokenMap previous) {
 
             Set<Host> hosts = allTokens.keySet();
             Map<Token, Host> tokenToPrimary = new HashMap<Token, Host>();
             Map<Host, Set<Token>> primaryToTokens = new HashMap<Host, Set<Token>>();
-            Set<Token> allSorted = new TreeSet<Token>();
 
             for (Map.Entry<Host, Collection<String>> entry : allTokens.entrySet()) {
                 Host host = entry.getKey();
                 for (String tokenStr : entry.getValue()) {
                     try {
                         Token t = factory.fromString(tokenStr);
-                        allSorted.add(t);
                         tokenToPrimary.put(t, host);
                         Set<Token> hostTokens = primaryToTokens.get(host);
                         if (hostTokens == null) {
@@ -544,55 +562,102 @@ public class Metadata {
                 }
             }
 
-            List<Token> ring = new ArrayList<Token>(allSorted);
-            Set<TokenRange> tokenRanges = makeTokenRanges(ring, factory);
+            Map<Host, List<String>> hostLocations = Maps.newHashMapWithExpectedSize(hosts.size());
+            for (Host host : hosts)
+                hostLocations.put(host, Arrays.asList(host.getDatacenter(), host.getRack()));
+
+            boolean unchanged = previous != null
+                && previous.factory == factory
+                && previous.tokenToPrimary.equals(tokenToPrimary)
+                && previous.hostLocations.equals(hostLocations);
+
+            List<Token> ring;
+            long[] m3pRing;
+            Set<TokenRange> tokenRanges;
+            if (unchanged) {
+                ring = previous.ring;
+                m3pRing = previous.m3pRing;
+                tokenRanges = previous.tokenRanges;
+            } else {
+                ring = new ArrayList<Token>(new TreeSet<Token>(tokenToPrimary.keySet()));
+                m3pRing = makeM3PRing(factory, ring);
+                tokenRanges = makeTokenRanges(ring, factory);
+            }
 
-            Map<String, Map<Token, Set<Host>>> tokenToHosts = new HashMap<String, Map<Token, Set<Host>>>();
+            Map<ReplicationStrategy, StrategyReplicas> replicasByStrategy = new HashMap<ReplicationStrategy, StrategyReplicas>();
+            Map<String, Set<Host>[]> tokenToReplicas = new HashMap<String, Set<Host>[]>();
             Map<String, Map<Host, Set<TokenRange>>> hostsToRanges = new HashMap<String, Map<Host, Set<TokenRange>>>();
             for (KeyspaceMetadata keyspace : keyspaces)
             {
                 ReplicationStrategy strategy = keyspace.replicationStrategy();
-                Map<Token, Set<Host>> ksTokens = (strategy == null)
-                    ? makeNonReplicatedMap(tokenToPrimary)
-                    : strategy.computeTokenToReplicaMap(tokenToPrimary, ring);
-
-                tokenToHosts.put(keyspace.getName(), ksTokens);
-
-                Map<Host, Set<TokenRange>> ksRanges;
-                if (ring.size() == 1) {
-                    // We forced the single range to ]minToken,minToken], make sure to use that instead of relying on the host's token
-                    ImmutableMap.Builder<Host, Set<TokenRange>> builder = ImmutableMap.builder();
-                    for (Host host : allTokens.keySet())
-                        builder.put(host, tokenRanges);
-                    ksRanges = builder.build();
-                } else {
-                    ksRanges = computeHostsToRangesMap(tokenRanges, ksTokens, hosts.size());
+                StrategyReplicas replicas = replicasByStrategy.get(strategy);
+                if (replicas == null) {
+                    if (unchanged)
+                        replicas = previous.replicasByStrategy.get(strategy);
+                    if (replicas == null)
+                        replicas = computeReplicas(strategy, tokenToPrimary, ring, tokenRanges, hosts);
+                    replicasByStrategy.put(strategy, replicas);
                 }
-                hostsToRanges.put(keyspace.getName(), ksRanges);
+                tokenToReplicas.put(keyspace.getName(), replicas.tokenToReplicas);
+                hostsToRanges.put(keyspace.getName(), replicas.hostsToRanges);
+            }
+            return new TokenMap(factory, primaryToTokens, tokenToReplicas, hostsToRanges, ring, m3pRing, tokenRanges, hosts,
+                                tokenToPrimary, hostLocations, replicasByStrategy);
+        }
+
+        private static StrategyReplicas computeReplicas(ReplicationStrategy strategy, Map<Token, Host> tokenToPrimary,
+                                                        List<Token> ring, Set<TokenRange> tokenRanges, Set<Host> hosts) {
+            Map<Token, Set<Host>> ksTokens = (strategy == null)
+                ? makeNonReplicatedMap(tokenToPrimary)
+                : strategy.computeTokenToReplicaMap(tokenToPrimary, ring);
+
+            Map<Host, Set<TokenRange>> ksRanges;
+            if (ring.size() == 1) {
+                // We forced the single range to ]minToken,minToken], make sure to use that instead of relying on the host's token
+                ImmutableMap.Builder<Host, Set<TokenRange>> builder = ImmutableMap.builder();
+                for (Host host : hosts)
+                    builder.put(host, tokenRanges);
+                ksRanges = builder.build();
+            } else {
+                ksRanges = computeHostsToRangesMap(tokenRanges, ksTokens, hosts.size());
             }
-            return new TokenMap(factory, primaryToTokens, tokenToHosts, hostsToRanges, ring, tokenRanges, hosts);
+            return new StrategyReplicas(makeReplicasArray(ring, ksTokens), ksRanges);
         }
 
         private Set<Host> getReplicas(String keyspace, Token token) {
 
-            Map<Token, Set<Host>> keyspaceHosts = tokenToHosts.get(keyspace);
-            if (keyspaceHosts == null)
+            Set<Host>[] replicas = tokenToReplicas.get(keyspace);
+            if (replicas == null || replicas.length == 0)
                 return Collections.emptySet();
 
-            // If the token happens to be one of the "primary" tokens, get result directly
-            Set<Host> hosts = keyspaceHosts.get(token);
-            if (hosts != null)
-                return hosts;
-
-            // Otherwise, find closest "primary" token on the ring
-            int i = Collections.binarySearch(ring, token);
+            // Find the token, or the closest "primary" token after it on the ring
+            int i = (m3pRing == null)
+                ? Collections.binarySearch(ring, token)
+                : Arrays.binarySearch(m3pRing, ((Token.M3PToken)token).value);
             if (i < 0) {
                 i = -i - 1;
-                if (i >= ring.size())
+                if (i >= replicas.length)
                     i = 0;
             }
 
-            return keyspaceHosts.get(ring.get(i));
+            return replicas[i];
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Set<Host>[] makeReplicasArray(List<Token> ring, Map<Token, Set<Host>> ksTokens) {
+            Set<Host>[] replicas = new Set[ring.size()];
+            for (int i = 0; i < replicas.length; i++)
+                replicas[i] = ksTokens.get(ring.get(i));
+            return replicas;
+        }
+
+        private static long[] makeM3PRing(Token.Factory factory, List<Token> ring) {
+            if (factory != Token.M3PToken.FACTORY)
+                return null;
+            long[] values = new long[ring.size()];
+            for (int i = 0; i < values.length; i++)
+                values[i] = ((Token.M3PToken)ring.get(i)).value;
+            return values;
         }
 
         private static Map<Token, Set<Host>> makeNonReplicatedMap(Map<Token, Host> input) {
@@ -636,5 +701,15 @@ public class Metadata {
             }
             return ksRanges;
         }
+
+        private static class StrategyReplicas {
+            final Set<Host>[] tokenToReplicas;
+            final Map<Host, Set<TokenRange>> hostsToRanges;
+
+            StrategyReplicas(Set<Host>[] tokenToReplicas, Map<Host, Set<TokenRange>> hostsToRanges) {
+                this.tokenToReplicas = tokenToReplicas;
+                this.hostsToRanges = hostsToRanges;
+            }
+        }
     }
 }
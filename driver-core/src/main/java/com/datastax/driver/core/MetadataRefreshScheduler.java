@@ -0,0 +1,167 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.datastax.driver.core.SchemaElement.KEYSPACE;
+
+/**
+ * Coalesces the schema and node list refreshes requested by server events.
+ * <p>
+ * The first request opens a window of {@link QueryOptions#getRefreshIntervalMillis()}. Requests received
+ * until the window ends are merged, and the resulting refreshes are performed once it ends:
+ * <ul>
+ *   <li>a full schema refresh subsumes everything else (it also refreshes the node list);</li>
+ *   <li>several refreshes of different elements of a keyspace become a refresh of that keyspace;</li>
+ *   <li>a keyspace refresh also refreshes the node list.</li>
+ * </ul>
+ */
+class MetadataRefreshScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetadataRefreshScheduler.class);
+
+    private final QueryOptions queryOptions;
+    private final ControlConnection controlConnection;
+    // Runs the refreshes
+    private final ExecutorService executor;
+    // Delays the refreshes by the refresh interval
+    private final ScheduledExecutorService scheduler;
+
+    // All guarded by this
+    private boolean fullSchema;
+    private boolean nodeList;
+    private final Map<String, Target> keyspaces = new HashMap<String, Target>();
+    private boolean scheduled;
+
+    MetadataRefreshScheduler(QueryOptions queryOptions, ControlConnection controlConnection, ExecutorService executor, ScheduledExecutorService scheduler) {
+        this.queryOptions = queryOptions;
+        this.controlConnection = controlConnection;
+        this.executor = executor;
+        this.scheduler = scheduler;
+    }
+
+    void submitSchemaRefresh(SchemaElement targetType, String targetKeyspace, String targetName) {
+        synchronized (this) {
+            if (targetType == null) {
+                fullSchema = true;
+                keyspaces.clear();
+            } else if (!fullSchema) {
+                Target requested = new Target(targetType, targetType == KEYSPACE ? null : targetName);
+                Target current = keyspaces.get(targetKeyspace);
+                keyspaces.put(targetKeyspace, (current == null || current.equals(requested))
+                                              ? requested
+                                              : new Target(KEYSPACE, null));
+            }
+        }
+        schedule();
+    }
+
+    void submitNodeListRefresh() {
+        synchronized (this) {
+            nodeList = true;
+        }
+        schedule();
+    }
+
+    private void schedule() {
+        long interval = queryOptions.getRefreshIntervalMillis();
+        synchronized (this) {
+            if (scheduled)
+                return;
+            scheduled = true;
+        }
+        try {
+            if (interval == 0)
+                executor.submit(refreshTask);
+            else
+                scheduler.schedule(submitRefreshTask, interval, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The cluster is shutting down, nothing to refresh anymore
+            logger.debug("Not scheduling metadata refresh since the cluster is shutting down");
+        }
+    }
+
+    // The refreshes are blocking, so run them on the executor rather than hold the (mono-threaded) scheduler
+    private final Runnable submitRefreshTask = new ExceptionCatchingRunnable() {
+        @Override
+        public void runMayThrow() {
+            executor.submit(refreshTask);
+        }
+    };
+
+    private final Runnable refreshTask = new ExceptionCatchingRunnable() {
+        @Override
+        public void runMayThrow() throws InterruptedException {
+            boolean fullSchema, nodeList;
+            Map<String, Target> keyspaces;
+            synchronized (MetadataRefreshScheduler.this) {
+                fullSchema = MetadataRefreshScheduler.this.fullSchema;
+                nodeList = MetadataRefreshScheduler.this.nodeList;
+                keyspaces = new HashMap<String, Target>(MetadataRefreshScheduler.this.keyspaces);
+                MetadataRefreshScheduler.this.fullSchema = false;
+                MetadataRefreshScheduler.this.nodeList = false;
+                MetadataRefreshScheduler.this.keyspaces.clear();
+                scheduled = false;
+            }
+
+            if (fullSchema) {
+                controlConnection.refreshSchema(null, null, null);
+                return;
+            }
+            for (Map.Entry<String, Target> entry : keyspaces.entrySet()) {
+                Target target = entry.getValue();
+                controlConnection.refreshSchema(target.type, entry.getKey(), target.name);
+                if (target.type == KEYSPACE)
+                    nodeList = false;
+            }
+            if (nodeList)
+                controlConnection.refreshNodeListAndTokenMap();
+        }
+    };
+
+    private static class Target {
+        final SchemaElement type;
+        final String name;
+
+        Target(SchemaElement type, String name) {
+            this.type = type;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Target))
+                return false;
+            Target that = (Target)o;
+            return type == that.type && Objects.equal(name, that.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(type, name);
+        }
+    }
+}
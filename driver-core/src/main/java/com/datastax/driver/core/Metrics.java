@@ -43,6 +43,9 @@ public class Metrics {
 
     private final Timer requests = registry.timer("requests");
 
+    private final Histogram framesPerFlush = registry.histogram("frames-per-flush");
+    private final Timer flushDelay = registry.timer("flush-delay");
+
     private final Gauge<Integer> knownHosts = registry.register("known-hosts", new Gauge<Integer>() {
         @Override
         public Integer getValue() {
@@ -79,6 +82,19 @@ public class Metrics {
         }
     });
 
+    private final Gauge<Integer> queuedRequests = registry.register("queued-requests", new Gauge<Integer>() {
+        @Override
+        public Integer getValue() {
+            int value = 0;
+            for (SessionManager session : manager.sessions)
+                for (HostConnectionPool pool : session.pools.values())
+                    value += pool.pendingBorrowCount();
+            return value;
+        }
+    });
+    private final Timer queueWait = registry.timer("queue-wait");
+    private final Timer pageFetchStalls = registry.timer("page-fetch-stalls");
+
     private final Gauge<Integer> executorQueueDepth = registry.register("executor-queue-depth", new Gauge<Integer>() {
         @Override
         public Integer getValue() {
@@ -107,6 +123,26 @@ public class Metrics {
         }
     });
 
+    private final Gauge<Long> driftedTimestamps = registry.register("drifted-timestamps", new Gauge<Long>() {
+        @Override
+        public Long getValue() {
+            TimestampGenerator generator = manager.configuration.getPolicies().getTimestampGenerator();
+            return generator instanceof StripedMonotonicTimestampGenerator
+                ? ((StripedMonotonicTimestampGenerator)generator).getDriftedTimestamps()
+                : 0L;
+        }
+    });
+
+    private final Gauge<Long> clockRegressions = registry.register("clock-regressions", new Gauge<Long>() {
+        @Override
+        public Long getValue() {
+            TimestampGenerator generator = manager.configuration.getPolicies().getTimestampGenerator();
+            return generator instanceof StripedMonotonicTimestampGenerator
+                ? ((StripedMonotonicTimestampGenerator)generator).getClockRegressions()
+                : 0L;
+        }
+    });
+
     Metrics(Cluster.Manager manager) {
         this.manager = manager;
         if (manager.configuration.getMetricsOptions().isJMXReportingEnabled()) {
@@ -176,6 +212,32 @@ public class Metrics {
         return requests;
     }
 
+    /**
+     * Returns the distribution of the number of frames sent to the network in each flush.
+     * <p>
+     * This reflects how well frames are coalesced with the configured
+     * {@link SocketOptions#getWriteCoalescing() write coalescing strategy}. Nothing is
+     * recorded if coalescing is disabled.
+     *
+     * @return a {@code Histogram} of the number of frames per flush.
+     */
+    public Histogram getFramesPerFlush() {
+        return framesPerFlush;
+    }
+
+    /**
+     * Returns metrics on the delay added by write coalescing.
+     * <p>
+     * For each flush, this records the time elapsed since the oldest frame of the batch
+     * was written by the client. Nothing is recorded if coalescing is disabled.
+     *
+     * @return a {@code Timer} metric object exposing the rate of flushes and the delay
+     * before frames are flushed.
+     */
+    public Timer getFlushDelay() {
+        return flushDelay;
+    }
+
     /**
      * Returns an object grouping metrics related to the errors encountered.
      *
@@ -228,6 +290,45 @@ public class Metrics {
         return trashedConnections;
     }
 
+    /**
+     * Returns the total number of requests currently waiting for a connection.
+     * <p>
+     * Requests are queued when all connections to a host are busy, see
+     * {@link PoolingOptions#setMaxQueueSize(int)}.
+     *
+     * @return The total number of requests waiting for a connection, across all hosts.
+     */
+    public Gauge<Integer> getQueuedRequests() {
+        return queuedRequests;
+    }
+
+    /**
+     * Returns metrics on the time requests spend waiting for a connection.
+     * <p>
+     * This is only recorded for requests that had to be queued and eventually got a
+     * connection.
+     *
+     * @return a {@code Timer} metric object exposing the rate of queued requests and
+     * the time they waited.
+     */
+    public Timer getQueueWait() {
+        return queueWait;
+    }
+
+    /**
+     * Returns metrics on the time result sets spend waiting for their next page.
+     * <p>
+     * This is recorded each time the iteration over a paged {@link ResultSet} blocks
+     * because the next page was not fetched yet. Frequent stalls can be reduced by
+     * prefetching pages, see {@link Statement#setPrefetchThreshold(int)}.
+     *
+     * @return a {@code Timer} metric object exposing the rate of stalls and how long
+     * they lasted.
+     */
+    public Timer getPageFetchStalls() {
+        return pageFetchStalls;
+    }
+
     /**
      * @return The number of queued up tasks in the non-blocking executor (Cassandra Java Driver workers).
      */
@@ -258,6 +359,31 @@ public class Metrics {
         return taskSchedulerQueueSize;
     }
 
+    /**
+     * Returns the number of query timestamps that were generated ahead of the clock.
+     * <p>
+     * This is only measured with a {@link StripedMonotonicTimestampGenerator} (see
+     * {@link StripedMonotonicTimestampGenerator#getDriftedTimestamps()}), and is always 0 with other
+     * timestamp generators.
+     *
+     * @return the number of query timestamps that were generated ahead of the clock.
+     */
+    public Gauge<Long> getDriftedTimestamps() {
+        return driftedTimestamps;
+    }
+
+    /**
+     * Returns the number of times that the clock used for query timestamps was observed to go backwards.
+     * <p>
+     * This is only measured with a {@link StripedMonotonicTimestampGenerator}, and is always 0 with other
+     * timestamp generators.
+     *
+     * @return the number of times that the clock was observed to go backwards.
+     */
+    public Gauge<Long> getClockRegressions() {
+        return clockRegressions;
+    }
+
     void shutdown() {
         if (jmxReporter != null)
             jmxReporter.stop();
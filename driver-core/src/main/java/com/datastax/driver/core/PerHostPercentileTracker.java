@@ -16,10 +16,7 @@
 package com.datastax.driver.core;
 
 import java.util.Set;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
@@ -27,14 +24,7 @@ import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 import com.google.common.annotations.Beta;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.MapMaker;
-import com.google.common.util.concurrent.Futures;
-import com.google.common.util.concurrent.ListenableFuture;
-import com.google.common.util.concurrent.SettableFuture;
 import org.HdrHistogram.Histogram;
-import org.HdrHistogram.Recorder;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -67,25 +57,15 @@ import com.datastax.driver.core.exceptions.*;
  */
 @Beta
 public class PerHostPercentileTracker implements LatencyTracker {
-    private static final Logger logger = LoggerFactory.getLogger(PerHostPercentileTracker.class);
-
-    private final ConcurrentMap<Host, Recorder> recorders;
-    private final ConcurrentMap<Host, CachedHistogram> cachedHistograms;
-    private final long highestTrackableLatencyMillis;
-    private final int numberOfSignificantValueDigits;
+    private final IntervalHistograms<Host> histograms;
     private final int minRecordedValues;
-    private final long intervalMs;
 
     private PerHostPercentileTracker(long highestTrackableLatencyMillis, int numberOfSignificantValueDigits,
                                      int numberOfHosts,
                                      int minRecordedValues,
                                      long intervalMs) {
-        this.highestTrackableLatencyMillis = highestTrackableLatencyMillis;
-        this.numberOfSignificantValueDigits = numberOfSignificantValueDigits;
+        this.histograms = new IntervalHistograms<Host>(highestTrackableLatencyMillis, numberOfSignificantValueDigits, numberOfHosts, intervalMs);
         this.minRecordedValues = minRecordedValues;
-        this.intervalMs = intervalMs;
-        this.recorders = new MapMaker().initialCapacity(numberOfHosts).makeMap();
-        this.cachedHistograms = new MapMaker().initialCapacity(numberOfHosts).makeMap();
     }
 
     /**
@@ -198,13 +178,7 @@ public class PerHostPercentileTracker implements LatencyTracker {
         if (!shouldConsiderNewLatency(statement, exception))
             return;
 
-        long latencyMs = NANOSECONDS.toMillis(newLatencyNanos);
-        try {
-            getRecorder(host).recordValue(latencyMs);
-        } catch (ArrayIndexOutOfBoundsException e) {
-            logger.warn("Got request with latency of {} ms, which exceeds the configured maximum trackable value {}",
-                latencyMs, highestTrackableLatencyMillis);
-        }
+        histograms.record(host, NANOSECONDS.toMillis(newLatencyNanos));
     }
 
     /**
@@ -217,80 +191,13 @@ public class PerHostPercentileTracker implements LatencyTracker {
     public long getLatencyAtPercentile(Host host, double percentile) {
         checkArgument(percentile >= 0.0 && percentile < 100,
             "percentile must be between 0.0 and 100 (was %f)");
-        Histogram histogram = getLastIntervalHistogram(host);
+        Histogram histogram = histograms.getLastIntervalHistogram(host);
         if (histogram == null || histogram.getTotalCount() < minRecordedValues)
             return -1;
 
         return histogram.getValueAtPercentile(percentile);
     }
 
-    private Recorder getRecorder(Host host) {
-        Recorder recorder = recorders.get(host);
-        if (recorder == null) {
-            recorder = new Recorder(highestTrackableLatencyMillis, numberOfSignificantValueDigits);
-            Recorder old = recorders.putIfAbsent(host, recorder);
-            if (old != null) {
-                // We got beaten at creating the recorder, use the actual instance and discard ours
-                recorder = old;
-            } else {
-                // Also set an empty cache entry to remember the time we started recording:
-                cachedHistograms.putIfAbsent(host, CachedHistogram.empty());
-            }
-        }
-        return recorder;
-    }
-
-    /** @return null if no histogram is available yet (no entries recorded, or not for long enough) */
-    private Histogram getLastIntervalHistogram(Host host) {
-        try {
-            while (true) {
-                CachedHistogram entry = cachedHistograms.get(host);
-                if (entry == null)
-                    return null;
-
-                long age = System.currentTimeMillis() - entry.timestamp;
-                if (age < intervalMs) { // current histogram is recent enough
-                    return entry.histogram.get();
-                } else { // need to refresh
-                    Recorder recorder = recorders.get(host);
-                    // intervalMs should be much larger than the time it takes to replace a histogram, so this future should never block
-                    Histogram staleHistogram = entry.histogram.get(0, MILLISECONDS);
-                    SettableFuture<Histogram> future = SettableFuture.create();
-                    CachedHistogram newEntry = new CachedHistogram(future);
-                    if (cachedHistograms.replace(host, entry, newEntry)) {
-                        // Only get the new histogram if we successfully replaced the cache entry.
-                        // This ensures that only one thread will do it.
-                        Histogram newHistogram = recorder.getIntervalHistogram(staleHistogram);
-                        future.set(newHistogram);
-                        return newHistogram;
-                    }
-                    // If we couldn't replace the entry it means we raced, so loop to try again
-                }
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return null;
-        } catch (ExecutionException e) {
-            throw new DriverInternalError("Unexpected error", e.getCause());
-        } catch (TimeoutException e) {
-            throw new DriverInternalError("Unexpected timeout while getting histogram", e);
-        }
-    }
-
-    static class CachedHistogram {
-        final ListenableFuture<Histogram> histogram;
-        final long timestamp;
-
-        CachedHistogram(ListenableFuture<Histogram> histogram) {
-            this.histogram = histogram;
-            this.timestamp = System.currentTimeMillis();
-        }
-
-        static CachedHistogram empty() {
-            return new CachedHistogram(Futures.<Histogram>immediateFuture(null));
-        }
-    }
-
     // TODO this was copy/pasted from LatencyAwarePolicy, maybe it could be refactored as a shared method
     private boolean shouldConsiderNewLatency(Statement statement, Exception exception) {
         // query was successful: always consider
@@ -0,0 +1,408 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableSet;
+import org.HdrHistogram.Histogram;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.datastax.driver.core.exceptions.*;
+
+/**
+ * A {@link LatencyTracker} that records latencies for each statement, consistency level and outcome over a sliding
+ * time interval, and exposes an API to retrieve the latency at a given percentile.
+ * <p>
+ * Statements are identified by a label, computed by a {@link Labeler}. By default, bound statements are labelled
+ * with the id of their prepared statement, and other statements are not tracked (see {@link Builder#withLabeler(Labeler)}
+ * to track them).
+ * <p>
+ * To use this class, build an instance with {@link #builderWithHighestTrackableLatencyMillis(long)} and register
+ * it with your {@link com.datastax.driver.core.Cluster} instance:
+ * <pre>
+ * PerStatementPercentileTracker tracker = PerStatementPercentileTracker
+ *     .builderWithHighestTrackableLatencyMillis(15000)
+ *     .build();
+ *
+ * cluster.register(tracker);
+ * tracker.registerMetrics(cluster.getMetrics().getRegistry(), "statements");
+ * ...
+ * for (PerStatementPercentileTracker.Key key : tracker.getKeys())
+ *     System.out.println(key + ": " + tracker.getLatencyAtPercentile(key, 99.0));
+ * </pre>
+ * <p>
+ * As {@link PerHostPercentileTracker}, this class uses <a href="http://hdrhistogram.github.io/HdrHistogram/">HdrHistogram</a>
+ * to record latencies in a "live" histogram for each key, and reports them from a "cached" histogram of the previous
+ * interval. Each key holds a few histograms, which size depends on the highest trackable latency and the number of
+ * significant digits: when tracking hundreds of statements, consider reducing the number of significant digits to 2.
+ * <p>
+ * Note that this class is currently marked "beta": it hasn't been extensively tested yet, and the API is still subject
+ * to change.
+ */
+@Beta
+public class PerStatementPercentileTracker implements LatencyTracker {
+    private final IntervalHistograms<Key> histograms;
+    private final Labeler labeler;
+    private final int minRecordedValues;
+
+    // Set by registerMetrics, guarded by this
+    private MetricRegistry registry;
+    private String prefix;
+
+    private PerStatementPercentileTracker(Labeler labeler,
+                                          long highestTrackableLatencyMillis, int numberOfSignificantValueDigits,
+                                          int minRecordedValues,
+                                          long intervalMs) {
+        this.histograms = new IntervalHistograms<Key>(highestTrackableLatencyMillis, numberOfSignificantValueDigits, 16, intervalMs);
+        this.labeler = labeler;
+        this.minRecordedValues = minRecordedValues;
+    }
+
+    /**
+     * Returns a builder to create a new instance.
+     *
+     * @param highestTrackableLatencyMillis the highest expected latency. If a higher value is reported, it will be ignored and a
+     *                                      warning will be logged. A good rule of thumb is to set it slightly higher than
+     *                                      {@link SocketOptions#getReadTimeoutMillis()}.
+     * @return the builder.
+     */
+    public static Builder builderWithHighestTrackableLatencyMillis(long highestTrackableLatencyMillis) {
+        return new Builder(highestTrackableLatencyMillis);
+    }
+
+    /**
+     * Computes the label under which the latencies of a statement are recorded.
+     */
+    public interface Labeler {
+
+        /**
+         * Returns the label of a statement.
+         * <p>
+         * The number of distinct labels should be bounded, since latencies are recorded separately for each of them.
+         *
+         * @param statement the statement that has been executed.
+         * @return the label of the statement, or {@code null} if its latencies should not be recorded.
+         */
+        public String labelOf(Statement statement);
+    }
+
+    /**
+     * The default {@link Labeler}: labels bound statements with the id of their prepared statement (as an
+     * hexadecimal string), and ignores other statements.
+     */
+    public static final Labeler PREPARED_ID_LABELER = new Labeler() {
+        @Override
+        public String labelOf(Statement statement) {
+            if (statement instanceof StatementWrapper)
+                statement = ((StatementWrapper)statement).getWrappedStatement();
+            return (statement instanceof BoundStatement)
+                ? ((BoundStatement)statement).preparedStatement().getPreparedId().id.toString()
+                : null;
+        }
+    };
+
+    /**
+     * Helper class to builder {@code PerStatementPercentileTracker} instances with a fluent interface.
+     */
+    public static class Builder {
+        private final long highestTrackableLatencyMillis;
+        private Labeler labeler = PREPARED_ID_LABELER;
+        private int numberOfSignificantValueDigits = 3;
+        private int minRecordedValues = 1000;
+        private long intervalMs = MINUTES.toMillis(5);
+
+        Builder(long highestTrackableLatencyMillis) {
+            this.highestTrackableLatencyMillis = highestTrackableLatencyMillis;
+        }
+
+        /**
+         * Sets the labeler that computes the label of each statement.
+         * <p>
+         * If not set explicitly, this defaults to {@link #PREPARED_ID_LABELER}.
+         *
+         * @param labeler the new labeler.
+         * @return this builder.
+         */
+        public Builder withLabeler(Labeler labeler) {
+            if (labeler == null)
+                throw new NullPointerException();
+            this.labeler = labeler;
+            return this;
+        }
+
+        /**
+         * Sets the number of significant decimal digits to which histograms will maintain value
+         * resolution and separation. This must be an integer between 0 and 5.
+         * <p>
+         * If not set explicitly, this value defaults to 3.
+         *
+         * @param numberOfSignificantValueDigits the new value.
+         * @return this builder.
+         *
+         * @see <a href="http://hdrhistogram.github.io/HdrHistogram/JavaDoc/org/HdrHistogram/Histogram.html">the HdrHistogram Javadocs</a>
+         * for a more detailed explanation on how this parameter affects the resolution of recorded samples.
+         */
+        public Builder withNumberOfSignificantValueDigits(int numberOfSignificantValueDigits) {
+            this.numberOfSignificantValueDigits = numberOfSignificantValueDigits;
+            return this;
+        }
+
+        /**
+         * Sets the minimum number of values that must be recorded for a key before we consider
+         * the sample size significant.
+         * <p>
+         * If this count is not reached during a given interval, {@link #getLatencyAtPercentile(Key, double)}
+         * will return a negative value, indicating that statistics are not available. In particular, this is true
+         * during the first interval.
+         * <p>
+         * If not set explicitly, this value default to 1000.
+         *
+         * @param minRecordedValues the new value.
+         * @return this builder.
+         */
+        public Builder withMinRecordedValues(int minRecordedValues) {
+            this.minRecordedValues = minRecordedValues;
+            return this;
+        }
+
+        /**
+         * Sets the time interval over which samples are recorded.
+         * <p>
+         * If not set explicitly, this value defaults to 5 minutes.
+         *
+         * @param interval the new interval.
+         * @param unit the unit that the interval is expressed in.
+         * @return this builder.
+         */
+        public Builder withInterval(long interval, TimeUnit unit) {
+            this.intervalMs = MILLISECONDS.convert(interval, unit);
+            return this;
+        }
+
+        /**
+         * Builds the {@code PerStatementPercentileTracker} instance configured with this builder.
+         *
+         * @return the instance.
+         */
+        public PerStatementPercentileTracker build() {
+            return new PerStatementPercentileTracker(labeler, highestTrackableLatencyMillis, numberOfSignificantValueDigits, minRecordedValues, intervalMs);
+        }
+    }
+
+    /**
+     * The outcome of a request.
+     */
+    public enum Outcome {
+        /** The request succeeded. */
+        SUCCESS,
+        /** The request timed out, either on the coordinator or on the client side. */
+        TIMEOUT,
+        /** The request failed for another reason. */
+        ERROR;
+
+        static Outcome of(Exception exception) {
+            if (exception == null)
+                return SUCCESS;
+            return TIMEOUT_EXCEPTIONS.contains(exception.getClass()) ? TIMEOUT : ERROR;
+        }
+    }
+
+    /**
+     * The key under which latencies are recorded.
+     */
+    public static final class Key {
+        private final String label;
+        private final ConsistencyLevel consistencyLevel;
+        private final Outcome outcome;
+
+        Key(String label, ConsistencyLevel consistencyLevel, Outcome outcome) {
+            this.label = label;
+            this.consistencyLevel = consistencyLevel;
+            this.outcome = outcome;
+        }
+
+        /**
+         * Returns the label of the statements.
+         *
+         * @return the label of the statements.
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * Returns the consistency level of the statements.
+         *
+         * @return the consistency level of the statements, or {@code null} if they used the
+         * default consistency level (see {@link QueryOptions#getConsistencyLevel()}).
+         */
+        public ConsistencyLevel getConsistencyLevel() {
+            return consistencyLevel;
+        }
+
+        /**
+         * Returns the outcome of the requests.
+         *
+         * @return the outcome of the requests.
+         */
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+            Key that = (Key)o;
+            return label.equals(that.label)
+                && consistencyLevel == that.consistencyLevel
+                && outcome == that.outcome;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(label, consistencyLevel, outcome);
+        }
+
+        @Override
+        public String toString() {
+            return MetricRegistry.name(label, consistencyLevel == null ? "default" : consistencyLevel.name(), outcome.name());
+        }
+    }
+
+    @Override
+    public void update(Host host, Statement statement, Exception exception, long newLatencyNanos) {
+        String label = labeler.labelOf(statement);
+        if (label == null)
+            return;
+
+        Key key = new Key(label, statement.getConsistencyLevel(), Outcome.of(exception));
+        if (histograms.record(key, NANOSECONDS.toMillis(newLatencyNanos)))
+            registerMetrics(key);
+    }
+
+    /**
+     * Returns the keys for which latencies have been recorded.
+     *
+     * @return a snapshot of the keys for which latencies have been recorded.
+     */
+    public Set<Key> getKeys() {
+        return ImmutableSet.copyOf(histograms.keys());
+    }
+
+    /**
+     * Returns the request latency for a key at a given percentile.
+     *
+     * @param key the key.
+     * @param percentile the percentile (for example, {@code 99.0} for the 99th percentile).
+     * @return the latency (in milliseconds) at the given percentile, or a negative value if it's not available yet.
+     */
+    public long getLatencyAtPercentile(Key key, double percentile) {
+        checkArgument(percentile >= 0.0 && percentile < 100,
+            "percentile must be between 0.0 and 100 (was %f)");
+        Histogram histogram = histograms.getLastIntervalHistogram(key);
+        if (histogram == null || histogram.getTotalCount() < minRecordedValues)
+            return -1;
+
+        return histogram.getValueAtPercentile(percentile);
+    }
+
+    /**
+     * Returns the number of requests recorded for a key during the last complete interval.
+     *
+     * @param key the key.
+     * @return the number of requests, or 0 if no interval has completed yet.
+     */
+    public long getLastIntervalCount(Key key) {
+        Histogram histogram = histograms.getLastIntervalHistogram(key);
+        return histogram == null ? 0 : histogram.getTotalCount();
+    }
+
+    /**
+     * Registers gauges for each key of this tracker in a metric registry.
+     * <p>
+     * For each key, the gauges {@code <prefix>.<label>.<consistency level>.<outcome>.<statistic>} are
+     * registered, where the statistic is one of {@code count}, {@code p50}, {@code p75}, {@code p95},
+     * {@code p99}, {@code p999} and {@code max}. They report the values of the last complete interval,
+     * in milliseconds. Gauges are registered for existing keys when this method is called, and then
+     * for each new key as soon as its first latency is recorded.
+     *
+     * @param registry the registry, for example {@code cluster.getMetrics().getRegistry()}.
+     * @param prefix the prefix of the names of the gauges.
+     *
+     * @throws IllegalStateException if this tracker already registers its metrics in a registry.
+     */
+    public synchronized void registerMetrics(MetricRegistry registry, String prefix) {
+        if (this.registry != null)
+            throw new IllegalStateException("The metrics of this tracker are already registered");
+        this.registry = registry;
+        this.prefix = prefix;
+        for (Key key : histograms.keys())
+            registerMetrics(key);
+    }
+
+    private synchronized void registerMetrics(final Key key) {
+        if (registry == null)
+            return;
+        String name = MetricRegistry.name(prefix, key.toString());
+        registry.register(MetricRegistry.name(name, "count"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return getLastIntervalCount(key);
+            }
+        });
+        registerPercentile(name, "p50", key, 50.0);
+        registerPercentile(name, "p75", key, 75.0);
+        registerPercentile(name, "p95", key, 95.0);
+        registerPercentile(name, "p99", key, 99.0);
+        registerPercentile(name, "p999", key, 99.9);
+        registry.register(MetricRegistry.name(name, "max"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                Histogram histogram = histograms.getLastIntervalHistogram(key);
+                return (histogram == null || histogram.getTotalCount() < minRecordedValues) ? -1 : histogram.getMaxValue();
+            }
+        });
+    }
+
+    private void registerPercentile(String name, String statistic, final Key key, final double percentile) {
+        registry.register(MetricRegistry.name(name, statistic), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return getLatencyAtPercentile(key, percentile);
+            }
+        });
+    }
+
+    private static final Set<Class<? extends Exception>> TIMEOUT_EXCEPTIONS = ImmutableSet.<Class<? extends Exception>>of(
+        ReadTimeoutException.class,
+        WriteTimeoutException.class,
+        OperationTimedOutException.class
+    );
+}
@@ -43,6 +43,8 @@ import com.google.common.util.concurrent.MoreExecutors;
  * the driver uses a single connection for each {@code LOCAL} or {@code REMOTE}
  * host. This connection can handle a larger amount of simultaneous requests,
  * limited by {@link #getMaxSimultaneousRequestsPerHostThreshold(HostDistance)}.
+ * Alternatively, the driver can use a connection for each of its I/O threads
+ * (see {@link #setEventLoopAffinityEnabled(boolean)}).
  * <p>
  * Each of these parameters can be separately set for {@code LOCAL} and
  * {@code REMOTE} hosts ({@link HostDistance}). For {@code IGNORED} hosts,
@@ -63,6 +65,7 @@ public class PoolingOptions {
 
     private static final int DEFAULT_IDLE_TIMEOUT_SECONDS = 120;
     private static final int DEFAULT_POOL_TIMEOUT_MILLIS = 5000;
+    private static final int DEFAULT_MAX_QUEUE_SIZE = 256;
     private static final int DEFAULT_HEARTBEAT_INTERVAL_SECONDS = 30;
 
     private static final Executor DEFAULT_INITIALIZATION_EXECUTOR = MoreExecutors.sameThreadExecutor();
@@ -79,10 +82,13 @@ public class PoolingOptions {
     
     private volatile int idleTimeoutSeconds = DEFAULT_IDLE_TIMEOUT_SECONDS;
     private volatile int poolTimeoutMillis = DEFAULT_POOL_TIMEOUT_MILLIS;
+    private volatile int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
     private volatile int heartbeatIntervalSeconds = DEFAULT_HEARTBEAT_INTERVAL_SECONDS;
 
     private volatile Executor initializationExecutor = DEFAULT_INITIALIZATION_EXECUTOR;
 
+    private volatile boolean eventLoopAffinity;
+
     public PoolingOptions() {}
 
     void register(Cluster.Manager manager) {
@@ -312,6 +318,37 @@ public class PoolingOptions {
         return this;
     }
 
+    /**
+     * Returns the maximum number of requests that can wait for a connection to a given host.
+     *
+     * @return the maximum queue size.
+     */
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    /**
+     * Sets the maximum number of requests that can wait for a connection to a given host.
+     * <p>
+     * When all the connections to a host are busy, requests are queued (without blocking
+     * the client thread) and sent as soon as a connection to that host becomes available
+     * again. A request waits at most {@link #getPoolTimeoutMillis()}; if the queue is full
+     * or that timeout elapses, the driver tries the next host from the query plan.
+     * <p>
+     * If this option is set to zero, requests are never queued.
+     *
+     * @param maxQueueSize the new value.
+     * @return this {@code PoolingOptions}
+     *
+     * @throws IllegalArgumentException if the value is negative.
+     */
+    public PoolingOptions setMaxQueueSize(int maxQueueSize) {
+        if (maxQueueSize < 0)
+            throw new IllegalArgumentException("Max queue size must be positive");
+        this.maxQueueSize = maxQueueSize;
+        return this;
+    }
+
     /**
      * Returns the heart beat interval, after which a message is sent on an idle connection to make sure it's still alive.
      * @return the interval.
@@ -395,6 +432,45 @@ public class PoolingOptions {
         return this;
     }
 
+    /**
+     * Returns whether each of the driver's I/O threads has its own connection to each host.
+     * <p>
+     * This option is only used with {@code ProtocolVersion#V3} or above.
+     *
+     * @return whether each of the driver's I/O threads has its own connection to each host.
+     * @see #setEventLoopAffinityEnabled(boolean)
+     */
+    public boolean isEventLoopAffinityEnabled() {
+        return eventLoopAffinity;
+    }
+
+    /**
+     * Sets whether each of the driver's I/O threads (Netty event loops, see
+     * {@link NettyOptions#eventLoopGroup}) has its own connection to each host.
+     * <p>
+     * By default, there is a single connection to each host, so requests sent
+     * from any application thread are handed over to that connection's I/O thread.
+     * When this option is enabled, a request is sent on the connection of the I/O
+     * thread that sends it (for example, a request sent from the callback of a
+     * previous request), or else on the connection of an I/O thread picked for the
+     * calling application thread. Requests sent by a given thread are then always
+     * written, and their responses handled, by the same I/O thread, which reduces
+     * contention when a client uses many cores. A request only goes to another
+     * connection if the preferred one reached its share of
+     * {@link #getMaxSimultaneousRequestsPerHostThreshold(HostDistance)}.
+     * <p>
+     * This option is only used with {@code ProtocolVersion#V3} or above, and only
+     * applies to the connection pools created after it is changed. It is disabled
+     * by default.
+     *
+     * @param eventLoopAffinity whether each I/O thread should have its own connection to each host.
+     * @return this {@code PoolingOptions}.
+     */
+    public PoolingOptions setEventLoopAffinityEnabled(boolean eventLoopAffinity) {
+        this.eventLoopAffinity = eventLoopAffinity;
+        return this;
+    }
+
     /**
      * Returns the executor to use for connection initialization.
      *
@@ -100,6 +100,7 @@ public class ProtocolOptions {
     private final AuthProvider authProvider;
 
     private volatile Compression compression = Compression.NONE;
+    private volatile boolean compactRowDecoding = false;
 
     /**
      * Creates a new {@code ProtocolOptions} instance using the {@code DEFAULT_PORT}
@@ -222,6 +223,40 @@ public class ProtocolOptions {
         return this;
     }
 
+    /**
+     * Returns whether rows are decoded in compact mode.
+     * <p>
+     * By default, compact decoding is not used.
+     *
+     * @return whether rows are decoded in compact mode.
+     *
+     * @see #setCompactRowDecoding(boolean)
+     */
+    public boolean isCompactRowDecoding() {
+        return compactRowDecoding;
+    }
+
+    /**
+     * Sets whether rows should be decoded in compact mode.
+     * <p>
+     * By default, each page of results is decoded into one buffer per cell and one
+     * list per row. In compact mode, the rows of a page are copied into a single array
+     * in one pass, and rows are exposed as lightweight views over that array (only
+     * the offsets of the cells are recorded). This greatly reduces the number of
+     * objects allocated for large pages, which can be worth it for scan-heavy
+     * workloads.
+     * <p>
+     * Note that while this setting can be changed at any time, it will
+     * only apply to newly created connections.
+     *
+     * @param compactRowDecoding whether to use compact row decoding.
+     * @return this {@code ProtocolOptions} object.
+     */
+    public ProtocolOptions setCompactRowDecoding(boolean compactRowDecoding) {
+        this.compactRowDecoding = compactRowDecoding;
+        return this;
+    }
+
     /**
      * Returns the maximum time to wait for schema agreement before returning from a DDL query.
      *
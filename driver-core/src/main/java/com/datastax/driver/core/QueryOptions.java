@@ -42,10 +42,34 @@ public class QueryOptions {
      */
     public static final boolean DEFAULT_IDEMPOTENCE = false;
 
+    /**
+     * The default value for {@link #getRefreshIntervalMillis()}: 1000.
+     */
+    public static final int DEFAULT_REFRESH_INTERVAL_MILLIS = 1000;
+
+    /**
+     * The default value for {@link #getPrefetchThreshold()}: 0 (no prefetching).
+     */
+    public static final int DEFAULT_PREFETCH_THRESHOLD = 0;
+
+    /**
+     * The default value for {@link #getMaxPrefetchedPages()}: 1.
+     */
+    public static final int DEFAULT_MAX_PREFETCHED_PAGES = 1;
+
+    /**
+     * The default value for {@link #getMaxCachedValuesPerPage()}: 0 (rows don't cache values).
+     */
+    public static final int DEFAULT_MAX_CACHED_VALUES_PER_PAGE = 0;
+
     private volatile ConsistencyLevel consistency = DEFAULT_CONSISTENCY_LEVEL;
     private volatile ConsistencyLevel serialConsistency = DEFAULT_SERIAL_CONSISTENCY_LEVEL;
     private volatile int fetchSize = DEFAULT_FETCH_SIZE;
     private volatile boolean defaultIdempotence = DEFAULT_IDEMPOTENCE;
+    private volatile int refreshIntervalMillis = DEFAULT_REFRESH_INTERVAL_MILLIS;
+    private volatile int prefetchThreshold = DEFAULT_PREFETCH_THRESHOLD;
+    private volatile int maxPrefetchedPages = DEFAULT_MAX_PREFETCHED_PAGES;
+    private volatile int maxCachedValuesPerPage = DEFAULT_MAX_CACHED_VALUES_PER_PAGE;
     private volatile Cluster.Manager manager;
 
     /**
@@ -145,6 +169,98 @@ public class QueryOptions {
         return fetchSize;
     }
 
+    /**
+     * Sets the default prefetch threshold for queries.
+     * <p>
+     * The threshold set through this method will be used for queries that don't
+     * explicitly have a prefetch threshold, i.e. when {@link Statement#getPrefetchThreshold}
+     * is strictly negative. See {@link Statement#setPrefetchThreshold} for details.
+     *
+     * @param prefetchThreshold the new threshold, in rows, to set as default. 0 disables
+     * prefetching.
+     * @return this {@code QueryOptions} instance.
+     *
+     * @throws IllegalArgumentException if {@code prefetchThreshold < 0}.
+     */
+    public QueryOptions setPrefetchThreshold(int prefetchThreshold) {
+        if (prefetchThreshold < 0)
+            throw new IllegalArgumentException("Invalid prefetchThreshold, should be >= 0, got " + prefetchThreshold);
+        this.prefetchThreshold = prefetchThreshold;
+        return this;
+    }
+
+    /**
+     * The default prefetch threshold used by queries.
+     * <p>
+     * It defaults to {@link #DEFAULT_PREFETCH_THRESHOLD}.
+     *
+     * @return the default prefetch threshold used by queries.
+     */
+    public int getPrefetchThreshold() {
+        return prefetchThreshold;
+    }
+
+    /**
+     * Sets the maximum number of pages that a result set fetches in advance.
+     * <p>
+     * Prefetching stops when that many pages are waiting to be consumed, in addition
+     * to the current page, which bounds the memory used by each result set. This does
+     * not apply to pages explicitly fetched with {@link ResultSet#fetchMoreResults()}.
+     *
+     * @param maxPrefetchedPages the new maximum number of pages fetched in advance.
+     * @return this {@code QueryOptions} instance.
+     *
+     * @throws IllegalArgumentException if {@code maxPrefetchedPages < 1}.
+     */
+    public QueryOptions setMaxPrefetchedPages(int maxPrefetchedPages) {
+        if (maxPrefetchedPages < 1)
+            throw new IllegalArgumentException("Invalid maxPrefetchedPages, should be >= 1, got " + maxPrefetchedPages);
+        this.maxPrefetchedPages = maxPrefetchedPages;
+        return this;
+    }
+
+    /**
+     * The maximum number of pages that a result set fetches in advance.
+     * <p>
+     * It defaults to {@link #DEFAULT_MAX_PREFETCHED_PAGES}.
+     *
+     * @return the maximum number of pages that a result set fetches in advance.
+     */
+    public int getMaxPrefetchedPages() {
+        return maxPrefetchedPages;
+    }
+
+    /**
+     * Sets the default maximum number of decoded values that the rows of a page of results keep.
+     * <p>
+     * The value set through this method will be used for queries that don't explicitly
+     * have one, i.e. when {@link Statement#getMaxCachedValuesPerPage} is strictly negative.
+     * See {@link Statement#setMaxCachedValuesPerPage} for details.
+     *
+     * @param maxCachedValuesPerPage the new maximum number of values to set as default. 0 disables
+     * caching.
+     * @return this {@code QueryOptions} instance.
+     *
+     * @throws IllegalArgumentException if {@code maxCachedValuesPerPage < 0}.
+     */
+    public QueryOptions setMaxCachedValuesPerPage(int maxCachedValuesPerPage) {
+        if (maxCachedValuesPerPage < 0)
+            throw new IllegalArgumentException("Invalid maxCachedValuesPerPage, should be >= 0, got " + maxCachedValuesPerPage);
+        this.maxCachedValuesPerPage = maxCachedValuesPerPage;
+        return this;
+    }
+
+    /**
+     * The default maximum number of decoded values that the rows of a page of results keep.
+     * <p>
+     * It defaults to {@link #DEFAULT_MAX_CACHED_VALUES_PER_PAGE}.
+     *
+     * @return the default maximum number of decoded values that the rows of a page of results keep.
+     */
+    public int getMaxCachedValuesPerPage() {
+        return maxCachedValuesPerPage;
+    }
+
     /**
      * Sets the default idempotence for queries.
      * <p>
@@ -169,4 +285,42 @@ public class QueryOptions {
     public boolean getDefaultIdempotence() {
         return defaultIdempotence;
     }
+
+    /**
+     * Sets the interval over which schema and node list refreshes are coalesced.
+     * <p>
+     * When Cassandra notifies the driver of schema or topology changes, the driver
+     * refreshes its metadata. The first notification starts a window of that length;
+     * all refreshes requested until the end of the window are merged and performed
+     * together when it ends (for instance, several table changes in a keyspace result
+     * in a single refresh of that keyspace). This also limits metadata refreshes to
+     * one per window.
+     * <p>
+     * This does not delay the schema refresh that the driver performs after a schema
+     * change query executed by the client.
+     * <p>
+     * If this option is set to zero, refreshes are performed immediately.
+     *
+     * @param refreshIntervalMillis the new interval in milliseconds.
+     * @return this {@code QueryOptions} instance.
+     *
+     * @throws IllegalArgumentException if the interval is negative.
+     */
+    public QueryOptions setRefreshIntervalMillis(int refreshIntervalMillis) {
+        if (refreshIntervalMillis < 0)
+            throw new IllegalArgumentException("Invalid refreshIntervalMillis, should be >= 0, got " + refreshIntervalMillis);
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        return this;
+    }
+
+    /**
+     * The interval over which schema and node list refreshes are coalesced.
+     * <p>
+     * It defaults to {@link #DEFAULT_REFRESH_INTERVAL_MILLIS}.
+     *
+     * @return the interval in milliseconds.
+     */
+    public int getRefreshIntervalMillis() {
+        return refreshIntervalMillis;
+    }
 }
@@ -23,6 +23,8 @@ import com.google.common.collect.ImmutableSet;
  * Computes the token->list<replica> association, given the token ring and token->primary token map.
  *
  * Note: it's not an interface mainly because we don't want to expose it.
+ *
+ * Strategies are compared by value: keyspaces with equal strategies share the same replicas.
  */
 abstract class ReplicationStrategy {
 
@@ -84,6 +86,20 @@ abstract class ReplicationStrategy {
             }
             return replicaMap;
         }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof SimpleStrategy))
+                return false;
+            return replicationFactor == ((SimpleStrategy)o).replicationFactor;
+        }
+
+        @Override
+        public int hashCode() {
+            return replicationFactor;
+        }
     }
 
     static class NetworkTopologyStrategy extends ReplicationStrategy {
@@ -152,6 +168,20 @@ abstract class ReplicationStrategy {
             return replicaMap;
         }
 
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof NetworkTopologyStrategy))
+                return false;
+            return replicationFactors.equals(((NetworkTopologyStrategy)o).replicationFactors);
+        }
+
+        @Override
+        public int hashCode() {
+            return replicationFactors.hashCode();
+        }
+
         private boolean allDone(Map<String, Set<Host>> map) {
             for (Map.Entry<String, Set<Host>> entry : map.entrySet())
                 if (entry.getValue().size() < replicationFactors.get(entry.getKey()))
@@ -19,6 +19,7 @@ import java.net.InetSocketAddress;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -27,6 +28,8 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import com.codahale.metrics.Timer;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
 import io.netty.util.HashedWheelTimer;
 import io.netty.util.Timeout;
 import io.netty.util.TimerTask;
@@ -34,6 +37,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.datastax.driver.core.exceptions.*;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
 import com.datastax.driver.core.policies.RetryPolicy;
 import com.datastax.driver.core.policies.RetryPolicy.RetryDecision.Type;
 import com.datastax.driver.core.policies.SpeculativeExecutionPolicy.SpeculativeExecutionPlan;
@@ -78,7 +82,8 @@ class RequestHandler {
 
         callback.register(this);
 
-        this.queryPlan = new QueryPlan(manager.loadBalancingPolicy().newQueryPlan(manager.poolsState.keyspace, statement));
+        LoadBalancingPolicy loadBalancingPolicy = manager.loadBalancingPolicy();
+        this.queryPlan = new QueryPlan(statement.adjustQueryPlan(loadBalancingPolicy.newQueryPlan(manager.poolsState.keyspace, statement), loadBalancingPolicy));
         this.speculativeExecutionPlan = manager.speculativeRetryPolicy().newPlan(manager.poolsState.keyspace, statement);
         this.allowSpeculativeExecutions = statement != Statement.DEFAULT
             && statement.isIdempotentWithDefault(manager.configuration().getQueryOptions());
@@ -288,9 +293,27 @@ class RequestHandler {
             if (allowSpeculativeExecutions && nextExecutionScheduled.compareAndSet(false, true))
                 scheduleExecution(speculativeExecutionPlan.nextExecution(host));
 
+            final ListenableFuture<Connection> connectionFuture = currentPool.borrowConnectionAsync(manager.configuration().getPoolingOptions().getPoolTimeoutMillis(), TimeUnit.MILLISECONDS);
+            if (connectionFuture.isDone())
+                return query(host, connectionFuture);
+
+            // The pool is momentarily exhausted: don't block the calling thread, resume once we get a connection
+            // (or moving on to the next host if we don't). This runs on the executor as the connection is
+            // typically handed over from an IO thread.
+            connectionFuture.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    if (!query(host, connectionFuture))
+                        sendRequest();
+                }
+            }, manager.executor());
+            return true;
+        }
+
+        private boolean query(Host host, ListenableFuture<Connection> connectionFuture) {
             Connection connection = null;
             try {
-                connection = currentPool.borrowConnection(manager.configuration().getPoolingOptions().getPoolTimeoutMillis(), TimeUnit.MILLISECONDS);
+                connection = Uninterruptibles.getUninterruptibly(connectionFuture);
                 if (current != null) {
                     if (triedHosts == null)
                         triedHosts = new CopyOnWriteArrayList<Host>();
@@ -299,12 +322,30 @@ class RequestHandler {
                 current = host;
                 write(connection, this);
                 return true;
+            } catch (ExecutionException e) {
+                // We didn't get a connection, so there is nothing to release
+                Throwable cause = e.getCause();
+                if (cause instanceof ConnectionException) {
+                    // If we have any problem with the connection, move to the next node.
+                    if (metricsEnabled())
+                        metrics().getErrorMetrics().getConnectionErrors().inc();
+                    logError(host.getSocketAddress(), cause);
+                } else if (cause instanceof TimeoutException) {
+                    // We timeout, log it but move to the next node.
+                    logError(host.getSocketAddress(), new DriverException("Timeout while trying to acquire available connection (you may want to increase the driver number of per-host connections)"));
+                } else if (cause instanceof BusyPoolException) {
+                    // Too many requests are already waiting on this host, move to the next node.
+                    logError(host.getSocketAddress(), new DriverException(cause.getMessage()));
+                } else {
+                    logger.error("Unexpected error while querying " + host.getAddress(), cause);
+                    logError(host.getSocketAddress(), cause);
+                }
+                return false;
             } catch (ConnectionException e) {
                 // If we have any problem with the connection, move to the next node.
                 if (metricsEnabled())
                     metrics().getErrorMetrics().getConnectionErrors().inc();
-                if (connection != null)
-                    connection.release();
+                connection.release();
                 logError(host.getSocketAddress(), e);
                 return false;
             } catch (BusyConnectionException e) {
@@ -312,10 +353,6 @@ class RequestHandler {
                 connection.release();
                 logError(host.getSocketAddress(), e);
                 return false;
-            } catch (TimeoutException e) {
-                // We timeout, log it but move to the next node.
-                logError(host.getSocketAddress(), new DriverException("Timeout while trying to acquire available connection (you may want to increase the driver number of per-host connections)"));
-                return false;
             } catch (RuntimeException e) {
                 if (connection != null)
                     connection.release();
@@ -200,6 +200,16 @@ class Responses {
             }
         };
 
+        // Same as decoder, but decodes ROWS results with Rows.compactSubcodec (see ProtocolOptions#setCompactRowDecoding)
+        public static final Message.Decoder<Result> compactDecoder = new Message.Decoder<Result>() {
+            public Result decode(ByteBuf body, ProtocolVersion version) {
+                Kind kind = Kind.fromId(body.readInt());
+                return kind == Kind.ROWS
+                     ? Rows.compactSubcodec.decode(body, version)
+                     : kind.subDecoder.decode(body, version);
+            }
+        };
+
         public enum Kind {
             VOID         (1, Void.subcodec),
             ROWS         (2, Rows.subcodec),
@@ -396,6 +406,16 @@ class Responses {
                 }
             };
 
+            public static final Message.Decoder<Result> compactSubcodec = new Message.Decoder<Result>() {
+                public Result decode(ByteBuf body, ProtocolVersion version) {
+
+                    Metadata metadata = Metadata.decode(body);
+
+                    int rowCount = body.readInt();
+                    return new Rows(metadata, CompactPage.decode(body, rowCount, metadata.columnCount));
+                }
+            };
+
             public final Metadata metadata;
             public final Queue<List<ByteBuffer>> data;
 
@@ -435,6 +455,124 @@ class Responses {
                 sb.append("---");
                 return sb.toString();
             }
+
+            /**
+             * A page of rows that keeps all of its cells in a single array.
+             * <p>
+             * Decoding copies the rows section of the frame in one pass and records the offset
+             * and length of each cell, instead of allocating a buffer per cell and a list per
+             * row. Rows are returned as views over that array, and each cell is only exposed
+             * as a {@code ByteBuffer} when it is accessed: a duplicate of a buffer over the whole
+             * page, which position and limit delimit the cell.
+             * <p>
+             * Note that we copy out of the frame rather than retaining it: the frame buffer
+             * is pooled, and a page can be abandoned by the client before it's exhausted, in
+             * which case it would never be released.
+             */
+            static class CompactPage extends AbstractQueue<List<ByteBuffer>> {
+
+                // Never read or modified directly, only duplicated
+                private final ByteBuffer page;
+                // For each cell, its offset in bytes followed by its length (negative for null)
+                private final int[] cells;
+                private final int columnCount;
+                private final int rowCount;
+                private int next;
+
+                private CompactPage(byte[] bytes, int[] cells, int columnCount, int rowCount) {
+                    this.page = ByteBuffer.wrap(bytes);
+                    this.cells = cells;
+                    this.columnCount = columnCount;
+                    this.rowCount = rowCount;
+                }
+
+                static CompactPage decode(ByteBuf body, int rowCount, int columnCount) {
+                    int start = body.readerIndex();
+                    int[] cells = new int[2 * rowCount * columnCount];
+                    for (int i = 0; i < cells.length; i += 2) {
+                        int length = body.readInt();
+                        cells[i] = body.readerIndex() - start;
+                        cells[i + 1] = length;
+                        if (length > 0)
+                            body.skipBytes(length);
+                    }
+                    byte[] bytes = new byte[body.readerIndex() - start];
+                    body.getBytes(start, bytes);
+                    return new CompactPage(bytes, cells, columnCount, rowCount);
+                }
+
+                @Override
+                public boolean offer(List<ByteBuffer> row) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public List<ByteBuffer> poll() {
+                    return next < rowCount ? new RowView(next++) : null;
+                }
+
+                @Override
+                public List<ByteBuffer> peek() {
+                    return next < rowCount ? new RowView(next) : null;
+                }
+
+                @Override
+                public int size() {
+                    return rowCount - next;
+                }
+
+                @Override
+                public Iterator<List<ByteBuffer>> iterator() {
+                    return new Iterator<List<ByteBuffer>>() {
+                        private int current = next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return current < rowCount;
+                        }
+
+                        @Override
+                        public List<ByteBuffer> next() {
+                            if (current >= rowCount)
+                                throw new NoSuchElementException();
+                            return new RowView(current++);
+                        }
+
+                        @Override
+                        public void remove() {
+                            throw new UnsupportedOperationException();
+                        }
+                    };
+                }
+
+                private class RowView extends AbstractList<ByteBuffer> {
+                    private final int firstCell;
+
+                    private RowView(int index) {
+                        this.firstCell = 2 * index * columnCount;
+                    }
+
+                    @Override
+                    public ByteBuffer get(int i) {
+                        if (i < 0 || i >= columnCount)
+                            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + columnCount);
+                        int cell = firstCell + 2 * i;
+                        int length = cells[cell + 1];
+                        if (length < 0)
+                            return null;
+                        int offset = cells[cell];
+                        ByteBuffer value = page.duplicate();
+                        value.limit(offset + length);
+                        value.position(offset);
+                        return value;
+                    }
+
+                    @Override
+                    public int size() {
+                        return columnCount;
+                    }
+                }
+            }
         }
 
         public static class Prepared extends Result {
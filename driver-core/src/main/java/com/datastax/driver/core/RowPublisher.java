@@ -0,0 +1,211 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Publishes the rows of a query as a <a href="http://www.reactive-streams.org">Reactive Streams</a>
+ * {@code Publisher}, fetching pages as the subscriber's demand requires.
+ * <p>
+ * Each subscription executes the query anew. The query is only sent when the subscriber first
+ * requests rows, and the next page is only requested once all the rows of the current page have
+ * been emitted and there is outstanding demand. The memory used is thus bounded by the fetch
+ * size of the query (unless prefetching is enabled, see {@link Statement#setPrefetchThreshold}),
+ * and no thread is ever blocked waiting for a page.
+ * <p>
+ * Rows are emitted by the thread that requests them or, when a page is received, by one of
+ * the driver's worker threads (never by its I/O threads). Subscribers should still not block
+ * for long when receiving rows, since they would hold a thread shared with other tasks.
+ * <p>
+ * This class requires the optional {@code org.reactivestreams:reactive-streams} dependency
+ * to be present on the classpath; the rest of the driver does not depend on it.
+ */
+public final class RowPublisher implements Publisher<Row> {
+
+    private final Session session;
+    private final Statement statement;
+    // Runs the callbacks of the requests, and thus emits rows: this must not be an I/O thread
+    private final Executor executor;
+
+    RowPublisher(Session session, Statement statement, Executor executor) {
+        this.session = session;
+        this.statement = statement;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns a publisher of the rows of the provided query.
+     *
+     * @param session the session to execute the query with.
+     * @param statement the CQL query to execute.
+     * @return a publisher of the rows of the query.
+     */
+    public static Publisher<Row> of(Session session, Statement statement) {
+        return new RowPublisher(session, statement, session.getCluster().manager.executor);
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super Row> subscriber) {
+        if (subscriber == null)
+            throw new NullPointerException();
+        RowSubscription subscription = new RowSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    private class RowSubscription implements Subscription {
+
+        private final Subscriber<? super Row> subscriber;
+
+        private final AtomicLong requested = new AtomicLong();
+        // Serializes the emission of signals: only the thread that increments it from 0 drains
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private volatile boolean cancelled;
+        private volatile ResultSet rs;
+        private volatile Throwable error;
+        private volatile boolean fetching;
+
+        // Only accessed while draining
+        private boolean started;
+
+        RowSubscription(Subscriber<? super Row> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Invalid request of " + n + " rows, should be > 0 (rule 3.9)");
+            } else {
+                while (true) {
+                    long current = requested.get();
+                    long updated = current + n;
+                    // Unbounded demand
+                    if (updated < 0)
+                        updated = Long.MAX_VALUE;
+                    if (requested.compareAndSet(current, updated))
+                        break;
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0)
+                return;
+
+            int missed = 1;
+            while (true) {
+                if (cancelled)
+                    return;
+                if (error != null) {
+                    cancelled = true;
+                    subscriber.onError(error);
+                    return;
+                }
+
+                if (!started) {
+                    if (requested.get() > 0) {
+                        started = true;
+                        execute();
+                        if (error != null)
+                            continue;
+                    }
+                } else if (rs != null && !fetching) {
+                    ResultSet rs = this.rs;
+                    long demand = requested.get();
+                    long emitted = 0;
+                    while (emitted != demand && rs.getAvailableWithoutFetching() > 0) {
+                        if (cancelled)
+                            return;
+                        subscriber.onNext(rs.one());
+                        emitted++;
+                    }
+                    if (emitted > 0 && demand != Long.MAX_VALUE)
+                        demand = requested.addAndGet(-emitted);
+
+                    if (rs.getAvailableWithoutFetching() == 0) {
+                        if (rs.isFullyFetched()) {
+                            cancelled = true;
+                            subscriber.onComplete();
+                            return;
+                        }
+                        if (demand > 0)
+                            fetchMore(rs);
+                    }
+                }
+
+                missed = wip.addAndGet(-missed);
+                if (missed == 0)
+                    return;
+            }
+        }
+
+        private void execute() {
+            ResultSetFuture future;
+            try {
+                future = session.executeAsync(statement);
+            } catch (RuntimeException e) {
+                error = e;
+                return;
+            }
+            Futures.addCallback(future, new FutureCallback<ResultSet>() {
+                @Override
+                public void onSuccess(ResultSet result) {
+                    rs = result;
+                    drain();
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    error = t;
+                    drain();
+                }
+            }, executor);
+        }
+
+        private void fetchMore(ResultSet rs) {
+            fetching = true;
+            Futures.addCallback(rs.fetchMoreResults(), new FutureCallback<Void>() {
+                @Override
+                public void onSuccess(Void result) {
+                    fetching = false;
+                    drain();
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    error = t;
+                    drain();
+                }
+            }, executor);
+        }
+    }
+}
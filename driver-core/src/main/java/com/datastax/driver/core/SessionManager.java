@@ -369,7 +369,7 @@ class SessionManager extends AbstractSession {
                     if (dist == HostDistance.IGNORED) {
                         toRemove.add(h);
                     } else {
-                        pool.hostDistance = dist;
+                        pool.setHostDistance(dist);
                         pool.ensureCoreConnections();
                     }
                 }
@@ -411,7 +411,7 @@ class SessionManager extends AbstractSession {
                 if (dist == HostDistance.IGNORED) {
                     removePool(h).get();
                 } else {
-                    pool.hostDistance = dist;
+                    pool.setHostDistance(dist);
                     pool.ensureCoreConnections();
                 }
             }
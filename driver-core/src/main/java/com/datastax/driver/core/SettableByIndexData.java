@@ -249,6 +249,51 @@ public interface SettableByIndexData<T extends SettableByIndexData<T>> {
      */
     public <E> T setSet(int i, Set<E> v);
 
+    /**
+     * Sets the {@code i}th value, a list or set of ints, to the elements of the provided array.
+     * <p>
+     * Unlike {@link #setList(int, List)} and {@link #setSet(int, Set)}, this encodes the elements
+     * straight from the array, without boxing them.
+     *
+     * @param i the index of the value to set.
+     * @param v the value to set.
+     * @return this object.
+     *
+     * @throws IndexOutOfBoundsException if {@code i} is not a valid index for this object.
+     * @throws InvalidTypeException if value {@code i} is not a list or set of type INT.
+     */
+    public T setIntArray(int i, int[] v);
+
+    /**
+     * Sets the {@code i}th value, a list or set of longs, to the elements of the provided array.
+     * <p>
+     * Unlike {@link #setList(int, List)} and {@link #setSet(int, Set)}, this encodes the elements
+     * straight from the array, without boxing them.
+     *
+     * @param i the index of the value to set.
+     * @param v the value to set.
+     * @return this object.
+     *
+     * @throws IndexOutOfBoundsException if {@code i} is not a valid index for this object.
+     * @throws InvalidTypeException if value {@code i} is not a list or set of type BIGINT or COUNTER.
+     */
+    public T setLongArray(int i, long[] v);
+
+    /**
+     * Sets the {@code i}th value, a list or set of doubles, to the elements of the provided array.
+     * <p>
+     * Unlike {@link #setList(int, List)} and {@link #setSet(int, Set)}, this encodes the elements
+     * straight from the array, without boxing them.
+     *
+     * @param i the index of the value to set.
+     * @param v the value to set.
+     * @return this object.
+     *
+     * @throws IndexOutOfBoundsException if {@code i} is not a valid index for this object.
+     * @throws InvalidTypeException if value {@code i} is not a list or set of type DOUBLE.
+     */
+    public T setDoubleArray(int i, double[] v);
+
     /**
      * Sets the {@code i}th value to the provided UDT value.
      *
@@ -288,6 +288,54 @@ public interface SettableByNameData<T extends SettableData<T>> {
      */
     public <E> T setSet(String name, Set<E> v);
 
+    /**
+     * Sets the value for (all occurrences of) variable {@code name}, a list or set of ints, to the elements of the provided array.
+     * <p>
+     * Unlike {@link #setList(String, List)} and {@link #setSet(String, Set)}, this encodes the elements
+     * straight from the array, without boxing them.
+     *
+     * @param name the name of the value to set; if {@code name} is present multiple
+     * times, all its values are set.
+     * @param v the value to set.
+     * @return this object.
+     *
+     * @throws IllegalArgumentException if {@code name} is not a valid name for this object.
+     * @throws InvalidTypeException if (any occurrence of) {@code name} is not a list or set of type INT.
+     */
+    public T setIntArray(String name, int[] v);
+
+    /**
+     * Sets the value for (all occurrences of) variable {@code name}, a list or set of longs, to the elements of the provided array.
+     * <p>
+     * Unlike {@link #setList(String, List)} and {@link #setSet(String, Set)}, this encodes the elements
+     * straight from the array, without boxing them.
+     *
+     * @param name the name of the value to set; if {@code name} is present multiple
+     * times, all its values are set.
+     * @param v the value to set.
+     * @return this object.
+     *
+     * @throws IllegalArgumentException if {@code name} is not a valid name for this object.
+     * @throws InvalidTypeException if (any occurrence of) {@code name} is not a list or set of type BIGINT or COUNTER.
+     */
+    public T setLongArray(String name, long[] v);
+
+    /**
+     * Sets the value for (all occurrences of) variable {@code name}, a list or set of doubles, to the elements of the provided array.
+     * <p>
+     * Unlike {@link #setList(String, List)} and {@link #setSet(String, Set)}, this encodes the elements
+     * straight from the array, without boxing them.
+     *
+     * @param name the name of the value to set; if {@code name} is present multiple
+     * times, all its values are set.
+     * @param v the value to set.
+     * @return this object.
+     *
+     * @throws IllegalArgumentException if {@code name} is not a valid name for this object.
+     * @throws InvalidTypeException if (any occurrence of) {@code name} is not a list or set of type DOUBLE.
+     */
+    public T setDoubleArray(String name, double[] v);
+
     /**
      * Sets the value for (all occurrences of) variable {@code name} to the
      * provided UDT value.
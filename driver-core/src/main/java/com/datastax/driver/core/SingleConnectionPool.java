@@ -30,6 +30,7 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import com.google.common.util.concurrent.*;
+import io.netty.channel.EventLoop;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -66,8 +67,16 @@ class SingleConnectionPool extends HostConnectionPool {
 
     private final AtomicBoolean scheduledForCreation = new AtomicBoolean();
 
+    // The number of pools that share the host's request threshold (see EventLoopAffinityPool)
+    private final int poolsPerHost;
+
     public SingleConnectionPool(Host host, HostDistance hostDistance, SessionManager manager) {
-        super(host, hostDistance, manager);
+        this(host, hostDistance, manager, null, 1);
+    }
+
+    SingleConnectionPool(Host host, HostDistance hostDistance, SessionManager manager, EventLoop eventLoop, int poolsPerHost) {
+        super(host, hostDistance, manager, eventLoop);
+        this.poolsPerHost = poolsPerHost;
 
         this.newConnectionTask = new Runnable() {
             @Override
@@ -123,6 +132,11 @@ class SingleConnectionPool extends HostConnectionPool {
         return manager.configuration().getPoolingOptions();
     }
 
+    private int maxRequests(Connection connection) {
+        int maxRequests = Math.max(1, options().getMaxSimultaneousRequestsPerHostThreshold(hostDistance) / poolsPerHost);
+        return Math.min(connection.maxAvailableStreams(), maxRequests);
+    }
+
     @Override
     public Connection borrowConnection(long timeout, TimeUnit unit) throws ConnectionException, TimeoutException {
         Phase phase = this.phase.get();
@@ -140,8 +154,7 @@ class SingleConnectionPool extends HostConnectionPool {
             while (true) {
                 int inFlight = connection.inFlight.get();
 
-                if (inFlight >= Math.min(connection.maxAvailableStreams(),
-                                         options().getMaxSimultaneousRequestsPerHostThreshold(hostDistance))) {
+                if (inFlight >= maxRequests(connection)) {
                     connection = waitForConnection(timeout, unit);
                     break;
                 }
@@ -154,6 +167,29 @@ class SingleConnectionPool extends HostConnectionPool {
         return connection;
     }
 
+    @Override
+    Connection tryBorrowConnection() {
+        if (isClosed())
+            return null;
+
+        Connection connection = connectionRef.get();
+        if (connection == null) {
+            if (scheduledForCreation.compareAndSet(false, true))
+                manager.blockingExecutor().submit(newConnectionTask);
+            return null;
+        }
+
+        while (true) {
+            int inFlight = connection.inFlight.get();
+
+            if (inFlight >= maxRequests(connection))
+                return null;
+
+            if (connection.inFlight.compareAndSet(inFlight, inFlight + 1))
+                return connection;
+        }
+    }
+
     private void awaitAvailableConnection(long timeout, TimeUnit unit) throws InterruptedException {
         waitLock.lock();
         waiter++;
@@ -166,6 +202,8 @@ class SingleConnectionPool extends HostConnectionPool {
     }
 
     private void signalAvailableConnection() {
+        servePendingBorrows();
+
         // Quick check if it's worth signaling to avoid locking
         if (waiter == 0)
             return;
@@ -216,8 +254,7 @@ class SingleConnectionPool extends HostConnectionPool {
                 while (true) {
                     int inFlight = connection.inFlight.get();
 
-                    if (inFlight >= Math.min(connection.maxAvailableStreams(),
-                                             options().getMaxSimultaneousRequestsPerHostThreshold(hostDistance)))
+                    if (inFlight >= maxRequests(connection))
                         break;
 
                     if (connection.inFlight.compareAndSet(inFlight, inFlight + 1))
@@ -40,6 +40,43 @@ public class SocketOptions {
      */
     public static final int DEFAULT_READ_TIMEOUT_MILLIS = 12000;
 
+    /**
+     * The strategies available to coalesce the frames written to a connection
+     * before flushing them to the network.
+     * <p>
+     * Frames are written by client threads, but the actual writes happen on
+     * the connection's event loop. Flushing a batch of frames at once saves
+     * system calls and network packets, at the cost of a small delay for the
+     * first frames of the batch.
+     */
+    public enum WriteCoalescing {
+        /**
+         * Flush each frame as soon as it is written. This never delays a frame,
+         * but issues one system call per request.
+         */
+        NONE,
+        /**
+         * Flush the frames that have accumulated while the event loop was busy,
+         * but never wait for more. This is suited for low-throughput, latency
+         * sensitive applications.
+         */
+        LATENCY,
+        /**
+         * Wait for a few iterations of the event loop before flushing, as long as
+         * frames keep coming. The number of iterations adapts to the observed write
+         * rate: when few frames are written, they are flushed right away, and when
+         * many frames are written, batches can grow up to a maximum size. This is
+         * suited for high-throughput applications.
+         */
+        THROUGHPUT
+    }
+
+    /**
+     * The default write coalescing strategy if none is set explicitly
+     * using {@link #setWriteCoalescing}: {@link WriteCoalescing#THROUGHPUT}.
+     */
+    public static final WriteCoalescing DEFAULT_WRITE_COALESCING = WriteCoalescing.THROUGHPUT;
+
     private volatile int connectTimeoutMillis = DEFAULT_CONNECT_TIMEOUT_MILLIS;
     private volatile int readTimeoutMillis = DEFAULT_READ_TIMEOUT_MILLIS;
     private volatile Boolean keepAlive;
@@ -48,6 +85,7 @@ public class SocketOptions {
     private volatile Boolean tcpNoDelay = Boolean.TRUE;
     private volatile Integer receiveBufferSize;
     private volatile Integer sendBufferSize;
+    private volatile WriteCoalescing writeCoalescing = DEFAULT_WRITE_COALESCING;
 
     /**
      * Creates a new {@code SocketOptions} instance with default values.
@@ -289,4 +327,31 @@ public class SocketOptions {
         this.sendBufferSize = sendBufferSize;
         return this;
     }
+
+    /**
+     * Returns the strategy used to coalesce frames before flushing them to the network.
+     *
+     * @return the write coalescing strategy.
+     *
+     * @see #setWriteCoalescing(WriteCoalescing)
+     */
+    public WriteCoalescing getWriteCoalescing() {
+        return writeCoalescing;
+    }
+
+    /**
+     * Sets the strategy used to coalesce frames before flushing them to the network.
+     * <p>
+     * By default, this option is set to {@link #DEFAULT_WRITE_COALESCING}. Its effect
+     * can be observed with {@link Metrics#getFramesPerFlush()} and {@link Metrics#getFlushDelay()}.
+     *
+     * @param writeCoalescing the strategy to use.
+     * @return this {@code SocketOptions}.
+     */
+    public SocketOptions setWriteCoalescing(WriteCoalescing writeCoalescing) {
+        if (writeCoalescing == null)
+            throw new NullPointerException("writeCoalescing cannot be null");
+        this.writeCoalescing = writeCoalescing;
+        return this;
+    }
 }
@@ -16,8 +16,10 @@
 package com.datastax.driver.core;
 
 import java.nio.ByteBuffer;
+import java.util.Iterator;
 
 import com.datastax.driver.core.exceptions.PagingStateException;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
 import com.datastax.driver.core.policies.RetryPolicy;
 import com.datastax.driver.core.querybuilder.BuiltStatement;
 
@@ -48,6 +50,8 @@ public abstract class Statement {
     private volatile ConsistencyLevel serialConsistency;
     private volatile boolean traceQuery;
     private volatile int fetchSize;
+    private volatile int prefetchThreshold = -1;
+    private volatile int maxCachedValuesPerPage = -1;
     private volatile long defaultTimestamp = Long.MIN_VALUE;
     private volatile RetryPolicy retryPolicy;
     private volatile ByteBuffer pagingState;
@@ -262,6 +266,72 @@ public abstract class Statement {
         return fetchSize;
     }
 
+    /**
+     * Sets the prefetch threshold for this query.
+     * <p>
+     * When iterating over a paged result set, the next page is fetched in the
+     * background as soon as the number of rows that can be consumed without fetching
+     * (see {@link ResultSet#getAvailableWithoutFetching()}) falls to this threshold,
+     * so that the iteration doesn't have to wait for the next page when it reaches
+     * the end of the current one. The number of pages fetched in advance is bounded by
+     * {@link QueryOptions#getMaxPrefetchedPages()}.
+     * <p>
+     * A good threshold is the number of rows the client consumes during a round-trip
+     * to Cassandra. Only {@code SELECT} queries make use of that setting.
+     *
+     * @param prefetchThreshold the prefetch threshold to use. If it is strictly negative,
+     * the default threshold ({@link QueryOptions#getPrefetchThreshold()}) will be used;
+     * 0 disables prefetching for this query.
+     * @return this {@code Statement} object.
+     */
+    public Statement setPrefetchThreshold(int prefetchThreshold) {
+        this.prefetchThreshold = prefetchThreshold;
+        return this;
+    }
+
+    /**
+     * The prefetch threshold for this query.
+     *
+     * @return the prefetch threshold for this query. If that value is strictly negative
+     * (the default unless {@link #setPrefetchThreshold} is used), the default threshold
+     * will be used.
+     */
+    public int getPrefetchThreshold() {
+        return prefetchThreshold;
+    }
+
+    /**
+     * Sets the maximum number of decoded values that the rows of each page of results of this query keep.
+     * <p>
+     * By default, the getters of a {@link Row} decode the value of the column every time they are
+     * called. With this setting, rows keep the values they decode that are not primitive types
+     * (strings, UUIDs, big numbers, collections, UDT and tuple values...), so that reading the same
+     * columns again returns them without decoding them again. Values are decoded lazily, on the first
+     * read, and the rows of a page stop keeping them when that page has kept this many values.
+     * <p>
+     * Note that the values are then shared between the reads: they must not be modified, and the rows
+     * must not be read by several threads at the same time.
+     *
+     * @param maxCachedValuesPerPage the maximum number of values to keep for each page of results.
+     * If it is strictly negative, the default ({@link QueryOptions#getMaxCachedValuesPerPage()}) will
+     * be used; 0 disables caching for this query.
+     * @return this {@code Statement} object.
+     */
+    public Statement setMaxCachedValuesPerPage(int maxCachedValuesPerPage) {
+        this.maxCachedValuesPerPage = maxCachedValuesPerPage;
+        return this;
+    }
+
+    /**
+     * The maximum number of decoded values that the rows of each page of results of this query keep.
+     *
+     * @return the maximum number of values kept for each page of results. If that value is strictly
+     * negative (the default unless {@link #setMaxCachedValuesPerPage} is used), the default will be used.
+     */
+    public int getMaxCachedValuesPerPage() {
+        return maxCachedValuesPerPage;
+    }
+
     /**
      * Sets the default timestamp for this query (in microseconds since the epoch).
      * <p>
@@ -445,4 +515,9 @@ public abstract class Statement {
         else
             return queryOptions.getDefaultIdempotence();
     }
-}
\ No newline at end of file
+
+    // Lets the driver's internal statements reorder the query plan of the load balancing policy
+    Iterator<Host> adjustQueryPlan(Iterator<Host> queryPlan, LoadBalancingPolicy policy) {
+        return queryPlan;
+    }
+}
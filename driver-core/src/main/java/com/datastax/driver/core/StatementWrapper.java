@@ -149,4 +149,24 @@ public abstract class StatementWrapper extends Statement {
     public Statement setFetchSize(int fetchSize) {
         return wrapped.setFetchSize(fetchSize);
     }
+
+    @Override
+    public int getPrefetchThreshold() {
+        return wrapped.getPrefetchThreshold();
+    }
+
+    @Override
+    public Statement setPrefetchThreshold(int prefetchThreshold) {
+        return wrapped.setPrefetchThreshold(prefetchThreshold);
+    }
+
+    @Override
+    public int getMaxCachedValuesPerPage() {
+        return wrapped.getMaxCachedValuesPerPage();
+    }
+
+    @Override
+    public Statement setMaxCachedValuesPerPage(int maxCachedValuesPerPage) {
+        return wrapped.setMaxCachedValuesPerPage(maxCachedValuesPerPage);
+    }
 }
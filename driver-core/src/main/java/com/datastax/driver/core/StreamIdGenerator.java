@@ -113,6 +113,11 @@ class StreamIdGenerator {
         return maxIds - marked.get();
     }
 
+    // The ids returned by next() are all in [0, maxIds)
+    int maxIds() {
+        return maxIds;
+    }
+
     // Returns >= 0 if found and set an id, -1 if no bits are available.
     private int atomicGetAndSetFirstAvailable(int idx) {
         while (true) {
@@ -0,0 +1,138 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A timestamp generator based on {@code System.currentTimeMillis()}, which splits the sub-millisecond part
+ * between a few stripes to avoid contention between client threads.
+ * <p>
+ * Each client thread uses one of the stripes, and each stripe generates its own share of the microseconds of
+ * every millisecond (stripe {@code i} of {@code n} generates the microseconds equal to {@code i} modulo
+ * {@code n}). Timestamps are therefore distinct among all client threads, and increment for a given thread.
+ * Among all threads, they increment provided that they are generated in different milliseconds: stripes
+ * never go back to a millisecond that another stripe has moved past, so a timestamp can be at most one
+ * millisecond lower than a timestamp that was generated before it by another thread.
+ * <p>
+ * If a stripe runs out of microseconds in a millisecond, it moves on to the next millisecond before the clock
+ * does, and if the clock goes backwards (on an NTP resync for example), the generator keeps incrementing from
+ * the last timestamps. The number of timestamps generated ahead of the clock, and the number of times the
+ * clock went backwards, are exposed by {@link #getDriftedTimestamps()} and {@link #getClockRegressions()}, and
+ * by the driver's {@link Metrics}.
+ */
+public class StripedMonotonicTimestampGenerator extends AbstractMonotonicTimestampGenerator {
+
+    // Layout of a stripe; each stripe fills a 64-byte cache line to avoid false sharing
+    private static final int LAST = 0;
+    private static final int LAST_CLOCK = 1;
+    private static final int DRIFTS = 2;
+    private static final int REGRESSIONS = 3;
+    private static final int STRIPE_SIZE = 8;
+
+    private final int stripeCount;
+    private final AtomicLongArray stripes;
+    // The highest millisecond reached by any stripe. Written at most once per millisecond and per stripe.
+    private final AtomicLong highestMillis = new AtomicLong();
+
+    /**
+     * Creates a new instance with a number of stripes based on the number of processors.
+     */
+    public StripedMonotonicTimestampGenerator() {
+        this(Math.min(16, Integer.highestOneBit(Runtime.getRuntime().availableProcessors())));
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param stripeCount the number of stripes, a power of two. A millisecond has {@code 1000 / stripeCount}
+     * distinct timestamps for each stripe.
+     *
+     * @throws IllegalArgumentException if {@code stripeCount} is not a power of two between 1 and 512.
+     */
+    public StripedMonotonicTimestampGenerator(int stripeCount) {
+        if (stripeCount < 1 || stripeCount > 512 || Integer.bitCount(stripeCount) != 1)
+            throw new IllegalArgumentException("Invalid stripeCount, should be a power of two between 1 and 512, got " + stripeCount);
+        this.stripeCount = stripeCount;
+        this.stripes = new AtomicLongArray(stripeCount * STRIPE_SIZE);
+    }
+
+    @Override
+    public long next() {
+        int stripe = (int)Thread.currentThread().getId() & (stripeCount - 1);
+        int base = stripe * STRIPE_SIZE;
+        while (true) {
+            long last = stripes.get(base + LAST);
+            long lastMillis = last / 1000;
+            long now = clock.currentTime();
+            long highest = highestMillis.get();
+
+            long next;
+            long millis = Math.max(now, highest);
+            if (millis > lastMillis) {
+                next = millis * 1000 + stripe;
+            } else {
+                next = last + stripeCount;
+                // Out of microseconds for this stripe, go on with the next millisecond
+                if (next / 1000 != lastMillis)
+                    next = (lastMillis + 1) * 1000 + stripe;
+            }
+
+            // Only another thread with the same stripe can beat us, in which case we try again
+            if (stripes.compareAndSet(base + LAST, last, next)) {
+                long nextMillis = next / 1000;
+                if (nextMillis > now)
+                    stripes.incrementAndGet(base + DRIFTS);
+                if (now < stripes.get(base + LAST_CLOCK))
+                    stripes.incrementAndGet(base + REGRESSIONS);
+                stripes.set(base + LAST_CLOCK, now);
+
+                while (nextMillis > highest && !highestMillis.compareAndSet(highest, nextMillis))
+                    highest = highestMillis.get();
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of timestamps that were generated ahead of the clock.
+     * <p>
+     * This happens when more timestamps are requested in a millisecond than a stripe can generate, after the
+     * clock went backwards, or when a stripe catches up with another one that is ahead of the clock.
+     *
+     * @return the number of timestamps that were generated ahead of the clock.
+     */
+    public long getDriftedTimestamps() {
+        return sum(DRIFTS);
+    }
+
+    /**
+     * Returns the number of times that the clock was observed to go backwards.
+     *
+     * @return the number of times that the clock was observed to go backwards.
+     */
+    public long getClockRegressions() {
+        return sum(REGRESSIONS);
+    }
+
+    private long sum(int offset) {
+        long sum = 0;
+        for (int i = 0; i < stripeCount; i++)
+            sum += stripes.get(i * STRIPE_SIZE + offset);
+        return sum;
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import com.datastax.driver.core.exceptions.DriverException;
+import com.datastax.driver.core.exceptions.DriverInternalError;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
+
+/**
+ * A scan of all the rows of a table, performed by querying sub-ranges of the ring in parallel.
+ * <p>
+ * Scans are started with {@link #of(Session, String, String, TableScanOptions)}.
+ * <p>
+ * A scan splits the ring in sub-ranges, and queries each of them with a
+ * {@code token(partition key) > ? AND token(partition key) <= ?} query, paged as any other
+ * query. A sub-range query is sent in priority to a replica of the sub-range, and at most
+ * {@link TableScanOptions#getMaxConcurrentRanges()} sub-ranges are queried at the same time.
+ * <p>
+ * The rows are returned as soon as they are received, so the rows of different sub-ranges
+ * are interleaved, and are not sorted by token. At most one page of rows is held for each
+ * sub-range being queried: the next page of a sub-range is only requested once all the rows
+ * of its current page have been consumed.
+ * <p>
+ * The progress of a scan can be followed with {@link #getCompletedRanges()} and
+ * {@link #getRemainingRanges()}. If a scan is interrupted (because a query failed or because
+ * it was {@link #close() closed}), it can be resumed with a new scan restricted to its
+ * remaining ranges (see {@link TableScanOptions#setRanges}); rows of the sub-ranges that were
+ * being queried when the scan was interrupted will be returned again.
+ * <p>
+ * Note that this class is not thread-safe, except for its progress and {@code close} methods.
+ */
+public class TableScan implements Iterable<Row> {
+
+    private final Session session;
+    private final int maxConcurrentRanges;
+
+    // Progress, guarded by this
+    private final Queue<RangeQuery> pending = new LinkedList<RangeQuery>();
+    private final Set<RangeQuery> running = new LinkedHashSet<RangeQuery>();
+    private final List<TokenRange> completed = new ArrayList<TokenRange>();
+    private final int totalRanges;
+
+    // Sub-ranges that have rows available, or failed
+    private final BlockingQueue<RangeQuery> ready = new LinkedBlockingQueue<RangeQuery>();
+    private RangeQuery current;
+    private RuntimeException failure;
+    private volatile boolean closed;
+
+    TableScan(Session session, Metadata metadata, TableMetadata table, TableScanOptions options) {
+        this.session = session;
+        this.maxConcurrentRanges = options.getMaxConcurrentRanges();
+
+        String keyspace = Metadata.quote(table.getKeyspace().getName());
+        List<String> partitionKey = new ArrayList<String>();
+        for (ColumnMetadata column : table.getPartitionKey())
+            partitionKey.add(Metadata.quote(column.getName()));
+        String token = "token(" + Joiner.on(", ").join(partitionKey) + ")";
+        List<String> columns = options.getColumns();
+        String select = "SELECT " + (columns == null ? "*" : Joiner.on(", ").join(columns))
+                        + " FROM " + keyspace + '.' + Metadata.quote(table.getName())
+                        + " WHERE " + token + " > ?";
+
+        List<TokenRange> ranges = options.getRanges();
+        if (ranges == null) {
+            ranges = new ArrayList<TokenRange>();
+            for (TokenRange range : metadata.getTokenRanges())
+                ranges.addAll(options.getSplitsPerRange() == 1 ? Collections.singletonList(range) : range.splitEvenly(options.getSplitsPerRange()));
+        }
+        for (TokenRange range : ranges) {
+            if (range.isEmpty())
+                continue;
+            Set<Host> replicas = metadata.getReplicas(keyspace, range);
+            for (TokenRange subRange : range.unwrap()) {
+                // A range that ends with the minimum token goes up to the end of the ring
+                SimpleStatement statement = subRange.getEnd().equals(subRange.factory.minToken())
+                    ? new SimpleStatement(select, subRange.getStart().getValue())
+                    : new SimpleStatement(select + " AND " + token + " <= ?", subRange.getStart().getValue(), subRange.getEnd().getValue());
+                statement.setKeyspace(table.getKeyspace().getName());
+                if (options.getFetchSize() > 0)
+                    statement.setFetchSize(options.getFetchSize());
+                if (options.getConsistencyLevel() != null)
+                    statement.setConsistencyLevel(options.getConsistencyLevel());
+                pending.add(new RangeQuery(subRange, new RangeStatement(statement, replicas)));
+            }
+        }
+        this.totalRanges = pending.size();
+    }
+
+    /**
+     * Scans all the rows of a table, querying sub-ranges of the ring in parallel.
+     * <p>
+     * This is equivalent to {@code of(session, keyspace, table, new TableScanOptions())}.
+     *
+     * @param session the session to query the table with.
+     * @param keyspace the name of the keyspace of the table (case insensitive unless
+     * double-quoted, as for {@link Metadata#getKeyspace}).
+     * @param table the name of the table (case insensitive unless double-quoted).
+     * @return the scan, which starts querying the table right away.
+     *
+     * @see #of(Session, String, String, TableScanOptions)
+     */
+    public static TableScan of(Session session, String keyspace, String table) {
+        return of(session, keyspace, table, new TableScanOptions());
+    }
+
+    /**
+     * Scans all the rows of a table, querying sub-ranges of the ring in parallel.
+     * <p>
+     * The token ranges of the ring (see {@link Metadata#getTokenRanges()}) are split
+     * according to {@code options}, and each sub-range is queried with a range query
+     * on the token of the partition key, sent in priority to a replica of the sub-range.
+     * <p>
+     * This requires paging, and thus version 2 or higher of the native protocol.
+     *
+     * @param session the session to query the table with.
+     * @param keyspace the name of the keyspace of the table (case insensitive unless
+     * double-quoted, as for {@link Metadata#getKeyspace}).
+     * @param table the name of the table (case insensitive unless double-quoted).
+     * @param options the options of the scan.
+     * @return the scan, which starts querying the table right away.
+     *
+     * @throws IllegalArgumentException if the keyspace or the table are not known
+     * by the driver's metadata.
+     */
+    public static TableScan of(Session session, String keyspace, String table, TableScanOptions options) {
+        Metadata metadata = session.getCluster().getMetadata();
+        KeyspaceMetadata keyspaceMetadata = metadata.getKeyspace(keyspace);
+        if (keyspaceMetadata == null)
+            throw new IllegalArgumentException("Unknown keyspace " + keyspace);
+        TableMetadata tableMetadata = keyspaceMetadata.getTable(table);
+        if (tableMetadata == null)
+            throw new IllegalArgumentException(String.format("Unknown table %s in keyspace %s", table, keyspace));
+        return new TableScan(session, metadata, tableMetadata, options).start();
+    }
+
+    TableScan start() {
+        for (int i = 0; i < maxConcurrentRanges; i++)
+            startNext();
+        return this;
+    }
+
+    private void startNext() {
+        final RangeQuery query;
+        synchronized (this) {
+            if (closed || pending.isEmpty())
+                return;
+            query = pending.poll();
+            running.add(query);
+        }
+        ResultSetFuture future;
+        try {
+            future = session.executeAsync(query.statement);
+        } catch (RuntimeException e) {
+            query.failed(e);
+            return;
+        }
+        Futures.addCallback(future, new FutureCallback<ResultSet>() {
+            @Override
+            public void onSuccess(ResultSet rs) {
+                query.rs = rs;
+                ready.add(query);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                query.failed(t);
+            }
+        });
+    }
+
+    private void fetchMore(final RangeQuery query) {
+        Futures.addCallback(query.rs.fetchMoreResults(), new FutureCallback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+                ready.add(query);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                query.failed(t);
+            }
+        });
+    }
+
+    /**
+     * Returns whether this scan has more rows.
+     * <p>
+     * This method blocks until rows are available, or all the sub-ranges have been queried.
+     *
+     * @return whether this scan has more rows.
+     *
+     * @throws DriverException if the query of a sub-range failed. The scan is then
+     * closed, and all subsequent calls will throw the same exception.
+     */
+    public boolean isExhausted() {
+        if (failure != null)
+            throw failure;
+        if (closed)
+            return true;
+        while (current == null || current.rs.getAvailableWithoutFetching() == 0) {
+            if (current != null) {
+                if (current.rs.isFullyFetched()) {
+                    synchronized (this) {
+                        running.remove(current);
+                        completed.add(current.range);
+                    }
+                    startNext();
+                } else {
+                    fetchMore(current);
+                }
+                current = null;
+            }
+            synchronized (this) {
+                if (running.isEmpty())
+                    return true;
+            }
+            RangeQuery next = Uninterruptibles.takeUninterruptibly(ready);
+            if (next.error != null) {
+                closed = true;
+                failure = (next.error instanceof DriverException)
+                    ? ((DriverException)next.error).copy()
+                    : new DriverInternalError("Unexpected exception thrown", next.error);
+                throw failure;
+            } else {
+                current = next;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the next row of this scan.
+     *
+     * @return the next row, or {@code null} if the scan is exhausted.
+     *
+     * @throws DriverException if the query of a sub-range failed.
+     */
+    public Row one() {
+        return isExhausted() ? null : current.rs.one();
+    }
+
+    /**
+     * Returns an iterator over the rows of this scan.
+     * <p>
+     * As for {@link ResultSet#iterator()}, the returned iterator consumes the rows of the scan,
+     * and calling this method twice returns the same rows only once.
+     *
+     * @return an iterator that consumes the rows of this scan.
+     */
+    @Override
+    public Iterator<Row> iterator() {
+        return new AbstractIterator<Row>() {
+            @Override
+            protected Row computeNext() {
+                Row row = one();
+                return row == null ? endOfData() : row;
+            }
+        };
+    }
+
+    /**
+     * Returns the sub-ranges that have been fully read.
+     *
+     * @return a snapshot of the sub-ranges that have been fully read.
+     */
+    public synchronized List<TokenRange> getCompletedRanges() {
+        return new ArrayList<TokenRange>(completed);
+    }
+
+    /**
+     * Returns the sub-ranges that have not been fully read yet, including those being queried.
+     * <p>
+     * These are the ranges to provide to {@link TableScanOptions#setRanges} to resume the
+     * scan later.
+     *
+     * @return a snapshot of the sub-ranges that have not been fully read yet.
+     */
+    public synchronized List<TokenRange> getRemainingRanges() {
+        List<TokenRange> remaining = new ArrayList<TokenRange>(running.size() + pending.size());
+        for (RangeQuery query : running)
+            remaining.add(query.range);
+        for (RangeQuery query : pending)
+            remaining.add(query.range);
+        return remaining;
+    }
+
+    /**
+     * Returns the total number of sub-ranges of this scan.
+     *
+     * @return the total number of sub-ranges of this scan.
+     */
+    public int getTotalRangeCount() {
+        return totalRanges;
+    }
+
+    /**
+     * Stops this scan.
+     * <p>
+     * No new sub-range will be queried, and {@link #isExhausted()} returns {@code true} from
+     * now on. Queries in progress are allowed to complete, but their results are ignored.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    private class RangeQuery {
+        final TokenRange range;
+        final Statement statement;
+        volatile ResultSet rs;
+        volatile Throwable error;
+
+        RangeQuery(TokenRange range, Statement statement) {
+            this.range = range;
+            this.statement = statement;
+        }
+
+        void failed(Throwable t) {
+            error = t;
+            ready.add(this);
+        }
+    }
+
+    /**
+     * The query of a sub-range, which is sent in priority to the sub-range's replicas.
+     */
+    static class RangeStatement extends StatementWrapper {
+        private final Set<Host> replicas;
+
+        RangeStatement(Statement wrapped, Set<Host> replicas) {
+            super(wrapped);
+            this.replicas = replicas;
+            // Reads can always be retried on another host
+            setIdempotent(true);
+        }
+
+        /**
+         * Moves the replicas that the load balancing policy considers {@code LOCAL} to the
+         * front of a query plan, keeping the policy's order otherwise.
+         * <p>
+         * The plan is consumed lazily: hosts are buffered only until all the replicas have been
+         * seen, which is usually right away since policies tend to return local hosts (and, for
+         * token-aware ones, replicas) first.
+         */
+        @Override
+        Iterator<Host> adjustQueryPlan(final Iterator<Host> queryPlan, final LoadBalancingPolicy policy) {
+            if (replicas.isEmpty())
+                return queryPlan;
+            return new AbstractIterator<Host>() {
+                private final Queue<Host> others = new ArrayDeque<Host>();
+                private int replicasSeen;
+
+                @Override
+                protected Host computeNext() {
+                    while (replicasSeen < replicas.size() && queryPlan.hasNext()) {
+                        Host host = queryPlan.next();
+                        if (replicas.contains(host)) {
+                            replicasSeen++;
+                            if (policy.distance(host) == HostDistance.LOCAL)
+                                return host;
+                        }
+                        others.add(host);
+                    }
+                    if (!others.isEmpty())
+                        return others.poll();
+                    return queryPlan.hasNext() ? queryPlan.next() : endOfData();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Options for the table scans performed by {@link TableScan#of(Session, String, String, TableScanOptions)}.
+ */
+public class TableScanOptions {
+
+    /**
+     * The default number of sub-ranges each token range of the ring is split into: 1.
+     */
+    public static final int DEFAULT_SPLITS_PER_RANGE = 1;
+
+    /**
+     * The default maximum number of sub-ranges queried concurrently: 4.
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_RANGES = 4;
+
+    private volatile int splitsPerRange = DEFAULT_SPLITS_PER_RANGE;
+    private volatile int maxConcurrentRanges = DEFAULT_MAX_CONCURRENT_RANGES;
+    private volatile int fetchSize;
+    private volatile ConsistencyLevel consistency;
+    private volatile List<String> columns;
+    private volatile List<TokenRange> ranges;
+
+    /**
+     * Creates a new {@link TableScanOptions} instance using the default values.
+     */
+    public TableScanOptions() {}
+
+    /**
+     * Sets the number of sub-ranges each token range of the ring (as returned by
+     * {@link Metadata#getTokenRanges()}) is split into.
+     * <p>
+     * Increase this if the cluster does not use virtual nodes, so that there are
+     * enough sub-ranges to query concurrently.
+     *
+     * @param splitsPerRange the new number of splits.
+     * @return this {@code TableScanOptions} instance.
+     *
+     * @throws IllegalArgumentException if {@code splitsPerRange <= 0}.
+     */
+    public TableScanOptions setSplitsPerRange(int splitsPerRange) {
+        if (splitsPerRange <= 0)
+            throw new IllegalArgumentException("Invalid splitsPerRange, should be > 0, got " + splitsPerRange);
+        this.splitsPerRange = splitsPerRange;
+        return this;
+    }
+
+    /**
+     * The number of sub-ranges each token range of the ring is split into.
+     *
+     * @return the number of sub-ranges each token range of the ring is split into.
+     */
+    public int getSplitsPerRange() {
+        return splitsPerRange;
+    }
+
+    /**
+     * Sets the maximum number of sub-ranges queried concurrently.
+     * <p>
+     * This also bounds the memory used by a scan, since at most one page of
+     * results is held for each sub-range being queried.
+     *
+     * @param maxConcurrentRanges the new maximum number of sub-ranges queried concurrently.
+     * @return this {@code TableScanOptions} instance.
+     *
+     * @throws IllegalArgumentException if {@code maxConcurrentRanges <= 0}.
+     */
+    public TableScanOptions setMaxConcurrentRanges(int maxConcurrentRanges) {
+        if (maxConcurrentRanges <= 0)
+            throw new IllegalArgumentException("Invalid maxConcurrentRanges, should be > 0, got " + maxConcurrentRanges);
+        this.maxConcurrentRanges = maxConcurrentRanges;
+        return this;
+    }
+
+    /**
+     * The maximum number of sub-ranges queried concurrently.
+     *
+     * @return the maximum number of sub-ranges queried concurrently.
+     */
+    public int getMaxConcurrentRanges() {
+        return maxConcurrentRanges;
+    }
+
+    /**
+     * Sets the fetch size of the queries of the scan.
+     *
+     * @param fetchSize the new fetch size, or 0 to use the default fetch size
+     * (see {@link QueryOptions#getFetchSize()}).
+     * @return this {@code TableScanOptions} instance.
+     *
+     * @throws IllegalArgumentException if {@code fetchSize < 0}.
+     */
+    public TableScanOptions setFetchSize(int fetchSize) {
+        if (fetchSize < 0)
+            throw new IllegalArgumentException("Invalid fetchSize, should be >= 0, got " + fetchSize);
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    /**
+     * The fetch size of the queries of the scan.
+     *
+     * @return the fetch size of the queries of the scan, or 0 if the default fetch size is used.
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Sets the consistency level of the queries of the scan.
+     *
+     * @param consistencyLevel the new consistency level, or {@code null} to use the default
+     * consistency level (see {@link QueryOptions#getConsistencyLevel()}).
+     * @return this {@code TableScanOptions} instance.
+     */
+    public TableScanOptions setConsistencyLevel(ConsistencyLevel consistencyLevel) {
+        this.consistency = consistencyLevel;
+        return this;
+    }
+
+    /**
+     * The consistency level of the queries of the scan.
+     *
+     * @return the consistency level of the queries of the scan, or {@code null} if the default
+     * consistency level is used.
+     */
+    public ConsistencyLevel getConsistencyLevel() {
+        return consistency;
+    }
+
+    /**
+     * Sets the columns returned by the scan.
+     *
+     * @param columns the names of the columns, as they would appear in a CQL query (that is,
+     * double-quoted if they are case sensitive). If no column is provided, all the columns
+     * are returned.
+     * @return this {@code TableScanOptions} instance.
+     */
+    public TableScanOptions setColumns(String... columns) {
+        this.columns = columns.length == 0 ? null : new ArrayList<String>(Arrays.asList(columns));
+        return this;
+    }
+
+    /**
+     * The columns returned by the scan.
+     *
+     * @return the columns returned by the scan, or {@code null} if all the columns are returned.
+     */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Restricts the scan to the given token ranges.
+     * <p>
+     * This is meant to resume an interrupted scan, by passing the ranges that were
+     * returned by {@link TableScan#getRemainingRanges()}. The provided ranges are
+     * not split further.
+     *
+     * @param ranges the ranges to scan, or {@code null} to scan the whole ring.
+     * @return this {@code TableScanOptions} instance.
+     */
+    public TableScanOptions setRanges(Collection<TokenRange> ranges) {
+        this.ranges = ranges == null ? null : new ArrayList<TokenRange>(ranges);
+        return this;
+    }
+
+    /**
+     * The token ranges the scan is restricted to.
+     *
+     * @return the token ranges the scan is restricted to, or {@code null} if the scan covers
+     * the whole ring.
+     */
+    public List<TokenRange> getRanges() {
+        return ranges;
+    }
+}
@@ -92,7 +92,7 @@ public abstract class Token implements Comparable<Token> {
 
     // Murmur3Partitioner tokens
     static class M3PToken extends Token {
-        private final long value;
+        final long value;
 
         public static final Factory FACTORY = new M3PTokenFactory();
 
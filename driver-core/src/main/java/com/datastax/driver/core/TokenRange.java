@@ -19,7 +19,6 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
-import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Objects;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
@@ -35,7 +34,6 @@ import com.google.common.collect.Lists;
 public final class TokenRange implements Comparable<TokenRange> {
     private final Token start;
     private final Token end;
-    @VisibleForTesting
     final Token.Factory factory;
 
     TokenRange(Token start, Token end, Token.Factory factory) {
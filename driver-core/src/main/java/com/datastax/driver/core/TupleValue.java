@@ -46,6 +46,13 @@ public class TupleValue extends AbstractAddressableByIndexData<TupleValue> {
         return "component " + i;
     }
 
+    // A copy that shares the (never modified) component buffers of this value
+    TupleValue copy() {
+        TupleValue copy = new TupleValue(type);
+        System.arraycopy(values, 0, copy.values, 0, values.length);
+        return copy;
+    }
+
     /**
      * The tuple type this is a value of.
      *
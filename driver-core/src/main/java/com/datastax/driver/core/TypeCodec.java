@@ -1189,6 +1189,268 @@ abstract class TypeCodec<T> {
         }
     }
 
+    /**
+     * Codecs for lists and sets of fixed-size numbers, which decode to (and encode from) primitive arrays
+     * rather than collections of boxed values.
+     * <p>
+     * Lists and sets have the same binary representation, so these codecs work for both. They are only
+     * used by the primitive array getters and setters, and never to format values in query strings.
+     */
+    static abstract class PrimitiveArrayCodec<A> extends TypeCodec<A> {
+
+        private final int elementSize;
+        private final ProtocolVersion protocolVersion;
+
+        private PrimitiveArrayCodec(int elementSize, ProtocolVersion protocolVersion) {
+            this.elementSize = elementSize;
+            this.protocolVersion = protocolVersion;
+        }
+
+        static <C> C forVersion(ProtocolVersion version, C v2Codec, C v3Codec) {
+            switch (version) {
+                case V1:
+                case V2:
+                    return v2Codec;
+                case V3:
+                    return v3Codec;
+                default:
+                    throw version.unsupported();
+            }
+        }
+
+        abstract int length(A array);
+        abstract A newArray(int length);
+        abstract void readElement(ByteBuffer input, A array, int i);
+        abstract void writeElement(ByteBuffer output, A array, int i);
+        abstract void parseElement(String value, A array, int i);
+        abstract String formatElement(A array, int i);
+
+        // Same literals as ListCodec (sets are also formatted as lists, since arrays are ordered)
+        @Override
+        public A parse(String value) {
+            int idx = ParseUtils.skipSpaces(value, 0);
+            if (value.charAt(idx++) != '[')
+                throw new InvalidTypeException(String.format("cannot parse list value from \"%s\", at character %d expecting '[' but got '%c'", value, idx, value.charAt(idx)));
+
+            idx = ParseUtils.skipSpaces(value, idx);
+
+            if (value.charAt(idx) == ']')
+                return newArray(0);
+
+            List<String> elements = new ArrayList<String>();
+            while (idx < value.length()) {
+                int n;
+                try {
+                    n = ParseUtils.skipCQLValue(value, idx);
+                } catch (IllegalArgumentException e) {
+                    throw new InvalidTypeException(String.format("Cannot parse list value from \"%s\", invalid CQL value at character %d", value, idx), e);
+                }
+
+                elements.add(value.substring(idx, n));
+                idx = n;
+
+                idx = ParseUtils.skipSpaces(value, idx);
+                if (value.charAt(idx) == ']') {
+                    A array = newArray(elements.size());
+                    for (int i = 0; i < elements.size(); i++)
+                        parseElement(elements.get(i), array, i);
+                    return array;
+                }
+                if (value.charAt(idx++) != ',')
+                    throw new InvalidTypeException(String.format("Cannot parse list value from \"%s\", at character %d expecting ',' but got '%c'", value, idx, value.charAt(idx)));
+
+                idx = ParseUtils.skipSpaces(value, idx);
+            }
+            throw new InvalidTypeException(String.format("Malformed list value \"%s\", missing closing ']'", value));
+        }
+
+        @Override
+        public String format(A value) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("[");
+            for (int i = 0; i < length(value); i++) {
+                if (i != 0)
+                    sb.append(", ");
+                sb.append(formatElement(value, i));
+            }
+            sb.append("]");
+            return sb.toString();
+        }
+
+        @Override
+        public ByteBuffer serialize(A value) {
+            int n = length(value);
+            // Elements are prefixed by their size, which is encoded like the size of the collection
+            int elementPrefixSize = sizeOfCollectionSize(elementSize, protocolVersion);
+            ByteBuffer output = ByteBuffer.allocate(sizeOfCollectionSize(n, protocolVersion) + n * (elementPrefixSize + elementSize));
+            writeCollectionSize(output, n, protocolVersion);
+            for (int i = 0; i < n; i++) {
+                writeCollectionSize(output, elementSize, protocolVersion);
+                writeElement(output, value, i);
+            }
+            return (ByteBuffer)output.flip();
+        }
+
+        @Override
+        public A deserialize(ByteBuffer bytes) {
+            try {
+                ByteBuffer input = bytes.duplicate();
+                int n = readCollectionSize(input, protocolVersion);
+                // Don't trust the size for the allocation if the bytes can't possibly hold that many elements
+                if (n < 0 || (long)n * elementSize > input.remaining())
+                    throw new InvalidTypeException("Not enough bytes to deserialize collection of " + n + " elements");
+                A array = newArray(n);
+                for (int i = 0; i < n; i++) {
+                    int size = readCollectionSize(input, protocolVersion);
+                    if (size != elementSize)
+                        throw new InvalidTypeException("Invalid collection element, expecting " + elementSize + " bytes but got " + size);
+                    readElement(input, array, i);
+                }
+                return array;
+            } catch (BufferUnderflowException e) {
+                throw new InvalidTypeException("Not enough bytes to deserialize collection");
+            }
+        }
+    }
+
+    static class IntArrayCodec extends PrimitiveArrayCodec<int[]> {
+
+        static final int[] EMPTY = new int[0];
+
+        private static final IntArrayCodec v2Instance = new IntArrayCodec(ProtocolVersion.V2);
+        private static final IntArrayCodec v3Instance = new IntArrayCodec(ProtocolVersion.V3);
+
+        static IntArrayCodec instance(ProtocolVersion version) {
+            return forVersion(version, v2Instance, v3Instance);
+        }
+
+        private IntArrayCodec(ProtocolVersion protocolVersion) {
+            super(4, protocolVersion);
+        }
+
+        @Override
+        int length(int[] array) {
+            return array.length;
+        }
+
+        @Override
+        int[] newArray(int length) {
+            return length == 0 ? EMPTY : new int[length];
+        }
+
+        @Override
+        void readElement(ByteBuffer input, int[] array, int i) {
+            array[i] = input.getInt();
+        }
+
+        @Override
+        void writeElement(ByteBuffer output, int[] array, int i) {
+            output.putInt(array[i]);
+        }
+
+        @Override
+        void parseElement(String value, int[] array, int i) {
+            array[i] = IntCodec.instance.parse(value);
+        }
+
+        @Override
+        String formatElement(int[] array, int i) {
+            return IntCodec.instance.format(array[i]);
+        }
+    }
+
+    static class LongArrayCodec extends PrimitiveArrayCodec<long[]> {
+
+        static final long[] EMPTY = new long[0];
+
+        private static final LongArrayCodec v2Instance = new LongArrayCodec(ProtocolVersion.V2);
+        private static final LongArrayCodec v3Instance = new LongArrayCodec(ProtocolVersion.V3);
+
+        static LongArrayCodec instance(ProtocolVersion version) {
+            return forVersion(version, v2Instance, v3Instance);
+        }
+
+        private LongArrayCodec(ProtocolVersion protocolVersion) {
+            super(8, protocolVersion);
+        }
+
+        @Override
+        int length(long[] array) {
+            return array.length;
+        }
+
+        @Override
+        long[] newArray(int length) {
+            return length == 0 ? EMPTY : new long[length];
+        }
+
+        @Override
+        void readElement(ByteBuffer input, long[] array, int i) {
+            array[i] = input.getLong();
+        }
+
+        @Override
+        void writeElement(ByteBuffer output, long[] array, int i) {
+            output.putLong(array[i]);
+        }
+
+        @Override
+        void parseElement(String value, long[] array, int i) {
+            array[i] = LongCodec.instance.parse(value);
+        }
+
+        @Override
+        String formatElement(long[] array, int i) {
+            return LongCodec.instance.format(array[i]);
+        }
+    }
+
+    static class DoubleArrayCodec extends PrimitiveArrayCodec<double[]> {
+
+        static final double[] EMPTY = new double[0];
+
+        private static final DoubleArrayCodec v2Instance = new DoubleArrayCodec(ProtocolVersion.V2);
+        private static final DoubleArrayCodec v3Instance = new DoubleArrayCodec(ProtocolVersion.V3);
+
+        static DoubleArrayCodec instance(ProtocolVersion version) {
+            return forVersion(version, v2Instance, v3Instance);
+        }
+
+        private DoubleArrayCodec(ProtocolVersion protocolVersion) {
+            super(8, protocolVersion);
+        }
+
+        @Override
+        int length(double[] array) {
+            return array.length;
+        }
+
+        @Override
+        double[] newArray(int length) {
+            return length == 0 ? EMPTY : new double[length];
+        }
+
+        @Override
+        void readElement(ByteBuffer input, double[] array, int i) {
+            array[i] = input.getDouble();
+        }
+
+        @Override
+        void writeElement(ByteBuffer output, double[] array, int i) {
+            output.putDouble(array[i]);
+        }
+
+        @Override
+        void parseElement(String value, double[] array, int i) {
+            array[i] = DoubleCodec.instance.parse(value);
+        }
+
+        @Override
+        String formatElement(double[] array, int i) {
+            return DoubleCodec.instance.format(array[i]);
+        }
+    }
+
     static class UDTCodec extends TypeCodec<UDTValue> {
 
         private final UserType definition;
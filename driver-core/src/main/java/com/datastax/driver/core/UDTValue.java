@@ -43,6 +43,13 @@ public class UDTValue extends AbstractData<UDTValue> {
         return indexes;
     }
 
+    // A copy that shares the (never modified) field buffers of this value
+    UDTValue copy() {
+        UDTValue copy = new UDTValue(definition);
+        System.arraycopy(values, 0, copy.values, 0, values.length);
+        return copy;
+    }
+
     /**
      * The UDT this is a value of.
      *
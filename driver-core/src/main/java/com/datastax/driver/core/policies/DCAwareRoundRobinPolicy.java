@@ -16,9 +16,6 @@
 package com.datastax.driver.core.policies;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -59,7 +56,8 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy, CloseableLo
 
     private final String UNSET = "";
 
-    private final ConcurrentMap<String, CopyOnWriteArrayList<Host>> perDcLiveHosts = new ConcurrentHashMap<String, CopyOnWriteArrayList<Host>>();
+    // Immutable snapshot, replaced on each change (guarded by this for writes)
+    private volatile LiveHosts liveHosts = LiveHosts.EMPTY;
     private final AtomicInteger index = new AtomicInteger();
 
     @VisibleForTesting
@@ -187,6 +185,7 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy, CloseableLo
         this.configuration = cluster.getConfiguration();
 
         ArrayList<String> notInLocalDC = new ArrayList<String>();
+        Map<String, Host[]> perDc = new HashMap<String, Host[]>();
 
         for (Host host : hosts) {
             String dc = dc(host);
@@ -200,11 +199,11 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy, CloseableLo
 
             if (!dc.equals(localDc)) notInLocalDC.add(String.format("%s (%s)", host.toString(), host.getDatacenter()));
 
-            CopyOnWriteArrayList<Host> prev = perDcLiveHosts.get(dc);
-            if (prev == null)
-                perDcLiveHosts.put(dc, new CopyOnWriteArrayList<Host>(Collections.singletonList(host)));
-            else
-                prev.addIfAbsent(host);
+            Host[] prev = perDc.get(dc);
+            perDc.put(dc, HostArrays.add(prev == null ? HostArrays.EMPTY : prev, host));
+        }
+        synchronized (this) {
+            liveHosts = new LiveHosts(perDc, localDc, usedHostsPerRemoteDc);
         }
 
         if (notInLocalDC.size() > 0) {
@@ -218,11 +217,6 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy, CloseableLo
         return dc == null ? localDc : dc;
     }
 
-    @SuppressWarnings("unchecked")
-    private static CopyOnWriteArrayList<Host> cloneList(CopyOnWriteArrayList<Host> list) {
-        return (CopyOnWriteArrayList<Host>)list.clone();
-    }
-
     /**
      * Return the HostDistance for the provided host.
      * <p>
@@ -242,13 +236,11 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy, CloseableLo
         if (dc == UNSET || dc.equals(localDc))
             return HostDistance.LOCAL;
 
-        CopyOnWriteArrayList<Host> dcHosts = perDcLiveHosts.get(dc);
+        Host[] dcHosts = liveHosts.perDc.get(dc);
         if (dcHosts == null || usedHostsPerRemoteDc == 0)
             return HostDistance.IGNORED;
 
-        // We need to clone, otherwise our subList call is not thread safe
-        dcHosts = cloneList(dcHosts);
-        return dcHosts.subList(0, Math.min(dcHosts.size(), usedHostsPerRemoteDc)).contains(host)
+        return HostArrays.contains(dcHosts, host, usedHostsPerRemoteDc)
              ? HostDistance.REMOTE
              : HostDistance.IGNORED;
     }
@@ -271,18 +263,19 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy, CloseableLo
     @Override
     public Iterator<Host> newQueryPlan(String loggedKeyspace, final Statement statement) {
 
-        CopyOnWriteArrayList<Host> localLiveHosts = perDcLiveHosts.get(localDc);
-        final List<Host> hosts = localLiveHosts == null ? Collections.<Host>emptyList() : cloneList(localLiveHosts);
+        // The snapshot is never modified once published, so the plan can iterate over it
+        // without copying, even if hosts go up or down concurrently.
+        final LiveHosts hosts = liveHosts;
         final int startIdx = index.getAndIncrement();
 
         return new AbstractIterator<Host>() {
 
             private int idx = startIdx;
-            private int remainingLocal = hosts.size();
+            private int remainingLocal = hosts.local.length;
 
             // For remote Dcs
-            private Iterator<String> remoteDcs;
-            private List<Host> currentDcHosts;
+            private int nextRemoteDc;
+            private Host[] currentDcHosts;
             private int currentDcRemaining;
 
             @Override
@@ -290,48 +283,37 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy, CloseableLo
                 while (true) {
                     if (remainingLocal > 0) {
                         remainingLocal--;
-                        int c = idx++ % hosts.size();
+                        int c = idx++ % hosts.local.length;
                         if (c < 0) {
-                            c += hosts.size();
+                            c += hosts.local.length;
                         }
-                        return hosts.get(c);
+                        return hosts.local[c];
                     }
 
-                    if (currentDcHosts != null && currentDcRemaining > 0) {
+                    if (currentDcRemaining > 0) {
                         currentDcRemaining--;
-                        int c = idx++ % currentDcHosts.size();
+                        int c = idx++ % currentDcHosts.length;
                         if (c < 0) {
-                            c += currentDcHosts.size();
+                            c += currentDcHosts.length;
                         }
-                        return currentDcHosts.get(c);
+                        return currentDcHosts[c];
                     }
 
-                    ConsistencyLevel cl = statement.getConsistencyLevel() == null
-                        ? configuration.getQueryOptions().getConsistencyLevel()
-                        : statement.getConsistencyLevel();
-
-                    if (dontHopForLocalCL && cl.isDCLocal())
+                    if (nextRemoteDc >= hosts.remote.length)
                         return endOfData();
 
-                    if (remoteDcs == null) {
-                        Set<String> copy = new HashSet<String>(perDcLiveHosts.keySet());
-                        copy.remove(localDc);
-                        remoteDcs = copy.iterator();
-                    }
-
-                    if (!remoteDcs.hasNext())
-                        break;
+                    if (nextRemoteDc == 0) {
+                        ConsistencyLevel cl = statement.getConsistencyLevel() == null
+                            ? configuration.getQueryOptions().getConsistencyLevel()
+                            : statement.getConsistencyLevel();
 
-                    String nextRemoteDc = remoteDcs.next();
-                    CopyOnWriteArrayList<Host> nextDcHosts = perDcLiveHosts.get(nextRemoteDc);
-                    if (nextDcHosts != null) {
-                        // Clone for thread safety
-                        List<Host> dcHosts = cloneList(nextDcHosts);
-                        currentDcHosts = dcHosts.subList(0, Math.min(dcHosts.size(), usedHostsPerRemoteDc));
-                        currentDcRemaining = currentDcHosts.size();
+                        if (dontHopForLocalCL && cl.isDCLocal())
+                            return endOfData();
                     }
+
+                    currentDcHosts = hosts.remote[nextRemoteDc++];
+                    currentDcRemaining = currentDcHosts.length;
                 }
-                return endOfData();
             }
         };
     }
@@ -346,15 +328,12 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy, CloseableLo
             localDc = dc;
         }
 
-        CopyOnWriteArrayList<Host> dcHosts = perDcLiveHosts.get(dc);
-        if (dcHosts == null) {
-            CopyOnWriteArrayList<Host> newMap = new CopyOnWriteArrayList<Host>(Collections.singletonList(host));
-            dcHosts = perDcLiveHosts.putIfAbsent(dc, newMap);
-            // If we've successfully put our new host, we're good, otherwise we've been beaten so continue
-            if (dcHosts == null)
-                return;
+        synchronized (this) {
+            Host[] dcHosts = liveHosts.perDc.get(dc);
+            Host[] newDcHosts = HostArrays.add(dcHosts == null ? HostArrays.EMPTY : dcHosts, host);
+            if (newDcHosts != dcHosts || !localDc.equals(liveHosts.localDc))
+                liveHosts = liveHosts.with(dc, newDcHosts, localDc, usedHostsPerRemoteDc);
         }
-        dcHosts.addIfAbsent(host);
     }
 
     @Override
@@ -362,10 +341,14 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy, CloseableLo
     }
 
     @Override
-    public void onDown(Host host) {
-        CopyOnWriteArrayList<Host> dcHosts = perDcLiveHosts.get(dc(host));
-        if (dcHosts != null)
-            dcHosts.remove(host);
+    public synchronized void onDown(Host host) {
+        String dc = dc(host);
+        Host[] dcHosts = liveHosts.perDc.get(dc);
+        if (dcHosts == null)
+            return;
+        Host[] newDcHosts = HostArrays.remove(dcHosts, host);
+        if (newDcHosts != dcHosts)
+            liveHosts = liveHosts.with(dc, newDcHosts, localDc, usedHostsPerRemoteDc);
     }
 
     @Override
@@ -382,4 +365,45 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy, CloseableLo
     public void close() {
         // nothing to do
     }
+
+    /**
+     * The live hosts of each data-center, along with the precomputed parts used by query plans.
+     */
+    private static class LiveHosts {
+        static final LiveHosts EMPTY = new LiveHosts(Collections.<String, Host[]>emptyMap(), null, 0);
+
+        final Map<String, Host[]> perDc;
+        final String localDc;
+        final Host[] local;
+        // The hosts that can be used in each remote data-center, i.e. the first usedHostsPerRemoteDc of each
+        final Host[][] remote;
+
+        LiveHosts(Map<String, Host[]> perDc, String localDc, int usedHostsPerRemoteDc) {
+            this.perDc = perDc;
+            this.localDc = localDc;
+
+            Host[] localHosts = perDc.get(localDc);
+            this.local = localHosts == null ? HostArrays.EMPTY : localHosts;
+
+            List<Host[]> remoteHosts = new ArrayList<Host[]>();
+            if (usedHostsPerRemoteDc > 0) {
+                for (Map.Entry<String, Host[]> entry : perDc.entrySet()) {
+                    Host[] dcHosts = entry.getValue();
+                    if (entry.getKey().equals(localDc) || dcHosts.length == 0)
+                        continue;
+                    remoteHosts.add(dcHosts.length <= usedHostsPerRemoteDc ? dcHosts : Arrays.copyOf(dcHosts, usedHostsPerRemoteDc));
+                }
+            }
+            this.remote = remoteHosts.toArray(new Host[remoteHosts.size()][]);
+        }
+
+        LiveHosts with(String dc, Host[] dcHosts, String localDc, int usedHostsPerRemoteDc) {
+            Map<String, Host[]> newPerDc = new HashMap<String, Host[]>(perDc);
+            if (dcHosts.length == 0)
+                newPerDc.remove(dc);
+            else
+                newPerDc.put(dc, dcHosts);
+            return new LiveHosts(newPerDc, localDc, usedHostsPerRemoteDc);
+        }
+    }
 }
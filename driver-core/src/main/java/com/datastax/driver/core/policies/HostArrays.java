@@ -0,0 +1,108 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core.policies;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.datastax.driver.core.Host;
+
+/**
+ * Helpers for the immutable host arrays that round-robin policies publish to their query plans.
+ * <p>
+ * An array, once published, is never modified: updates return a new copy, so query plans can
+ * iterate over it without copying or locking.
+ */
+final class HostArrays {
+
+    static final Host[] EMPTY = new Host[0];
+
+    private HostArrays() {}
+
+    static boolean contains(Host[] hosts, Host host, int limit) {
+        for (int i = 0; i < limit && i < hosts.length; i++) {
+            if (hosts[i].equals(host))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns a copy of {@code hosts} with {@code host} appended, or {@code hosts} itself if it already contains it.
+     */
+    static Host[] add(Host[] hosts, Host host) {
+        if (contains(hosts, host, hosts.length))
+            return hosts;
+        Host[] copy = Arrays.copyOf(hosts, hosts.length + 1);
+        copy[hosts.length] = host;
+        return copy;
+    }
+
+    /**
+     * Returns a copy of {@code hosts} without {@code host}, or {@code hosts} itself if it doesn't contain it.
+     */
+    static Host[] remove(Host[] hosts, Host host) {
+        for (int i = 0; i < hosts.length; i++) {
+            if (hosts[i].equals(host)) {
+                if (hosts.length == 1)
+                    return EMPTY;
+                Host[] copy = new Host[hosts.length - 1];
+                System.arraycopy(hosts, 0, copy, 0, i);
+                System.arraycopy(hosts, i + 1, copy, i, hosts.length - i - 1);
+                return copy;
+            }
+        }
+        return hosts;
+    }
+
+    /**
+     * Iterates over all the hosts of an array once, starting at a given offset and wrapping around.
+     */
+    static class RoundRobinIterator implements Iterator<Host> {
+        private final Host[] hosts;
+        private int idx;
+        private int remaining;
+
+        RoundRobinIterator(Host[] hosts, int startIdx) {
+            this.hosts = hosts;
+            this.remaining = hosts.length;
+            // Keep the index positive, the policies' counters are allowed to overflow
+            this.idx = hosts.length == 0 ? 0 : (startIdx & Integer.MAX_VALUE) % hosts.length;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public Host next() {
+            if (remaining <= 0)
+                throw new NoSuchElementException();
+            remaining--;
+            Host host = hosts[idx];
+            if (++idx == hosts.length)
+                idx = 0;
+            return host;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
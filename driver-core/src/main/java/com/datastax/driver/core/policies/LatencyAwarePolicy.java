@@ -17,7 +17,7 @@ package com.datastax.driver.core.policies;
 
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.AbstractIterator;
@@ -55,6 +55,10 @@ import com.datastax.driver.core.exceptions.*;
  * policy has a configurable retry period. The policy will not penalize a host
  * for which no measurement has been collected for more than this retry period.
  * <p>
+ * Optionally, the policy can also penalize nodes based on a latency percentile
+ * reported by a {@link PerHostPercentileTracker} (see
+ * {@link Builder#withPercentileTracker}).
+ * <p>
  * Please see the {@link Builder} class and methods for more details on the
  * possible parameters of this policy.
  *
@@ -74,18 +78,25 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy, Closeab
     private final long retryPeriod;
     private final long minMeasure;
 
+    private final PerHostPercentileTracker percentileTracker;
+    private final double percentile;
+
     private LatencyAwarePolicy(LoadBalancingPolicy childPolicy,
                                double exclusionThreshold,
                                long scale,
                                long retryPeriod,
                                long updateRate,
-                               int minMeasure) {
+                               int minMeasure,
+                               PerHostPercentileTracker percentileTracker,
+                               double percentile) {
         this.childPolicy = childPolicy;
         this.retryPeriod = retryPeriod;
         this.scale = scale;
         this.latencyTracker = new Tracker();
         this.exclusionThreshold = exclusionThreshold;
         this.minMeasure = minMeasure;
+        this.percentileTracker = percentileTracker;
+        this.percentile = percentile;
 
         updaterService.scheduleAtFixedRate(new Updater(), updateRate, updateRate, TimeUnit.NANOSECONDS);
     }
@@ -217,6 +228,7 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy, Closeab
             @Override
             protected Host computeNext() {
                 long min = latencyTracker.getMinAverage();
+                long minPercentile = latencyTracker.getMinPercentile();
                 long now = System.nanoTime();
                 while (childIter.hasNext()) {
                     Host host = childIter.next();
@@ -229,7 +241,8 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy, Closeab
 
                     // If the host latency is within acceptable bound of the faster known host, return
                     // that host. Otherwise, skip it.
-                    if (latency.average <= ((long)(exclusionThreshold * (double)min)))
+                    if (latency.average <= ((long)(exclusionThreshold * (double)min))
+                        && (minPercentile < 0 || latency.percentile <= ((long)(exclusionThreshold * (double)minPercentile))))
                         return host;
 
                     if (skipped == null)
@@ -390,12 +403,13 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy, Closeab
 
         private final ConcurrentMap<Host, HostLatencyTracker> latencies = new ConcurrentHashMap<Host, HostLatencyTracker>();
         private volatile long cachedMin = -1L;
+        private volatile long cachedMinPercentile = -1L;
 
         public void update(Host host, Statement statement, Exception exception, long newLatencyNanos) {
             if(shouldConsiderNewLatency(statement, exception)) {
                 HostLatencyTracker hostTracker = latencies.get(host);
                 if (hostTracker == null) {
-                    hostTracker = new HostLatencyTracker(scale, (30L * minMeasure) / 100L);
+                    hostTracker = new HostLatencyTracker(scale, (30L * minMeasure) / 100L, retryPeriod);
                     HostLatencyTracker old = latencies.putIfAbsent(host, hostTracker);
                     if (old != null)
                         hostTracker = old;
@@ -412,22 +426,42 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy, Closeab
             return true;
         }
 
+        /**
+         * Recomputes the score of each host from its latest measurements, and the minimum scores.
+         */
         public void updateMin() {
             long newMin = Long.MAX_VALUE;
+            long newMinPercentile = Long.MAX_VALUE;
             long now = System.nanoTime();
-            for (HostLatencyTracker tracker : latencies.values()) {
-                TimestampedAverage latency = tracker.getCurrentAverage();
-                if (latency != null && latency.average >= 0 && latency.nbMeasure >= minMeasure && (now - latency.timestamp) <= retryPeriod)
-                    newMin = Math.min(newMin, latency.average);
+            for (Map.Entry<Host, HostLatencyTracker> entry : latencies.entrySet()) {
+                long hostPercentile = percentileTracker == null ? -1L : percentileLatencyOf(entry.getKey());
+                TimestampedAverage latency = entry.getValue().refresh(now, hostPercentile);
+                if (latency != null && latency.nbMeasure >= minMeasure && (now - latency.timestamp) <= retryPeriod) {
+                    if (latency.average >= 0)
+                        newMin = Math.min(newMin, latency.average);
+                    if (latency.percentile >= 0)
+                        newMinPercentile = Math.min(newMinPercentile, latency.percentile);
+                }
             }
             if (newMin != Long.MAX_VALUE)
                 cachedMin = newMin;
+            if (newMinPercentile != Long.MAX_VALUE)
+                cachedMinPercentile = newMinPercentile;
+        }
+
+        private long percentileLatencyOf(Host host) {
+            long millis = percentileTracker.getLatencyAtPercentile(host, percentile);
+            return millis < 0 ? -1L : TimeUnit.MILLISECONDS.toNanos(millis);
         }
 
         public long getMinAverage() {
             return cachedMin;
         }
 
+        public long getMinPercentile() {
+            return cachedMinPercentile;
+        }
+
         public TimestampedAverage latencyOf(Host host) {
             HostLatencyTracker tracker = latencies.get(host);
             return tracker == null ? null : tracker.getCurrentAverage();
@@ -435,8 +469,11 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy, Closeab
 
         public Map<Host, TimestampedAverage> currentLatencies() {
             Map<Host, TimestampedAverage> map = new HashMap<Host, TimestampedAverage>(latencies.size());
-            for (Map.Entry<Host, HostLatencyTracker> entry : latencies.entrySet())
-                map.put(entry.getKey(), entry.getValue().getCurrentAverage());
+            for (Map.Entry<Host, HostLatencyTracker> entry : latencies.entrySet()) {
+                TimestampedAverage latency = entry.getValue().getCurrentAverage();
+                if (latency != null)
+                    map.put(entry.getKey(), latency);
+            }
             return map;
         }
 
@@ -450,66 +487,140 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy, Closeab
         private final long timestamp;
         private final long average;
         private final long nbMeasure;
+        private final long percentile;
 
-        TimestampedAverage(long timestamp, long average, long nbMeasure) {
+        TimestampedAverage(long timestamp, long average, long nbMeasure, long percentile) {
             this.timestamp = timestamp;
             this.average = average;
             this.nbMeasure = nbMeasure;
+            this.percentile = percentile;
         }
     }
 
+    /**
+     * Maintains the latency score of a host.
+     * <p>
+     * Recording a latency doesn't allocate: measurements are spread over a few stripes (picked
+     * by thread to limit contention between client threads), and each stripe holds its count,
+     * last timestamp and average in primitive cells of an {@link AtomicLongArray}. The count is
+     * incremented for every measurement, and the average is updated by CAS, so no thread ever
+     * waits for another one, and no measurement is lost from the count.
+     * <p>
+     * The stripes are combined (into an immutable {@link TimestampedAverage}) by the updater,
+     * at the policy's update rate, which is when query plans see the new score.
+     */
     private static class HostLatencyTracker {
 
+        private static final int STRIPES = Math.max(2, Math.min(8, Integer.highestOneBit(Runtime.getRuntime().availableProcessors())));
+
+        // Layout of a stripe; each stripe fills a 64-byte cache line to avoid false sharing
+        private static final int TIMESTAMP = 0;
+        private static final int AVERAGE = 1;
+        private static final int COUNT = 2;
+        private static final int STRIPE_SIZE = 8;
+
         private final long thresholdToAccount;
         private final double scale;
-        private final AtomicReference<TimestampedAverage> current = new AtomicReference<TimestampedAverage>();
+        private final long retryPeriod;
+        private final AtomicLongArray stripes = new AtomicLongArray(STRIPES * STRIPE_SIZE);
+
+        private volatile TimestampedAverage current;
 
-        HostLatencyTracker(long scale, long thresholdToAccount) {
+        HostLatencyTracker(long scale, long thresholdToAccount, long retryPeriod) {
             this.scale = (double)scale; // We keep in double since that's how we'll use it.
-            this.thresholdToAccount = thresholdToAccount;
+            // Each stripe only sees part of the measurements
+            this.thresholdToAccount = (thresholdToAccount + STRIPES - 1) / STRIPES;
+            this.retryPeriod = retryPeriod;
+            long now = System.nanoTime();
+            for (int i = 0; i < STRIPES; i++) {
+                stripes.set(i * STRIPE_SIZE + TIMESTAMP, now);
+                stripes.set(i * STRIPE_SIZE + AVERAGE, -1L);
+            }
         }
 
         public void add(long newLatencyNanos) {
-            TimestampedAverage previous, next;
-            do {
-                previous = current.get();
-                next = computeNextAverage(previous, newLatencyNanos);
-            } while (next != null && !current.compareAndSet(previous, next));
-        }
-
-        private TimestampedAverage computeNextAverage(TimestampedAverage previous, long newLatencyNanos) {
-
             long currentTimestamp = System.nanoTime();
+            int base = ((int)Thread.currentThread().getId() & (STRIPES - 1)) * STRIPE_SIZE;
+
+            long nbMeasure = stripes.incrementAndGet(base + COUNT);
+            if (nbMeasure >= thresholdToAccount) {
+                while (true) {
+                    long previousTimestamp = stripes.get(base + TIMESTAMP);
+                    long previousAverage = stripes.get(base + AVERAGE);
+                    long newAverage = previousAverage < 0
+                                    ? newLatencyNanos
+                                    : nextAverage(previousAverage, currentTimestamp - previousTimestamp, newLatencyNanos);
+                    if (stripes.compareAndSet(base + AVERAGE, previousAverage, newAverage))
+                        break;
+                }
+            }
+            advanceTimestamp(base, currentTimestamp);
+        }
 
-            long nbMeasure = previous == null ? 1 : previous.nbMeasure + 1;
-            if (nbMeasure < thresholdToAccount)
-                return new TimestampedAverage(currentTimestamp, -1L, nbMeasure);
-
-            if (previous == null || previous.average < 0)
-                return new TimestampedAverage(currentTimestamp, newLatencyNanos, nbMeasure);
-
-            // Note: it's possible for the delay to be 0, in which case newLatencyNanos will basically be
-            // discarded. It's fine: nanoTime is precise enough in practice that even if it happens, it
-            // will be very rare, and discarding a latency every once in a while is not the end of the world.
-            // We do test for negative value, even though in theory that should not happen, because it seems
-            // that historically there has been bugs here (https://blogs.oracle.com/dholmes/entry/inside_the_hotspot_vm_clocks)
-            // so while this is almost surely not a problem anymore, there's no reason to break the computation
-            // if this even happen.
-            long delay = currentTimestamp - previous.timestamp;
+        private long nextAverage(long previousAverage, long delay, long newLatencyNanos) {
+            // Note: the delay can be 0, or even negative if another thread recorded a more recent measurement
+            // on this stripe in the meantime. The measurement is then given the smallest possible weight: it is
+            // counted, but barely moves the average, which is fine since its neighbour was just accounted for.
             if (delay <= 0)
-                return null;
+                delay = 1;
 
             double scaledDelay = ((double)delay)/scale;
             // Note: We don't use log1p because we it's quite a bit slower and we don't care about the precision (and since we
             // refuse ridiculously big scales, scaledDelay can't be so low that scaledDelay+1 == 1.0 (due to rounding)).
             double prevWeight = Math.log(scaledDelay+1) / scaledDelay;
-            long newAverage = (long)((1.0 - prevWeight) * newLatencyNanos + prevWeight * previous.average);
+            return (long)((1.0 - prevWeight) * newLatencyNanos + prevWeight * previousAverage);
+        }
+
+        // The timestamp of a stripe only moves forward, even if threads record their measurements out of order
+        private void advanceTimestamp(int base, long timestamp) {
+            while (true) {
+                long previous = stripes.get(base + TIMESTAMP);
+                if (timestamp - previous <= 0 || stripes.compareAndSet(base + TIMESTAMP, previous, timestamp))
+                    return;
+            }
+        }
+
+        /**
+         * Combines the stripes into a new score, that is then returned by {@link #getCurrentAverage}.
+         * The average of each stripe is weighted by its number of measurements, and stripes that were
+         * not updated during the retry period are ignored.
+         */
+        TimestampedAverage refresh(long now, long percentile) {
+            boolean hasMeasures = false;
+            long timestamp = 0;
+            long nbMeasure = 0;
+            double weightedSum = 0;
+            long weight = 0;
+            for (int i = 0; i < STRIPES; i++) {
+                int base = i * STRIPE_SIZE;
+                // The cells of a stripe are not read atomically, which at worst mixes two consecutive updates
+                long stripeCount = stripes.get(base + COUNT);
+                long stripeAverage = stripes.get(base + AVERAGE);
+                long stripeTimestamp = stripes.get(base + TIMESTAMP);
+                if (stripeCount == 0)
+                    continue;
+
+                nbMeasure += stripeCount;
+                if (!hasMeasures || stripeTimestamp - timestamp > 0)
+                    timestamp = stripeTimestamp;
+                hasMeasures = true;
+
+                if (stripeAverage >= 0 && now - stripeTimestamp <= retryPeriod) {
+                    weightedSum += (double)stripeAverage * stripeCount;
+                    weight += stripeCount;
+                }
+            }
+            if (!hasMeasures)
+                return null;
 
-            return new TimestampedAverage(currentTimestamp, newAverage, nbMeasure);
+            long average = weight == 0 ? -1L : (long)(weightedSum / weight);
+            TimestampedAverage latency = new TimestampedAverage(timestamp, average, nbMeasure, percentile);
+            current = latency;
+            return latency;
         }
 
         public TimestampedAverage getCurrentAverage() {
-            return current.get();
+            return current;
         }
     }
 
@@ -543,6 +654,8 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy, Closeab
         private long retryPeriod = DEFAULT_RETRY_PERIOD;
         private long updateRate = DEFAULT_UPDATE_RATE;
         private int minMeasure = DEFAULT_MIN_MEASURE;
+        private PerHostPercentileTracker percentileTracker;
+        private double percentile;
 
         /**
          * Creates a new latency aware policy builder given the child policy
@@ -643,12 +756,13 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy, Closeab
         /**
          * Sets the update rate for the resulting latency aware policy.
          *
-         * The update rate defines how often the minimum average latency is
-         * recomputed. While the average latency score of each node is computed
-         * iteratively (updated each time a new latency is collected), the
-         * minimum score needs to be recomputed from scratch every time, which
-         * is slightly more costly. For this reason, the minimum is only
-         * re-calculated at the given fixed rate and cached between re-calculation.
+         * The update rate defines how often the latency scores and the minimum
+         * average latency are recomputed. While the measurements of each node are
+         * accounted for iteratively (each time a new latency is collected), the
+         * scores are only published to query plans, and the minimum score
+         * recomputed from scratch, at the given fixed rate; they are cached between
+         * re-calculations. This keeps the cost of collecting a latency as low as
+         * possible.
          * <p>
          * The default update rate if <b>100 milliseconds</b>, which should be
          * appropriate for most applications. In particular, note that while we
@@ -707,6 +821,40 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy, Closeab
             return this;
         }
 
+        /**
+         * Sets a percentile tracker whose latencies should also be considered
+         * by the resulting latency aware policy.
+         * <p>
+         * The average latency reacts slowly to a node that only answers some of
+         * its queries slowly. If a percentile tracker is set, a node is also
+         * penalized if its latency at {@code percentile} is more than
+         * {@code exclusionThreshold} times the lowest latency at that percentile
+         * among the other nodes. Both conditions are evaluated separately: a
+         * node is penalized if either its average or its tail latency is too
+         * high.
+         * <p>
+         * The tracker is only read by the policy, it must be registered with the
+         * {@code Cluster} separately (see {@link Cluster#register(LatencyTracker)}).
+         * Its latencies are read at the update rate of the policy (see
+         * {@link #withUpdateRate}).
+         * <p>
+         * By default (if this method is not called), percentiles are not considered.
+         *
+         * @param percentileTracker the tracker to read latencies from.
+         * @param percentile the percentile to consider (for example, {@code 99.0}
+         * for the 99th percentile).
+         * @return this builder.
+         *
+         * @throws IllegalArgumentException if {@code percentile} is not in {@code [0, 100)}.
+         */
+        public Builder withPercentileTracker(PerHostPercentileTracker percentileTracker, double percentile) {
+            if (percentile < 0.0 || percentile >= 100.0)
+                throw new IllegalArgumentException("Invalid percentile, must be between 0 and 100");
+            this.percentileTracker = percentileTracker;
+            this.percentile = percentile;
+            return this;
+        }
+
         /**
          * Builds a new latency aware policy using the options set on this
          * builder.
@@ -714,7 +862,7 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy, Closeab
          * @return the newly created {@code LatencyAwarePolicy}.
          */
         public LatencyAwarePolicy build() {
-            return new LatencyAwarePolicy(childPolicy, exclusionThreshold, scale, retryPeriod, updateRate, minMeasure);
+            return new LatencyAwarePolicy(childPolicy, exclusionThreshold, scale, retryPeriod, updateRate, minMeasure, percentileTracker, percentile);
         }
     }
 
@@ -0,0 +1,290 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core.policies;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.AbstractIterator;
+
+import com.datastax.driver.core.*;
+import com.datastax.driver.core.exceptions.OperationTimedOutException;
+
+/**
+ * A wrapper load balancing policy that balances queries over the first hosts of a
+ * child policy based on their current load.
+ * <p>
+ * For each query, this policy considers the first {@code LOCAL} hosts returned by
+ * the child policy (up to a configurable number of candidates; with a {@link TokenAwarePolicy}
+ * as child policy and a replication factor of 3, these would typically be the 3 local
+ * replicas). It picks two of them at random, and tries first the one with the lowest
+ * score, where the score of a host is its number of in-flight requests (see
+ * {@link Host#getInFlightQueries}) weighted by its recent latency. The other hosts follow
+ * in the order of the child policy.
+ * <p>
+ * Comparing two random hosts, rather than always picking the least loaded host, keeps
+ * the policy from sending all the traffic to the same host while its load information
+ * is stale, and only requires sampling the load of two hosts per query.
+ * <p>
+ * The recent latency of a host is an exponential moving average of the latencies of
+ * its successful or timed out queries. Measurements older than the configured retry
+ * period are ignored, so that a host that was slow in the past gets tried again once
+ * its load is lower than the others'. If either host has no recent latency, they are
+ * compared on their in-flight requests only.
+ * <p>
+ * This policy inherits the {@code distance} method of its child policy.
+ */
+public class PowerOfTwoChoicesPolicy implements ChainableLoadBalancingPolicy, CloseableLoadBalancingPolicy {
+
+    private static final int DEFAULT_CANDIDATES = 3;
+    private static final long DEFAULT_RETRY_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    // Weight of a new latency measurement in the moving average
+    private static final double ALPHA = 0.25;
+
+    private final LoadBalancingPolicy childPolicy;
+    private final int candidates;
+    private final long retryPeriodNanos;
+    @VisibleForTesting
+    final Tracker latencyTracker = new Tracker();
+    private final Random random = new Random();
+
+    private volatile Cluster cluster;
+
+    /**
+     * Creates a new policy that balances queries over the first 3 {@code LOCAL} hosts
+     * returned by {@code childPolicy}.
+     *
+     * @param childPolicy the load balancing policy to wrap.
+     */
+    public PowerOfTwoChoicesPolicy(LoadBalancingPolicy childPolicy) {
+        this(childPolicy, DEFAULT_CANDIDATES, DEFAULT_RETRY_PERIOD_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a new policy.
+     *
+     * @param childPolicy the load balancing policy to wrap.
+     * @param candidates the maximum number of {@code LOCAL} hosts, taken from the
+     * beginning of the child policy's query plans, that two hosts are sampled from.
+     * This should usually be the local replication factor.
+     * @param retryPeriod the time after which the last latency measured for a host is
+     * not considered anymore.
+     * @param unit the unit for {@code retryPeriod}.
+     * @throws IllegalArgumentException if {@code candidates < 2} or {@code retryPeriod < 0}.
+     */
+    public PowerOfTwoChoicesPolicy(LoadBalancingPolicy childPolicy, int candidates, long retryPeriod, TimeUnit unit) {
+        if (candidates < 2)
+            throw new IllegalArgumentException(String.format("Invalid number of candidates, should be at least 2, got %d", candidates));
+        if (retryPeriod < 0)
+            throw new IllegalArgumentException("Invalid negative retry period");
+        this.childPolicy = childPolicy;
+        this.candidates = candidates;
+        this.retryPeriodNanos = unit.toNanos(retryPeriod);
+    }
+
+    @Override
+    public LoadBalancingPolicy getChildPolicy() {
+        return childPolicy;
+    }
+
+    @Override
+    public void init(Cluster cluster, Collection<Host> hosts) {
+        this.cluster = cluster;
+        childPolicy.init(cluster, hosts);
+        cluster.register(latencyTracker);
+    }
+
+    /**
+     * Returns the HostDistance for the provided host.
+     *
+     * @param host the host of which to return the distance of.
+     * @return the HostDistance to {@code host} as returned by the wrapped policy.
+     */
+    @Override
+    public HostDistance distance(Host host) {
+        return childPolicy.distance(host);
+    }
+
+    /**
+     * Returns the hosts to use for a new query.
+     * <p>
+     * The returned plan starts with the least loaded of two hosts sampled among the first
+     * {@code LOCAL} hosts of the child policy's plan, followed by the rest of the child
+     * policy's plan.
+     *
+     * @param loggedKeyspace the currently logged keyspace.
+     * @param statement the statement for which to build the plan.
+     * @return the new query plan.
+     */
+    @Override
+    public Iterator<Host> newQueryPlan(String loggedKeyspace, Statement statement) {
+        final Iterator<Host> childIterator = childPolicy.newQueryPlan(loggedKeyspace, statement);
+
+        // Buffer the first local hosts of the child plan
+        final Host[] firstHosts = new Host[candidates];
+        int count = 0;
+        Host firstNonCandidate = null;
+        while (count < candidates && childIterator.hasNext()) {
+            Host host = childIterator.next();
+            if (childPolicy.distance(host) != HostDistance.LOCAL) {
+                firstNonCandidate = host;
+                break;
+            }
+            firstHosts[count++] = host;
+        }
+
+        if (count >= 2) {
+            int i = random.nextInt(count);
+            int j = random.nextInt(count - 1);
+            if (j >= i)
+                j++;
+            int best = compare(firstHosts[i], firstHosts[j]) <= 0 ? i : j;
+            // Move the best host to the front, keeping the child policy's order for the others
+            Host bestHost = firstHosts[best];
+            System.arraycopy(firstHosts, 0, firstHosts, 1, best);
+            firstHosts[0] = bestHost;
+        }
+
+        final int candidateCount = count;
+        final Host pending = firstNonCandidate;
+        return new AbstractIterator<Host>() {
+
+            private int idx;
+            private boolean pendingReturned = pending == null;
+
+            @Override
+            protected Host computeNext() {
+                if (idx < candidateCount)
+                    return firstHosts[idx++];
+                if (!pendingReturned) {
+                    pendingReturned = true;
+                    return pending;
+                }
+                return childIterator.hasNext() ? childIterator.next() : endOfData();
+            }
+        };
+    }
+
+    /**
+     * Compares the score of two hosts, the host with the lowest score being the least loaded.
+     */
+    @VisibleForTesting
+    int compare(Host host1, Host host2) {
+        long now = System.nanoTime();
+        double latency1 = latencyTracker.recentLatency(host1, now);
+        double latency2 = latencyTracker.recentLatency(host2, now);
+
+        // Count the query being scheduled so that an idle host's latency still matters
+        double score1 = host1.getInFlightQueries() + 1;
+        double score2 = host2.getInFlightQueries() + 1;
+        if (latency1 > 0 && latency2 > 0) {
+            score1 *= latency1;
+            score2 *= latency2;
+        }
+        return Double.compare(score1, score2);
+    }
+
+    @Override
+    public void onUp(Host host) {
+        childPolicy.onUp(host);
+    }
+
+    @Override
+    public void onSuspected(Host host) {
+        childPolicy.onSuspected(host);
+    }
+
+    @Override
+    public void onDown(Host host) {
+        childPolicy.onDown(host);
+        latencyTracker.resetHost(host);
+    }
+
+    @Override
+    public void onAdd(Host host) {
+        childPolicy.onAdd(host);
+    }
+
+    @Override
+    public void onRemove(Host host) {
+        childPolicy.onRemove(host);
+        latencyTracker.resetHost(host);
+    }
+
+    @Override
+    public void close() {
+        Cluster cluster = this.cluster;
+        if (cluster != null)
+            cluster.unregister(latencyTracker);
+        if (childPolicy instanceof CloseableLoadBalancingPolicy)
+            ((CloseableLoadBalancingPolicy)childPolicy).close();
+    }
+
+    class Tracker implements LatencyTracker {
+
+        private final ConcurrentMap<Host, TimestampedAverage> latencies = new ConcurrentHashMap<Host, TimestampedAverage>();
+
+        @Override
+        public void update(Host host, Statement statement, Exception exception, long newLatencyNanos) {
+            // Other errors are usually fast and say nothing about the host's load
+            if (exception != null && !(exception instanceof OperationTimedOutException))
+                return;
+
+            long now = System.nanoTime();
+            while (true) {
+                TimestampedAverage previous = latencies.get(host);
+                if (previous == null) {
+                    if (latencies.putIfAbsent(host, new TimestampedAverage(newLatencyNanos, now)) == null)
+                        return;
+                } else {
+                    double average = (now - previous.timestamp > retryPeriodNanos)
+                                   ? newLatencyNanos
+                                   : previous.average + ALPHA * (newLatencyNanos - previous.average);
+                    if (latencies.replace(host, previous, new TimestampedAverage(average, now)))
+                        return;
+                }
+            }
+        }
+
+        /**
+         * Returns the recent average latency of {@code host}, or 0 if there is no recent measurement.
+         */
+        double recentLatency(Host host, long now) {
+            TimestampedAverage latency = latencies.get(host);
+            return latency == null || now - latency.timestamp > retryPeriodNanos ? 0 : latency.average;
+        }
+
+        void resetHost(Host host) {
+            latencies.remove(host);
+        }
+    }
+
+    private static class TimestampedAverage {
+        private final double average;
+        private final long timestamp;
+
+        TimestampedAverage(double average, long timestamp) {
+            this.average = average;
+            this.timestamp = timestamp;
+        }
+    }
+}
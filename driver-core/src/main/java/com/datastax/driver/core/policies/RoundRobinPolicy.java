@@ -17,15 +17,12 @@ package com.datastax.driver.core.policies;
 
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Random;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import com.google.common.collect.AbstractIterator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,7 +49,8 @@ public class RoundRobinPolicy implements LoadBalancingPolicy, CloseableLoadBalan
 
     private static final Logger logger = LoggerFactory.getLogger(RoundRobinPolicy.class);
 
-    private final CopyOnWriteArrayList<Host> liveHosts = new CopyOnWriteArrayList<Host>();
+    // Immutable snapshot, replaced on each change (guarded by this for writes)
+    private volatile Host[] liveHosts = HostArrays.EMPTY;
     private final AtomicInteger index = new AtomicInteger();
 
     private volatile Configuration configuration;
@@ -66,7 +64,12 @@ public class RoundRobinPolicy implements LoadBalancingPolicy, CloseableLoadBalan
 
     @Override
     public void init(Cluster cluster, Collection<Host> hosts) {
-        this.liveHosts.addAll(hosts);
+        synchronized (this) {
+            Host[] newHosts = liveHosts;
+            for (Host host : hosts)
+                newHosts = HostArrays.add(newHosts, host);
+            liveHosts = newHosts;
+        }
         this.configuration = cluster.getConfiguration();
         this.index.set(new Random().nextInt(Math.max(hosts.size(), 1)));
     }
@@ -114,40 +117,14 @@ public class RoundRobinPolicy implements LoadBalancingPolicy, CloseableLoadBalan
             }
         }
 
-        // We clone liveHosts because we want a version of the list that
-        // cannot change concurrently of the query plan iterator (this
-        // would be racy). We use clone() as it don't involve a copy of the
-        // underlying array (and thus we rely on liveHosts being a CopyOnWriteArrayList).
-        @SuppressWarnings("unchecked")
-        final List<Host> hosts = (List<Host>)liveHosts.clone();
-        final int startIdx = index.getAndIncrement();
-
-        // Overflow protection; not theoretically thread safe but should be good enough
-        if (startIdx > Integer.MAX_VALUE - 10000)
-            index.set(0);
-
-        return new AbstractIterator<Host>() {
-
-            private int idx = startIdx;
-            private int remaining = hosts.size();
-
-            @Override
-            protected Host computeNext() {
-                if (remaining <= 0)
-                    return endOfData();
-
-                remaining--;
-                int c = idx++ % hosts.size();
-                if (c < 0)
-                    c += hosts.size();
-                return hosts.get(c);
-            }
-        };
+        // The array is never modified once published, so the plan can iterate over it
+        // without copying, even if hosts go up or down concurrently.
+        return new HostArrays.RoundRobinIterator(liveHosts, index.getAndIncrement());
     }
 
     @Override
-    public void onUp(Host host) {
-        liveHosts.addIfAbsent(host);
+    public synchronized void onUp(Host host) {
+        liveHosts = HostArrays.add(liveHosts, host);
     }
 
     @Override
@@ -155,8 +132,8 @@ public class RoundRobinPolicy implements LoadBalancingPolicy, CloseableLoadBalan
     }
 
     @Override
-    public void onDown(Host host) {
-        liveHosts.remove(host);
+    public synchronized void onDown(Host host) {
+        liveHosts = HostArrays.remove(liveHosts, host);
     }
 
     @Override
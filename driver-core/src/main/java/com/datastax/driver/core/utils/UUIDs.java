@@ -22,8 +22,9 @@ import java.net.UnknownHostException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Charsets;
 
 /**
@@ -36,7 +37,7 @@ public final class UUIDs {
 
     // http://www.ietf.org/rfc/rfc4122.txt
     private static final long START_EPOCH = makeEpoch();
-    private static final long CLOCK_SEQ_AND_NODE = makeClockSeqAndNode();
+    private static final long NODE = makeNode();
 
     /*
      * The min and max possible lsb for a UUID.
@@ -52,7 +53,13 @@ public final class UUIDs {
     private static final long MIN_CLOCK_SEQ_AND_NODE = 0x8080808080808080L;
     private static final long MAX_CLOCK_SEQ_AND_NODE = 0x7f7f7f7f7f7f7f7fL;
 
-    private static final AtomicLong lastTimestamp = new AtomicLong(0L);
+    // UUID v1 timestamps are in 100-nanoseconds intervals
+    private static final long TICKS_PER_MILLI = 10000;
+
+    private static final TimeBasedGenerator generator = new TimeBasedGenerator(
+        Math.min(16, 2 * Integer.highestOneBit(Runtime.getRuntime().availableProcessors())),
+        new Random(System.currentTimeMillis()),
+        NODE);
 
     private static long makeEpoch() {
         // UUID v1 timestamp must be in 100-nanoseconds interval since 00:00:00.000 15 Oct 1582.
@@ -110,10 +117,7 @@ public final class UUIDs {
             digest.update(value.getBytes(Charsets.UTF_8));
     }
 
-    private static long makeClockSeqAndNode() {
-        long clock = new Random(System.currentTimeMillis()).nextLong();
-        long node = makeNode();
-
+    private static long makeClockSeqAndNode(long clock, long node) {
         long lsb = 0;
         lsb |= (clock & 0x0000000000003FFFL) << 48;
         lsb |= 0x8000000000000000L;
@@ -139,10 +143,31 @@ public final class UUIDs {
      * {@code timeuuid} Cassandra type. In particular the generated UUID
      * includes the timestamp of its generation.
      *
+     * <p>
+     * The UUIDs generated by a given thread are unique and have strictly increasing
+     * timestamps. The UUIDs generated by different threads are also unique, but their
+     * timestamps are not ordered: threads generate UUIDs concurrently, each with its
+     * own clock sequence (which is part of the UUID's least significant bits).
+     *
      * @return a new time-based UUID.
      */
     public static UUID timeBased() {
-        return new UUID(makeMSB(getCurrentTimestamp()), CLOCK_SEQ_AND_NODE);
+        return generator.next();
+    }
+
+    /**
+     * Creates new time-based (version 1) UUIDs.
+     * <p>
+     * This is equivalent to calling {@link #timeBased()} {@code count} times, but
+     * cheaper: the timestamps of the UUIDs are reserved together, instead of one by one.
+     *
+     * @param count the number of UUIDs to create.
+     * @return a list of {@code count} new time-based UUIDs, in the order of their timestamps.
+     *
+     * @throws IllegalArgumentException if {@code count < 0}.
+     */
+    public static List<UUID> timeBased(int count) {
+        return generator.next(count);
     }
 
     /**
@@ -229,51 +254,16 @@ public final class UUIDs {
             throw new IllegalArgumentException(String.format("Can only retrieve the unix timestamp for version 1 uuid (provided version %d)", uuid.version()));
 
         long timestamp = uuid.timestamp();
-        return (timestamp / 10000) + START_EPOCH;
-    }
-
-    /*
-     * Note that currently we use System.currentTimeMillis() for a base time in
-     * milliseconds, and then if we are in the same milliseconds that the
-     * previous generation, we increment the number of nanoseconds.
-     * However, since the precision is 100-nanoseconds intervals, we can only
-     * generate 10K UUID within a millisecond safely. If we detect we have
-     * already generated that much UUID within a millisecond (which, while
-     * admittedly unlikely in a real application, is very achievable on even
-     * modest machines), then we stall the generator (busy spin) until the next
-     * millisecond as required by the RFC.
-     */
-    private static long getCurrentTimestamp() {
-        while (true) {
-            long now = fromUnixTimestamp(System.currentTimeMillis());
-            long last = lastTimestamp.get();
-            if (now > last) {
-                if (lastTimestamp.compareAndSet(last, now))
-                    return now;
-            } else {
-                long lastMillis = millisOf(last);
-                // If the clock went back in time, bail out
-                if (millisOf(now) < millisOf(last))
-                    return lastTimestamp.incrementAndGet();
-
-                long candidate = last + 1;
-                // If we've generated more than 10k uuid in that millisecond,
-                // we restart the whole process until we get to the next millis.
-                // Otherwise, we try use our candidate ... unless we've been
-                // beaten by another thread in which case we try again.
-                if (millisOf(candidate) == lastMillis && lastTimestamp.compareAndSet(last, candidate))
-                    return candidate;
-            }
-        }
+        return (timestamp / TICKS_PER_MILLI) + START_EPOCH;
     }
 
     // Package visible for testing
     static long fromUnixTimestamp(long tstamp) {
-        return (tstamp - START_EPOCH) * 10000;
+        return (tstamp - START_EPOCH) * TICKS_PER_MILLI;
     }
 
     private static long millisOf(long timestamp) {
-        return timestamp / 10000;
+        return timestamp / TICKS_PER_MILLI;
     }
 
     // Package visible for testing
@@ -317,4 +307,117 @@ public final class UUIDs {
 
         return allIps;
     }
+
+    /**
+     * Generates time-based UUIDs from stripes, to avoid contention between threads.
+     * <p>
+     * Each stripe has its own clock sequence, so the UUIDs of different stripes never collide,
+     * and its own last timestamp, which only ever increases. A thread always uses the same stripe,
+     * so the timestamps of the UUIDs it generates are strictly increasing.
+     * <p>
+     * The clock sequences are drawn at random (and distinct from each other), like the single
+     * clock sequence of a non-striped generator: UUIDs are unique across processes that share the
+     * same node only as long as those processes don't draw a common clock sequence. Since each
+     * stripe takes one of the 16384 clock sequences, the number of stripes is kept small.
+     */
+    @VisibleForTesting
+    static class TimeBasedGenerator {
+
+        // Each stripe's last timestamp fills a 64-byte cache line to avoid false sharing
+        private static final int STRIPE_SIZE = 8;
+
+        private final int stripeMask;
+        private final AtomicLongArray lastTimestamps;
+        private final long[] clockSeqAndNodes;
+
+        /**
+         * @param stripes the number of stripes, a power of two. At most 256.
+         * @param random the source of the clock sequences.
+         */
+        TimeBasedGenerator(int stripes, Random random, long node) {
+            assert Integer.bitCount(stripes) == 1 && stripes <= 256;
+            this.stripeMask = stripes - 1;
+            this.lastTimestamps = new AtomicLongArray(stripes * STRIPE_SIZE);
+            this.clockSeqAndNodes = new long[stripes];
+            Set<Integer> clockSeqs = new HashSet<Integer>();
+            for (int i = 0; i < stripes; i++) {
+                int clockSeq;
+                do {
+                    clockSeq = random.nextInt(0x4000);
+                } while (!clockSeqs.add(clockSeq));
+                clockSeqAndNodes[i] = makeClockSeqAndNode(clockSeq, node);
+            }
+        }
+
+        @VisibleForTesting
+        long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+
+        UUID next() {
+            int stripe = stripe();
+            return new UUID(makeMSB(reserve(stripe, 1)), clockSeqAndNodes[stripe]);
+        }
+
+        List<UUID> next(int count) {
+            if (count < 0)
+                throw new IllegalArgumentException("Invalid count, should be >= 0, got " + count);
+
+            int stripe = stripe();
+            long clockSeqAndNode = clockSeqAndNodes[stripe];
+            List<UUID> uuids = new ArrayList<UUID>(count);
+            while (uuids.size() < count) {
+                int remaining = count - uuids.size();
+                long first = reserve(stripe, remaining);
+                int reserved = reservedCount(first, remaining);
+                for (int i = 0; i < reserved; i++)
+                    uuids.add(new UUID(makeMSB(first + i), clockSeqAndNode));
+            }
+            return uuids;
+        }
+
+        private int stripe() {
+            return (int)Thread.currentThread().getId() & stripeMask;
+        }
+
+        /*
+         * Reserves up to count consecutive timestamps in a stripe, and returns the first one (see
+         * reservedCount for how many were reserved).
+         *
+         * Note that currently we use the clock for a base time in milliseconds, and then if we are
+         * in the same millisecond that the previous generation, we increment the number of
+         * nanoseconds. However, since the precision is 100-nanoseconds intervals, we can only
+         * generate 10K timestamps within a millisecond safely. If we detect we have already
+         * generated that much within a millisecond (which, while admittedly unlikely in a real
+         * application, is very achievable on even modest machines), then we stall the generator
+         * (busy spin) until the next millisecond as required by the RFC. Stripes have different
+         * clock sequences, so each of them can generate 10K UUIDs per millisecond.
+         */
+        private long reserve(int stripe, int count) {
+            int index = stripe * STRIPE_SIZE;
+            while (true) {
+                long now = fromUnixTimestamp(currentTimeMillis());
+                long last = lastTimestamps.get(index);
+                long first;
+                if (now > last) {
+                    first = now;
+                } else {
+                    first = last + 1;
+                    // If we've generated more than 10k uuid in that millisecond, we restart the whole
+                    // process until we get to the next millis. If the clock went back in time however,
+                    // don't wait for it and go on from the last timestamp.
+                    if (millisOf(first) != millisOf(last) && millisOf(now) >= millisOf(last))
+                        continue;
+                }
+                // Only another thread with the same stripe can beat us, in which case we try again
+                if (lastTimestamps.compareAndSet(index, last, first + reservedCount(first, count) - 1))
+                    return first;
+            }
+        }
+
+        // Reservations don't cross milliseconds
+        private static int reservedCount(long first, int count) {
+            return (int)Math.min(count, TICKS_PER_MILLI - first % TICKS_PER_MILLI);
+        }
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ArrayBackedRowTest {
+
+    private static final TupleType TUPLE = TupleType.of(DataType.cint(), DataType.text());
+
+    private final ColumnDefinitions defs = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+        new ColumnDefinitions.Definition("ks", "cf", "v", DataType.varint()),
+        new ColumnDefinitions.Definition("ks", "cf", "l", DataType.list(DataType.text())),
+        new ColumnDefinitions.Definition("ks", "cf", "s", DataType.text()),
+        new ColumnDefinitions.Definition("ks", "cf", "b", DataType.blob()),
+        new ColumnDefinitions.Definition("ks", "cf", "t", DataType.timestamp()),
+        new ColumnDefinitions.Definition("ks", "cf", "tu", TUPLE)
+    });
+
+    private final List<ByteBuffer> data = Arrays.asList(
+        TypeCodec.BigIntegerCodec.instance.serialize(BigInteger.TEN),
+        TypeCodec.listOf(DataType.text(), ProtocolVersion.V3).serialize(Arrays.asList("a", "b")),
+        TypeCodec.StringCodec.utf8Instance.serialize("foo"),
+        ByteBuffer.wrap(new byte[]{ 1, 2, 3 }),
+        TypeCodec.DateCodec.instance.serialize(new Date(42)),
+        TUPLE.serialize(TUPLE.newValue(1, "one"), ProtocolVersion.V3));
+
+    @Test(groups = "unit")
+    public void should_decode_values_on_every_read_by_default() {
+        Row row = ArrayBackedRow.fromData(defs, null, ProtocolVersion.V3, data);
+
+        assertThat(row.getVarint(0)).isEqualTo(BigInteger.TEN);
+        assertThat(row.getString(2)).isNotSameAs(row.getString(2));
+    }
+
+    @Test(groups = "unit")
+    public void should_cache_decoded_values_within_the_budget_of_the_page() {
+        ArrayBackedRow.CacheBudget budget = new ArrayBackedRow.CacheBudget(3);
+        Row row1 = ArrayBackedRow.fromData(defs, null, ProtocolVersion.V3, data, budget);
+        Row row2 = ArrayBackedRow.fromData(defs, null, ProtocolVersion.V3, data, budget);
+
+        assertThat(row1.getString("s")).isSameAs(row1.getString(2)).isEqualTo("foo");
+        // Collections are cached, but still returned as unmodifiable views
+        assertThat(row1.getList(1, String.class)).containsExactly("a", "b");
+        assertThat(row1.getList(1, String.class)).isSameAs(row1.getList(1, String.class));
+        assertThat(row2.getVarint(0)).isSameAs(row2.getVarint(0));
+
+        // The page's budget is spent
+        assertThat(row2.getString(2)).isEqualTo("foo").isNotSameAs(row2.getString(2));
+        assertThat(row1.getVarint(0)).isNotSameAs(row1.getVarint(0));
+    }
+
+    @Test(groups = "unit")
+    @SuppressWarnings("unchecked")
+    public void should_not_share_mutable_values() {
+        Row row = ArrayBackedRow.fromData(defs, null, ProtocolVersion.V3, data, new ArrayBackedRow.CacheBudget(10));
+
+        ByteBuffer blob = (ByteBuffer)row.getObject(3);
+        blob.get();
+        assertThat(((ByteBuffer)row.getObject(3)).remaining()).isEqualTo(3);
+
+        Date date = (Date)row.getObject(4);
+        date.setTime(0);
+        assertThat(row.getObject(4)).isEqualTo(new Date(42));
+
+        List<String> list = (List<String>)row.getObject(1);
+        list.add("c");
+        assertThat(row.getObject(1)).isEqualTo(Arrays.asList("a", "b"));
+        assertThat(row.getList(1, String.class)).containsExactly("a", "b");
+    }
+
+    @Test(groups = "unit")
+    public void should_return_copies_of_cached_tuple_values() {
+        ArrayBackedRow.CacheBudget budget = new ArrayBackedRow.CacheBudget(1);
+        Row row = ArrayBackedRow.fromData(defs, null, ProtocolVersion.V3, data, budget);
+
+        TupleValue first = row.getTupleValue(5);
+        first.setInt(0, 2);
+        TupleValue second = row.getTupleValue(5);
+
+        assertThat(second).isNotSameAs(first).isEqualTo(TUPLE.newValue(1, "one"));
+        assertThat(second.getString(1)).isEqualTo("one");
+        // The tuple took the whole budget
+        assertThat(budget.tryAcquire()).isFalse();
+    }
+
+    @Test(groups = "unit")
+    public void should_not_exceed_budget_when_shared_by_threads() throws InterruptedException {
+        final ArrayBackedRow.CacheBudget budget = new ArrayBackedRow.CacheBudget(1000);
+        final AtomicInteger acquired = new AtomicInteger();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 1000; j++) {
+                        if (budget.tryAcquire())
+                            acquired.incrementAndGet();
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads)
+            thread.start();
+        for (Thread thread : threads)
+            thread.join();
+
+        assertThat(acquired.get()).isEqualTo(1000);
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+public class BulkWriterTest {
+
+    private static final Host HOST1 = mock(Host.class);
+    private static final Host HOST2 = mock(Host.class);
+    private static final Host HOST3 = mock(Host.class);
+
+    @Test(groups = "unit")
+    public void should_group_statements_by_replicas() {
+        Metadata metadata = metadata();
+        Statement a1 = insert(1), b1 = insert(2), a2 = insert(3), unrouted = new SimpleStatement("INSERT INTO t (k) VALUES (0)");
+        BulkWriter writer = writer(metadata, new BulkWriteOptions(), a1, b1, a2, unrouted);
+
+        // Statements without replicas are sent right away, groups once the input is exhausted
+        assertThat(writer.nextRequest()).isSameAs(unrouted);
+        List<Statement> requests = Arrays.asList(writer.nextRequest(), writer.nextRequest());
+        assertThat(writer.nextRequest()).isNull();
+
+        Statement batch = requests.get(0) instanceof BatchStatement ? requests.get(0) : requests.get(1);
+        Statement single = requests.get(0) instanceof BatchStatement ? requests.get(1) : requests.get(0);
+        assertThat(((BatchStatement)batch).getStatements()).containsExactly(a1, a2);
+        assertThat(((BatchStatement)batch).batchType).isEqualTo(BatchStatement.Type.UNLOGGED);
+        assertThat(single).isSameAs(b1);
+    }
+
+    @Test(groups = "unit")
+    public void should_send_group_when_full() {
+        Metadata metadata = metadata();
+        Statement a1 = insert(1), a2 = insert(3), a3 = insert(5);
+        BulkWriter writer = writer(metadata, new BulkWriteOptions().setMaxBatchStatements(2), a1, a2, a3);
+
+        assertThat(((BatchStatement)writer.nextRequest()).getStatements()).containsExactly(a1, a2);
+        assertThat(writer.nextRequest()).isSameAs(a3);
+        assertThat(writer.nextRequest()).isNull();
+    }
+
+    @Test(groups = "unit")
+    public void should_split_groups_on_size() {
+        Metadata metadata = metadata();
+        Statement a1 = insert(1), a2 = insert(3), a3 = insert(5);
+        // Each statement is a bit more than 40 bytes
+        BulkWriter writer = writer(metadata, new BulkWriteOptions().setMaxBatchSizeInBytes(100), a1, a2, a3);
+
+        assertThat(((BatchStatement)writer.nextRequest()).getStatements()).containsExactly(a1, a2);
+        assertThat(writer.nextRequest()).isSameAs(a3);
+        assertThat(writer.nextRequest()).isNull();
+    }
+
+    @Test(groups = "unit")
+    public void should_apply_consistency_level() {
+        Metadata metadata = metadata();
+        Statement a1 = insert(1).setConsistencyLevel(ConsistencyLevel.QUORUM), a2 = insert(3).setConsistencyLevel(ConsistencyLevel.QUORUM);
+
+        Statement batch = writer(metadata, new BulkWriteOptions(), a1, a2).nextRequest();
+        assertThat(batch.getConsistencyLevel()).isEqualTo(ConsistencyLevel.QUORUM);
+
+        // The consistency level of the options overrides the one of the statements, which can then be grouped
+        a2.setConsistencyLevel(ConsistencyLevel.ONE);
+        batch = writer(metadata, new BulkWriteOptions().setConsistencyLevel(ConsistencyLevel.ALL), a1, a2).nextRequest();
+        assertThat(((BatchStatement)batch).getStatements()).containsExactly(a1, a2);
+        assertThat(batch.getConsistencyLevel()).isEqualTo(ConsistencyLevel.ALL);
+    }
+
+    @Test(groups = "unit")
+    public void should_only_group_statements_with_the_same_settings() {
+        Metadata metadata = metadata();
+        Statement a1 = insert(1).setDefaultTimestamp(42).setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL),
+            a2 = insert(3).setDefaultTimestamp(42).setSerialConsistencyLevel(ConsistencyLevel.LOCAL_SERIAL),
+            a3 = insert(5).setDefaultTimestamp(43),
+            a4 = insert(7).setConsistencyLevel(ConsistencyLevel.ALL);
+        BulkWriter writer = writer(metadata, new BulkWriteOptions(), a1, a2, a3, a4);
+
+        List<Statement> requests = Arrays.asList(writer.nextRequest(), writer.nextRequest(), writer.nextRequest());
+        assertThat(writer.nextRequest()).isNull();
+        assertThat(requests).contains(a3, a4);
+
+        BatchStatement batch = null;
+        for (Statement request : requests) {
+            if (request instanceof BatchStatement)
+                batch = (BatchStatement)request;
+        }
+        assertThat(batch.getStatements()).containsExactly(a1, a2);
+        assertThat(batch.getDefaultTimestamp()).isEqualTo(42);
+        assertThat(batch.getSerialConsistencyLevel()).isEqualTo(ConsistencyLevel.LOCAL_SERIAL);
+    }
+
+    @Test(groups = "unit")
+    public void should_bound_requests_in_flight() throws Exception {
+        Metadata metadata = metadata();
+        List<Statement> statements = new ArrayList<Statement>();
+        for (int i = 0; i < 10; i++)
+            statements.add(new SimpleStatement("INSERT INTO t (k) VALUES (" + i + ")"));
+
+        final List<SettableResultSetFuture> futures = new ArrayList<SettableResultSetFuture>();
+        Session session = mock(Session.class);
+        when(session.executeAsync(any(Statement.class))).thenAnswer(new Answer<ResultSetFuture>() {
+            @Override
+            public ResultSetFuture answer(InvocationOnMock invocation) throws Throwable {
+                SettableResultSetFuture future = new SettableResultSetFuture();
+                futures.add(future);
+                return future;
+            }
+        });
+
+        ListenableFuture<Void> result = new BulkWriter(session, metadata, ProtocolVersion.V3,
+                                                       new BulkWriteOptions().setMaxConcurrentRequests(3),
+                                                       statements.iterator(), MoreExecutors.sameThreadExecutor()).start();
+        assertThat(futures).hasSize(3);
+
+        futures.get(0).set(null);
+        assertThat(futures).hasSize(4);
+        assertThat(result.isDone()).isFalse();
+
+        futures.get(1).setException(new RuntimeException("test"));
+        assertThat(result.isDone()).isTrue();
+        futures.get(2).set(null);
+        assertThat(futures).hasSize(4);
+        try {
+            result.get();
+            fail("Expected an ExecutionException");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).hasMessage("test");
+        }
+    }
+
+    private static BulkWriter writer(Metadata metadata, BulkWriteOptions options, Statement... statements) {
+        Session session = mock(Session.class);
+        when(session.getLoggedKeyspace()).thenReturn("ks");
+        return new BulkWriter(session, metadata, ProtocolVersion.V3, options, Arrays.asList(statements).iterator(), MoreExecutors.sameThreadExecutor());
+    }
+
+    /**
+     * Odd keys are replicated on hosts 1 and 2, even keys on hosts 2 and 3.
+     */
+    private static Metadata metadata() {
+        Metadata metadata = mock(Metadata.class);
+        when(metadata.getReplicas(eq("\"ks\""), any(ByteBuffer.class))).thenAnswer(new Answer<Set<Host>>() {
+            @Override
+            public Set<Host> answer(InvocationOnMock invocation) throws Throwable {
+                ByteBuffer key = (ByteBuffer)invocation.getArguments()[1];
+                return key.getInt(key.position()) % 2 == 1
+                       ? ImmutableSet.of(HOST1, HOST2)
+                       : ImmutableSet.of(HOST2, HOST3);
+            }
+        });
+        return metadata;
+    }
+
+    private static SimpleStatement insert(int key) {
+        ByteBuffer routingKey = DataType.cint().serialize(key, ProtocolVersion.V3);
+        return new SimpleStatement("INSERT INTO t (k) VALUES (?)", key).setRoutingKey(routingKey);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.reflect.TypeToken;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+
+public class ColumnAccessorTest {
+
+    private final ColumnDefinitions defs = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+        new ColumnDefinitions.Definition("ks", "cf", "id", DataType.cint()),
+        new ColumnDefinitions.Definition("ks", "cf", "tags", DataType.list(DataType.text())),
+        new ColumnDefinitions.Definition("ks", "cf", "id", DataType.cint())
+    });
+
+    @Test(groups = "unit")
+    public void should_read_values_from_rows() {
+        ColumnAccessor<Integer> id = defs.getAccessor("ID", Integer.class);
+        ColumnAccessor<List<String>> tags = defs.getAccessor("tags", new TypeToken<List<String>>() {});
+        Row row = ArrayBackedRow.fromData(defs, null, ProtocolVersion.V3, Arrays.asList(
+            TypeCodec.IntCodec.instance.serializeNoBoxing(42),
+            null,
+            TypeCodec.IntCodec.instance.serializeNoBoxing(42)));
+
+        assertThat(id.getIndex()).isEqualTo(0);
+        assertThat(id.get(row)).isEqualTo(42);
+        assertThat(tags.get(row)).isEmpty();
+    }
+
+    @Test(groups = "unit")
+    public void should_write_all_variables_with_the_name() {
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(ps.getVariables()).thenReturn(defs);
+        when(ps.getPreparedId()).thenReturn(new PreparedId(null, defs, null, null, ProtocolVersion.V3));
+        ColumnAccessor<Integer> id = defs.getAccessor("id", Integer.class);
+
+        BoundStatement bs = id.set(new BoundStatement(ps), 7);
+
+        assertThat(bs.getInt(0)).isEqualTo(7);
+        assertThat(bs.getInt(2)).isEqualTo(7);
+        assertThat(bs.isSet(1)).isFalse();
+        assertThat(id.get(bs)).isEqualTo(7);
+        id.set(bs, null);
+        assertThat(bs.isNull(0)).isTrue();
+    }
+
+    @Test(groups = "unit", expectedExceptions = InvalidTypeException.class)
+    public void should_not_create_accessor_with_wrong_class() {
+        defs.getAccessor("id", String.class);
+    }
+
+    @Test(groups = "unit", expectedExceptions = IllegalArgumentException.class)
+    public void should_not_create_accessor_for_unknown_column() {
+        defs.getAccessor("unknown", Integer.class);
+    }
+
+    @Test(groups = "unit", expectedExceptions = InvalidTypeException.class)
+    public void should_not_read_rows_with_different_types() {
+        ColumnAccessor<Integer> id = defs.getAccessor("id", Integer.class);
+        ColumnDefinitions other = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+            new ColumnDefinitions.Definition("ks", "cf", "id", DataType.text())
+        });
+        id.get(ArrayBackedRow.fromData(other, null, ProtocolVersion.V3, Arrays.<ByteBuffer>asList(ByteBuffer.allocate(0))));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Queue;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class CompactRowDecodingTest {
+
+    @Test(groups = "unit")
+    public void should_decode_same_rows_as_default_decoder() {
+        Responses.Result.Rows expected = (Responses.Result.Rows)Responses.Result.decoder.decode(rowsBody(), ProtocolVersion.V3);
+        Responses.Result.Rows actual = (Responses.Result.Rows)Responses.Result.compactDecoder.decode(rowsBody(), ProtocolVersion.V3);
+
+        assertEquals(actual.data.size(), expected.data.size());
+        while (!expected.data.isEmpty()) {
+            List<ByteBuffer> expectedRow = expected.data.poll();
+            List<ByteBuffer> actualRow = actual.data.poll();
+            assertEquals(actualRow.size(), expectedRow.size());
+            for (int i = 0; i < expectedRow.size(); i++)
+                assertEquals(actualRow.get(i), expectedRow.get(i));
+        }
+        assertNull(actual.data.poll());
+    }
+
+    @Test(groups = "unit")
+    public void should_not_consume_rows_on_peek() {
+        Queue<List<ByteBuffer>> data = ((Responses.Result.Rows)Responses.Result.compactDecoder.decode(rowsBody(), ProtocolVersion.V3)).data;
+
+        assertEquals(data.peek().get(0), ByteBuffer.wrap(new byte[]{ 1 }));
+        assertEquals(data.size(), 3);
+        data.poll();
+        assertEquals(data.peek().get(0), ByteBuffer.wrap(new byte[0]));
+        assertNull(data.peek().get(1));
+        assertEquals(data.size(), 2);
+    }
+
+    // A ROWS result without metadata, with 3 rows of 2 columns, including an empty and a null value
+    private static ByteBuf rowsBody() {
+        ByteBuf body = Unpooled.buffer();
+        body.writeInt(2); // kind: ROWS
+        body.writeInt(1 << 2); // flags: NO_METADATA
+        body.writeInt(2); // column count
+        body.writeInt(3); // row count
+
+        writeValue(body, new byte[]{ 1 });
+        writeValue(body, new byte[]{ 1, 2, 3 });
+
+        writeValue(body, new byte[0]);
+        writeValue(body, null);
+
+        writeValue(body, new byte[]{ 4, 5 });
+        writeValue(body, new byte[]{ 6 });
+        return body;
+    }
+
+    private static void writeValue(ByteBuf body, byte[] value) {
+        if (value == null) {
+            body.writeInt(-1);
+        } else {
+            body.writeInt(value.length);
+            body.writeBytes(value);
+        }
+    }
+}
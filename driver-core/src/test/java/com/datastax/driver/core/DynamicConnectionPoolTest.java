@@ -352,6 +352,70 @@ public class DynamicConnectionPoolTest extends CCMBridge.PerClassSingleNodeClust
         assertThat(pool.connections).hasSize(1);
     }
 
+    /**
+     * Ensures that when a fixed-sized pool is exhausted, borrowConnectionAsync returns a pending future instead of
+     * blocking, that the future completes when a connection is returned, and that it times out otherwise.
+     *
+     * @test_category connection:connection_pool
+     */
+    @Test(groups = "short")
+    public void should_queue_async_borrowers_until_connection_is_returned() throws Exception {
+        DynamicConnectionPool pool = createPool(1, 1);
+        Connection core = pool.connections.get(0);
+
+        for (int i = 0; i < 128; i++)
+            assertThat(pool.borrowConnectionAsync(100, MILLISECONDS).get()).isEqualTo(core);
+
+        Future<Connection> pending = pool.borrowConnectionAsync(5, SECONDS);
+        Future<Connection> timingOut = pool.borrowConnectionAsync(100, MILLISECONDS);
+        assertThat(pending.isDone()).isFalse();
+
+        pool.returnConnection(core);
+        assertThat(pending.get(1, SECONDS)).isEqualTo(core);
+
+        try {
+            timingOut.get(1, SECONDS);
+            fail("Expected a TimeoutException");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(TimeoutException.class);
+        }
+    }
+
+    /**
+     * Ensures that async borrowers are rejected right away once the pool's queue has reached its maximum size.
+     *
+     * @test_category connection:connection_pool
+     */
+    @Test(groups = "short")
+    public void should_reject_async_borrowers_when_queue_is_full() throws Exception {
+        PoolingOptions poolingOptions = cluster.getConfiguration().getPoolingOptions();
+        int maxQueueSize = poolingOptions.getMaxQueueSize();
+        poolingOptions.setMaxQueueSize(1);
+        try {
+            DynamicConnectionPool pool = createPool(1, 1);
+            Connection core = pool.connections.get(0);
+
+            for (int i = 0; i < 128; i++)
+                assertThat(pool.borrowConnectionAsync(100, MILLISECONDS).get()).isEqualTo(core);
+
+            Future<Connection> pending = pool.borrowConnectionAsync(5, SECONDS);
+            assertThat(pool.pendingBorrowCount()).isEqualTo(1);
+
+            try {
+                pool.borrowConnectionAsync(5, SECONDS).get();
+                fail("Expected a BusyPoolException");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(BusyPoolException.class);
+            }
+
+            pool.returnConnection(core);
+            assertThat(pending.get(1, SECONDS)).isEqualTo(core);
+            assertThat(pool.pendingBorrowCount()).isEqualTo(0);
+        } finally {
+            poolingOptions.setMaxQueueSize(maxQueueSize);
+        }
+    }
+
     private DynamicConnectionPool createPool(int coreConnections, int maxConnections) {
         cluster.getConfiguration().getPoolingOptions()
             .setCoreConnectionsPerHost(HostDistance.LOCAL, coreConnections)
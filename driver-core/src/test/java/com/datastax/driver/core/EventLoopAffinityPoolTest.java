@@ -0,0 +1,85 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.net.InetSocketAddress;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.testng.annotations.Test;
+import org.testng.collections.Lists;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.datastax.driver.core.utils.CassandraVersion;
+
+@CassandraVersion(major=2.1)
+public class EventLoopAffinityPoolTest extends CCMBridge.PerClassSingleNodeCluster {
+    @Override
+    protected Collection<String> getTableDefinitions() {
+        return Lists.newArrayList();
+    }
+
+    @Override
+    protected Cluster.Builder configure(Cluster.Builder builder) {
+        return builder.withPoolingOptions(new PoolingOptions().setEventLoopAffinityEnabled(true));
+    }
+
+    @Test(groups = "short")
+    public void should_open_a_connection_per_event_loop() {
+        EventLoopAffinityPool pool = pool();
+
+        assertThat(pool.pools).hasSize(cluster.manager.connectionFactory.eventLoops().size());
+        assertThat(pool.opened()).isEqualTo(pool.pools.size());
+        for (SingleConnectionPool loopPool : pool.pools)
+            assertThat(loopPool.connectionRef.get().eventLoop()).isSameAs(loopPool.eventLoop);
+    }
+
+    @Test(groups = "short")
+    public void should_send_request_on_the_connection_of_the_current_event_loop() throws Exception {
+        final EventLoopAffinityPool pool = pool();
+
+        // Callbacks run on the I/O thread that received the response, so the nested query should stay on that loop
+        ListenableFuture<Boolean> sameLoop = Futures.transform(session.executeAsync("SELECT release_version FROM system.local"),
+            new AsyncFunction<ResultSet, Boolean>() {
+                @Override
+                public ListenableFuture<Boolean> apply(ResultSet rs) {
+                    final Thread ioThread = Thread.currentThread();
+                    assertThat(pool.pools.get(pool.preferredIndex()).eventLoop.inEventLoop()).isTrue();
+                    return Futures.transform(session.executeAsync("SELECT release_version FROM system.local"),
+                        new AsyncFunction<ResultSet, Boolean>() {
+                            @Override
+                            public ListenableFuture<Boolean> apply(ResultSet rs) {
+                                return Futures.immediateFuture(Thread.currentThread() == ioThread);
+                            }
+                        });
+                }
+            });
+
+        assertThat(Uninterruptibles.getUninterruptibly(sameLoop, 10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private EventLoopAffinityPool pool() {
+        Host host = cluster.getMetadata().getHost(new InetSocketAddress(CCMBridge.IP_PREFIX + "1", 9042));
+        HostConnectionPool pool = ((SessionManager)session).pools.get(host);
+        assertThat(pool).isInstanceOf(EventLoopAffinityPool.class);
+        return (EventLoopAffinityPool)pool;
+    }
+}
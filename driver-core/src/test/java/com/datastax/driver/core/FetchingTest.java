@@ -68,4 +68,31 @@ public class FetchingTest extends CCMBridge.PerClassSingleNodeCluster {
             throw e;
         }
     }
+
+    @Test(groups = "short")
+    public void should_prefetch_next_page_when_threshold_reached() throws Throwable {
+        if (cluster.getConfiguration().getProtocolOptions().getProtocolVersionEnum() == ProtocolVersion.V1)
+            return;
+
+        String key = "prefetch_test";
+        for (int i = 0; i < 20; i++)
+            session.execute(String.format("INSERT INTO test (k, v) VALUES ('%s', %d)", key, i));
+
+        SimpleStatement st = new SimpleStatement(String.format("SELECT v FROM test WHERE k='%s'", key));
+        st.setFetchSize(5);
+        st.setPrefetchThreshold(2);
+        ResultSet rs = session.execute(st);
+
+        // Consuming 3 rows leaves 2 available, which triggers the fetch of the next page
+        for (int i = 0; i < 3; i++)
+            assertEquals(rs.one().getInt(0), i);
+        long start = System.currentTimeMillis();
+        while (rs.getAvailableWithoutFetching() == 2 && System.currentTimeMillis() - start < 10000)
+            Thread.sleep(10);
+        assertEquals(rs.getAvailableWithoutFetching(), 7);
+
+        for (int i = 3; i < 20; i++)
+            assertEquals(rs.one().getInt(0), i);
+        assertTrue(rs.isExhausted());
+    }
 }
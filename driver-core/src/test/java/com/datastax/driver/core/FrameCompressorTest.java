@@ -0,0 +1,63 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.EnumSet;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+
+public class FrameCompressorTest {
+
+    private static final ByteBufAllocator alloc = PooledByteBufAllocator.DEFAULT;
+
+    @DataProvider(name = "compressors")
+    public static Object[][] compressors() {
+        return new Object[][]{
+            { FrameCompressor.LZ4Compressor.instance, false },
+            { FrameCompressor.LZ4Compressor.instance, true },
+            { FrameCompressor.SnappyCompressor.instance, false },
+            { FrameCompressor.SnappyCompressor.instance, true }
+        };
+    }
+
+    @Test(groups = "unit", dataProvider = "compressors")
+    public void should_compress_and_decompress_frame_body(FrameCompressor compressor, boolean direct) throws Exception {
+        byte[] bytes = new byte[10000];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = (byte)(i % 7);
+
+        ByteBuf body = direct ? alloc.directBuffer(bytes.length) : alloc.heapBuffer(bytes.length);
+        body.writeBytes(bytes);
+        Frame frame = Frame.create(ProtocolVersion.V3, Message.Request.Type.QUERY.opcode, 1, EnumSet.noneOf(Frame.Header.Flag.class), body);
+
+        Frame compressed = compressor.compress(alloc, frame);
+        body.release();
+        assertEquals(compressed.body.isDirect(), direct);
+
+        Frame decompressed = compressor.decompress(alloc, compressed);
+        compressed.body.release();
+
+        byte[] actual = new byte[decompressed.body.readableBytes()];
+        decompressed.body.readBytes(actual);
+        decompressed.body.release();
+        assertEquals(actual, bytes);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+import static com.datastax.driver.core.SchemaElement.KEYSPACE;
+import static com.datastax.driver.core.SchemaElement.TABLE;
+import static com.datastax.driver.core.SchemaElement.TYPE;
+
+public class MetadataRefreshSchedulerTest {
+
+    private QueryOptions queryOptions;
+    private ControlConnection controlConnection;
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduler;
+    private MetadataRefreshScheduler refreshScheduler;
+
+    @BeforeMethod(groups = "unit")
+    public void setUp() {
+        queryOptions = new QueryOptions();
+        controlConnection = mock(ControlConnection.class);
+        executor = mock(ExecutorService.class);
+        scheduler = mock(ScheduledExecutorService.class);
+        refreshScheduler = new MetadataRefreshScheduler(queryOptions, controlConnection, executor, scheduler);
+    }
+
+    @Test(groups = "unit")
+    public void should_merge_refreshes_of_different_elements_of_a_keyspace() throws Exception {
+        refreshScheduler.submitSchemaRefresh(TABLE, "ks", "t1");
+        refreshScheduler.submitSchemaRefresh(TYPE, "ks", "udt");
+        refreshScheduler.submitSchemaRefresh(TABLE, "ks2", "t2");
+        refreshScheduler.submitSchemaRefresh(TABLE, "ks2", "t2");
+
+        runScheduledRefresh();
+
+        verify(controlConnection).refreshSchema(KEYSPACE, "ks", null);
+        verify(controlConnection).refreshSchema(TABLE, "ks2", "t2");
+        verifyNoMoreInteractions(controlConnection);
+    }
+
+    @Test(groups = "unit")
+    public void should_absorb_partial_refreshes_into_a_full_schema_refresh() throws Exception {
+        refreshScheduler.submitSchemaRefresh(TABLE, "ks", "t1");
+        refreshScheduler.submitSchemaRefresh(null, null, null);
+        refreshScheduler.submitSchemaRefresh(KEYSPACE, "ks2", null);
+        refreshScheduler.submitNodeListRefresh();
+
+        runScheduledRefresh();
+
+        verify(controlConnection).refreshSchema(null, null, null);
+        verifyNoMoreInteractions(controlConnection);
+    }
+
+    @Test(groups = "unit")
+    public void should_not_refresh_node_list_separately_when_refreshing_a_keyspace() throws Exception {
+        refreshScheduler.submitNodeListRefresh();
+        refreshScheduler.submitSchemaRefresh(KEYSPACE, "ks", null);
+
+        runScheduledRefresh();
+
+        verify(controlConnection).refreshSchema(KEYSPACE, "ks", null);
+        verifyNoMoreInteractions(controlConnection);
+    }
+
+    @Test(groups = "unit")
+    public void should_refresh_node_list_and_schedule_again_after_a_refresh() throws Exception {
+        refreshScheduler.submitNodeListRefresh();
+        refreshScheduler.submitSchemaRefresh(TABLE, "ks", "t1");
+
+        runScheduledRefresh();
+
+        verify(controlConnection).refreshSchema(TABLE, "ks", "t1");
+        verify(controlConnection).refreshNodeListAndTokenMap();
+
+        reset(scheduler, executor);
+        refreshScheduler.submitSchemaRefresh(TABLE, "ks", "t2");
+
+        runScheduledRefresh();
+
+        verify(controlConnection).refreshSchema(TABLE, "ks", "t2");
+        verifyNoMoreInteractions(controlConnection);
+    }
+
+    @Test(groups = "unit")
+    public void should_refresh_immediately_if_interval_is_zero() throws Exception {
+        queryOptions.setRefreshIntervalMillis(0);
+
+        refreshScheduler.submitSchemaRefresh(TABLE, "ks", "t1");
+
+        ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).submit(refresh.capture());
+        verifyZeroInteractions(scheduler);
+        refresh.getValue().run();
+
+        verify(controlConnection).refreshSchema(TABLE, "ks", "t1");
+    }
+
+    // Runs the refresh that was scheduled (once) for the default interval
+    private void runScheduledRefresh() {
+        ArgumentCaptor<Runnable> submit = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(submit.capture(), eq((long)QueryOptions.DEFAULT_REFRESH_INTERVAL_MILLIS), eq(TimeUnit.MILLISECONDS));
+        submit.getValue().run();
+
+        ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).submit(refresh.capture());
+        refresh.getValue().run();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.datastax.driver.core.PerStatementPercentileTracker.Key;
+import com.datastax.driver.core.PerStatementPercentileTracker.Outcome;
+import com.datastax.driver.core.exceptions.DriverException;
+
+public class PerStatementPercentileTrackerTest {
+
+    private static final PerStatementPercentileTracker.Labeler QUERY_STRING_LABELER = new PerStatementPercentileTracker.Labeler() {
+        @Override
+        public String labelOf(Statement statement) {
+            return ((RegularStatement)statement).getQueryString();
+        }
+    };
+
+    private final Host host = mock(Host.class);
+
+    @Test(groups = "unit")
+    public void should_record_latencies_by_label_consistency_and_outcome() {
+        PerStatementPercentileTracker tracker = PerStatementPercentileTracker.builderWithHighestTrackableLatencyMillis(1000)
+            .withLabeler(QUERY_STRING_LABELER)
+            .withMinRecordedValues(1)
+            .withInterval(200, TimeUnit.MILLISECONDS)
+            .build();
+
+        Statement one = new SimpleStatement("one").setConsistencyLevel(ConsistencyLevel.QUORUM);
+        Statement two = new SimpleStatement("two");
+        tracker.update(host, one, null, TimeUnit.MILLISECONDS.toNanos(10));
+        tracker.update(host, one, null, TimeUnit.MILLISECONDS.toNanos(20));
+        tracker.update(host, one, new OperationTimedOutException(null), TimeUnit.MILLISECONDS.toNanos(500));
+        tracker.update(host, two, new DriverException("test"), TimeUnit.MILLISECONDS.toNanos(1));
+
+        Key oneSuccess = new Key("one", ConsistencyLevel.QUORUM, Outcome.SUCCESS);
+        Key oneTimeout = new Key("one", ConsistencyLevel.QUORUM, Outcome.TIMEOUT);
+        Key twoError = new Key("two", null, Outcome.ERROR);
+        assertThat(tracker.getKeys()).containsOnly(oneSuccess, oneTimeout, twoError);
+
+        // Wait for the first interval to end: all the reads below then see the same, complete interval
+        Uninterruptibles.sleepUninterruptibly(250, TimeUnit.MILLISECONDS);
+        assertThat(tracker.getLastIntervalCount(oneSuccess)).isEqualTo(2);
+        assertThat(tracker.getLatencyAtPercentile(oneSuccess, 99.0)).isEqualTo(20);
+        assertThat(tracker.getLatencyAtPercentile(oneTimeout, 50.0)).isEqualTo(500);
+        assertThat(tracker.getLatencyAtPercentile(twoError, 50.0)).isEqualTo(1);
+    }
+
+    @Test(groups = "unit")
+    public void should_only_track_bound_statements_by_default() {
+        PerStatementPercentileTracker tracker = PerStatementPercentileTracker.builderWithHighestTrackableLatencyMillis(1000).build();
+
+        tracker.update(host, new SimpleStatement("SELECT * FROM t"), null, 1000);
+
+        assertThat(tracker.getKeys()).isEmpty();
+    }
+
+    @Test(groups = "unit")
+    @SuppressWarnings("unchecked")
+    public void should_register_gauges_for_existing_and_new_keys() {
+        PerStatementPercentileTracker tracker = PerStatementPercentileTracker.builderWithHighestTrackableLatencyMillis(1000)
+            .withLabeler(QUERY_STRING_LABELER)
+            .build();
+        MetricRegistry registry = new MetricRegistry();
+
+        tracker.update(host, new SimpleStatement("one"), null, 1000);
+        tracker.registerMetrics(registry, "statements");
+        tracker.update(host, new SimpleStatement("two").setConsistencyLevel(ConsistencyLevel.ONE), null, 1000);
+
+        assertThat(registry.getGauges().keySet()).contains(
+            "statements.one.default.SUCCESS.count",
+            "statements.one.default.SUCCESS.p99",
+            "statements.two.ONE.SUCCESS.p999",
+            "statements.two.ONE.SUCCESS.max");
+        // Not enough values recorded yet
+        Gauge<Long> p99 = registry.getGauges().get("statements.two.ONE.SUCCESS.p99");
+        assertThat(p99.getValue()).isEqualTo(-1L);
+    }
+}
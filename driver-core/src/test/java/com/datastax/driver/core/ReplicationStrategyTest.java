@@ -46,6 +46,22 @@ public class ReplicationStrategyTest {
         assertTrue(strategy instanceof ReplicationStrategy.NetworkTopologyStrategy);
     }
 
+    @Test(groups = "unit")
+    public void equalStrategiesTest() throws Exception {
+        ReplicationStrategy nts1 = ReplicationStrategy.create(ImmutableMap.of("class", "NetworkTopologyStrategy", "dc1", "2", "dc2", "2"));
+        ReplicationStrategy nts2 = ReplicationStrategy.create(ImmutableMap.of("class", "NetworkTopologyStrategy", "dc2", "2", "dc1", "2"));
+        ReplicationStrategy nts3 = ReplicationStrategy.create(ImmutableMap.of("class", "NetworkTopologyStrategy", "dc1", "3", "dc2", "2"));
+        ReplicationStrategy simple1 = ReplicationStrategy.create(ImmutableMap.of("class", "SimpleStrategy", "replication_factor", "2"));
+        ReplicationStrategy simple2 = ReplicationStrategy.create(ImmutableMap.of("class", "SimpleStrategy", "replication_factor", "2"));
+
+        assertEquals(nts1, nts2);
+        assertEquals(nts1.hashCode(), nts2.hashCode());
+        assertNotEquals(nts1, nts3);
+        assertEquals(simple1, simple2);
+        assertEquals(simple1.hashCode(), simple2.hashCode());
+        assertNotEquals(simple1, nts1);
+    }
+
     @Test(groups = "unit")
     public void createSimpleReplicationStrategyWithoutFactorTest() throws Exception {
         ReplicationStrategy strategy = ReplicationStrategy.create(
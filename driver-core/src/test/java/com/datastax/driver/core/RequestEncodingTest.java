@@ -0,0 +1,83 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.datastax.driver.core.utils.Bytes;
+
+public class RequestEncodingTest {
+
+    @Test(groups = "unit")
+    public void should_write_values_without_modifying_them() {
+        ByteBuffer heapSlice = ByteBuffer.wrap(new byte[]{ 0, 1, 2, 3, 4, 5, 6 }, 1, 5).slice();
+        ByteBuffer direct = ByteBuffer.allocateDirect(3);
+        direct.put(new byte[]{ 7, 8, 9 }).flip();
+        ByteBuffer littleEndian = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        littleEndian.putLong(0, 42);
+        List<ByteBuffer> values = Arrays.asList(
+            TypeCodec.IntCodec.instance.serializeNoBoxing(42),
+            TypeCodec.LongCodec.instance.serializeNoBoxing(Long.MIN_VALUE),
+            TypeCodec.UUIDCodec.instance.serialize(UUID.randomUUID()),
+            heapSlice, direct, littleEndian, null);
+
+        ByteBuf buf = Unpooled.buffer();
+        CBUtil.writeValueList(values, buf);
+
+        assertThat(buf.readableBytes()).isEqualTo(CBUtil.sizeOfValueList(values));
+        assertThat(CBUtil.readValueList(buf)).isEqualTo(values);
+        assertThat(heapSlice.remaining()).isEqualTo(5);
+        assertThat(direct.remaining()).isEqualTo(3);
+    }
+
+    @Test(groups = "unit")
+    public void should_encode_frame_in_a_single_buffer() {
+        EmbeddedChannel channel = new EmbeddedChannel(new Frame.Encoder(), new Message.ProtocolEncoder(ProtocolVersion.V3));
+        Requests.QueryProtocolOptions options = new Requests.QueryProtocolOptions(ConsistencyLevel.ONE,
+            Arrays.asList(TypeCodec.LongCodec.instance.serializeNoBoxing(1L), Bytes.fromHexString("0xcafe")),
+            false, 100, null, ConsistencyLevel.SERIAL, Long.MIN_VALUE);
+        Message.Request request = new Requests.Execute(MD5Digest.wrap(new byte[16]), options);
+        request.setStreamId(12);
+
+        channel.writeOutbound(request);
+        ByteBuf frame = (ByteBuf)channel.readOutbound();
+        assertThat(channel.readOutbound()).isNull();
+
+        int headerLength = Frame.Header.lengthFor(ProtocolVersion.V3);
+        int bodyLength = 2 + 16 + options.encodedSize(ProtocolVersion.V3);
+        // The frame is allocated with its exact size
+        assertThat(frame.readableBytes()).isEqualTo(headerLength + bodyLength);
+        assertThat(frame.capacity()).isEqualTo(headerLength + bodyLength);
+        assertThat(frame.readByte()).isEqualTo((byte)ProtocolVersion.V3.toInt());
+        assertThat(frame.readByte()).isEqualTo((byte)0);
+        assertThat(frame.readShort()).isEqualTo((short)12);
+        assertThat(frame.readByte()).isEqualTo((byte)Message.Request.Type.EXECUTE.opcode);
+        assertThat(frame.readInt()).isEqualTo(bodyLength);
+        assertThat(CBUtil.readBytes(frame)).isEqualTo(new byte[16]);
+        frame.release();
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.*;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import com.datastax.driver.core.exceptions.DriverException;
+
+public class RowPublisherTest {
+
+    private final Statement statement = new SimpleStatement("SELECT * FROM t");
+    private final Row row1 = mock(Row.class), row2 = mock(Row.class), row3 = mock(Row.class);
+
+    private Session session;
+    private SettableResultSetFuture future;
+    private RecordingSubscriber subscriber;
+
+    @BeforeMethod(groups = "unit")
+    public void setup() {
+        session = mock(Session.class);
+        future = new SettableResultSetFuture();
+        when(session.executeAsync(any(Statement.class))).thenReturn(future);
+        subscriber = new RecordingSubscriber();
+        new RowPublisher(session, statement, MoreExecutors.sameThreadExecutor()).subscribe(subscriber);
+    }
+
+    @Test(groups = "unit")
+    public void should_fetch_pages_according_to_demand() {
+        Pages pages = new Pages(Arrays.asList(row1, row2), Collections.singletonList(row3));
+
+        // The query is only executed once rows are requested
+        verify(session, never()).executeAsync(any(Statement.class));
+        subscriber.subscription.request(1);
+        verify(session).executeAsync(statement);
+
+        future.set(pages.resultSet);
+        assertThat(subscriber.rows).containsExactly(row1);
+
+        // The next page is not fetched until there is demand for it
+        subscriber.subscription.request(1);
+        assertThat(subscriber.rows).containsExactly(row1, row2);
+        assertThat(pages.fetch).isNull();
+
+        subscriber.subscription.request(10);
+        assertThat(pages.fetch).isNotNull();
+        assertThat(subscriber.completed).isFalse();
+
+        pages.completeFetch();
+        assertThat(subscriber.rows).containsExactly(row1, row2, row3);
+        assertThat(subscriber.completed).isTrue();
+        assertThat(subscriber.error).isNull();
+    }
+
+    @Test(groups = "unit")
+    public void should_stop_emitting_when_cancelled() {
+        Pages pages = new Pages(Arrays.asList(row1, row2));
+
+        subscriber.subscription.request(1);
+        future.set(pages.resultSet);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(1);
+
+        assertThat(subscriber.rows).containsExactly(row1);
+        assertThat(subscriber.completed).isFalse();
+    }
+
+    @Test(groups = "unit")
+    public void should_signal_query_failure() {
+        subscriber.subscription.request(1);
+        future.setException(new DriverException("test"));
+
+        assertThat(subscriber.error).hasMessage("test");
+        assertThat(subscriber.rows).isEmpty();
+    }
+
+    @Test(groups = "unit")
+    public void should_signal_error_on_non_positive_request() {
+        subscriber.subscription.request(0);
+
+        assertThat(subscriber.error).isInstanceOf(IllegalArgumentException.class);
+        verify(session, never()).executeAsync(any(Statement.class));
+    }
+
+    /**
+     * A paged result set, which next page is received when the test calls {@link #completeFetch()}.
+     */
+    private static class Pages {
+        final ResultSet resultSet = mock(ResultSet.class);
+        final Queue<Row> current;
+        final Queue<List<Row>> remaining = new LinkedList<List<Row>>();
+        SettableFuture<Void> fetch;
+
+        Pages(List<Row> firstPage, List<Row>... otherPages) {
+            current = new LinkedList<Row>(firstPage);
+            remaining.addAll(Arrays.asList(otherPages));
+
+            when(resultSet.getAvailableWithoutFetching()).thenAnswer(new Answer<Integer>() {
+                @Override
+                public Integer answer(InvocationOnMock invocation) throws Throwable {
+                    return current.size();
+                }
+            });
+            when(resultSet.isFullyFetched()).thenAnswer(new Answer<Boolean>() {
+                @Override
+                public Boolean answer(InvocationOnMock invocation) throws Throwable {
+                    return remaining.isEmpty();
+                }
+            });
+            when(resultSet.one()).thenAnswer(new Answer<Row>() {
+                @Override
+                public Row answer(InvocationOnMock invocation) throws Throwable {
+                    return current.poll();
+                }
+            });
+            when(resultSet.fetchMoreResults()).thenAnswer(new Answer<SettableFuture<Void>>() {
+                @Override
+                public SettableFuture<Void> answer(InvocationOnMock invocation) throws Throwable {
+                    fetch = SettableFuture.create();
+                    return fetch;
+                }
+            });
+        }
+
+        void completeFetch() {
+            current.addAll(remaining.poll());
+            fetch.set(null);
+        }
+    }
+
+    private static class RecordingSubscriber implements Subscriber<Row> {
+        Subscription subscription;
+        final List<Row> rows = new ArrayList<Row>();
+        volatile boolean completed;
+        volatile Throwable error;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Row row) {
+            rows.add(row);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.AbstractFuture;
+
+/**
+ * A {@link ResultSetFuture} completed by the test, to mock {@link Session#executeAsync(Statement)}.
+ */
+class SettableResultSetFuture extends AbstractFuture<ResultSet> implements ResultSetFuture {
+
+    @Override
+    public boolean set(ResultSet rs) {
+        return super.set(rs);
+    }
+
+    @Override
+    public boolean setException(Throwable t) {
+        return super.setException(t);
+    }
+
+    @Override
+    public ResultSet getUninterruptibly() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ResultSet getUninterruptibly(long timeout, TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+}
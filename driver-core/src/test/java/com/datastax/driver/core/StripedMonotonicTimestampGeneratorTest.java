@@ -0,0 +1,93 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.List;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StripedMonotonicTimestampGeneratorTest {
+
+    @Test(groups = "unit")
+    public void should_generate_distinct_incrementing_timestamps_for_each_thread() throws Exception {
+        final StripedMonotonicTimestampGenerator generator = new StripedMonotonicTimestampGenerator(4);
+        generator.clock = new MockClocks.FixedTimeClock(1);
+
+        final int testThreadsCount = 4;
+        final SortedSet<Long> allTimestamps = new ConcurrentSkipListSet<Long>();
+        ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(testThreadsCount));
+        List<ListenableFuture<?>> futures = Lists.newArrayListWithExpectedSize(testThreadsCount);
+        for (int i = 0; i < testThreadsCount; i++) {
+            futures.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    long previous = 0;
+                    for (int i = 0; i < 1000; i++) {
+                        long next = generator.next();
+                        assertThat(next).isGreaterThan(previous);
+                        allTimestamps.add(next);
+                        previous = next;
+                    }
+                }
+            }));
+        }
+        executor.shutdown();
+        Futures.allAsList(futures).get(10, TimeUnit.SECONDS);
+
+        assertThat(allTimestamps).hasSize(testThreadsCount * 1000);
+    }
+
+    @Test(groups = "unit")
+    public void should_stripe_the_microseconds_of_a_millisecond() {
+        StripedMonotonicTimestampGenerator generator = new StripedMonotonicTimestampGenerator(4);
+        generator.clock = new MockClocks.FixedTimeClock(1);
+        int stripe = (int)Thread.currentThread().getId() & 3;
+
+        for (int i = 0; i < 250; i++)
+            assertThat(generator.next()).isEqualTo(1000 + stripe + 4 * i);
+        assertThat(generator.getDriftedTimestamps()).isEqualTo(0);
+
+        // Out of microseconds, move on to the next millisecond ahead of the clock
+        assertThat(generator.next()).isEqualTo(2000 + stripe);
+        assertThat(generator.getDriftedTimestamps()).isEqualTo(1);
+    }
+
+    @Test(groups = "unit")
+    public void should_keep_incrementing_when_the_clock_goes_backwards() {
+        StripedMonotonicTimestampGenerator generator = new StripedMonotonicTimestampGenerator(2);
+        generator.clock = new MockClocks.BackInTimeClock();
+
+        long previous = generator.next();
+        for (int i = 0; i < 5; i++) {
+            long next = generator.next();
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+        assertThat(generator.getClockRegressions()).isEqualTo(5);
+        assertThat(generator.getDriftedTimestamps()).isEqualTo(5);
+    }
+}
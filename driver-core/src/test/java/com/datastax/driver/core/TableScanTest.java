@@ -0,0 +1,195 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.*;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.driver.core.exceptions.DriverException;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
+
+public class TableScanTest {
+
+    private static final Token.Factory FACTORY = Token.M3PToken.FACTORY;
+
+    private Session session;
+    private Metadata metadata;
+    private List<RegularStatement> statements;
+    private List<SettableResultSetFuture> futures;
+
+    @BeforeMethod(groups = "unit")
+    public void setup() {
+        statements = new ArrayList<RegularStatement>();
+        futures = new ArrayList<SettableResultSetFuture>();
+        session = mock(Session.class);
+        when(session.executeAsync(any(Statement.class))).thenAnswer(new Answer<ResultSetFuture>() {
+            @Override
+            public ResultSetFuture answer(InvocationOnMock invocation) throws Throwable {
+                StatementWrapper statement = (StatementWrapper)invocation.getArguments()[0];
+                statements.add((RegularStatement)statement.getWrappedStatement());
+                SettableResultSetFuture future = new SettableResultSetFuture();
+                futures.add(future);
+                return future;
+            }
+        });
+        metadata = mock(Metadata.class);
+        when(metadata.getReplicas(anyString(), any(TokenRange.class))).thenReturn(Collections.<Host>emptySet());
+    }
+
+    @Test(groups = "unit")
+    public void should_query_each_sub_range() {
+        TableScan scan = new TableScan(session, metadata, table(), new TableScanOptions()
+            .setRanges(Arrays.asList(range(-100, 100), range(100, -100)))
+            .setMaxConcurrentRanges(10)).start();
+
+        // The wrapping range is split in two, and the one ending at the minimum token has no upper bound
+        assertThat(scan.getTotalRangeCount()).isEqualTo(3);
+        assertThat(statements).hasSize(3);
+        assertThat(statements.get(0).getQueryString())
+            .isEqualTo("SELECT * FROM \"ks\".\"t\" WHERE token(\"k1\", \"k2\") > ? AND token(\"k1\", \"k2\") <= ?");
+        assertThat(statements.get(0).getValues(ProtocolVersion.V3)).containsExactly(
+            DataType.bigint().serialize(-100L, ProtocolVersion.V3), DataType.bigint().serialize(100L, ProtocolVersion.V3));
+        assertThat(statements.get(1).getQueryString())
+            .isEqualTo("SELECT * FROM \"ks\".\"t\" WHERE token(\"k1\", \"k2\") > ?");
+        assertThat(statements.get(2).getValues(ProtocolVersion.V3)).containsExactly(
+            DataType.bigint().serialize(Long.MIN_VALUE, ProtocolVersion.V3), DataType.bigint().serialize(-100L, ProtocolVersion.V3));
+    }
+
+    @Test(groups = "unit")
+    public void should_bound_concurrent_ranges_and_track_progress() {
+        TableScan scan = new TableScan(session, metadata, table(), new TableScanOptions()
+            .setRanges(Arrays.asList(range(-100, 0), range(0, 100), range(100, 200)))
+            .setMaxConcurrentRanges(2)).start();
+        assertThat(futures).hasSize(2);
+
+        Row row1 = mock(Row.class), row2 = mock(Row.class), row3 = mock(Row.class);
+        futures.get(1).set(resultSet(row1, row2));
+        assertThat(scan.one()).isSameAs(row1);
+        assertThat(scan.one()).isSameAs(row2);
+        assertThat(futures).hasSize(2);
+
+        // The next range is started once all the rows of a range have been consumed
+        futures.get(0).set(resultSet(row3));
+        assertThat(scan.one()).isSameAs(row3);
+        assertThat(futures).hasSize(3);
+        assertThat(scan.getCompletedRanges()).containsExactly(range(0, 100));
+        assertThat(scan.getRemainingRanges()).containsExactly(range(-100, 0), range(100, 200));
+
+        futures.get(2).set(resultSet());
+        assertThat(scan.isExhausted()).isTrue();
+        assertThat(scan.getCompletedRanges()).containsExactly(range(0, 100), range(-100, 0), range(100, 200));
+        assertThat(scan.getRemainingRanges()).isEmpty();
+    }
+
+    @Test(groups = "unit")
+    public void should_stop_on_failure_and_report_remaining_ranges() {
+        TableScan scan = new TableScan(session, metadata, table(), new TableScanOptions()
+            .setRanges(Arrays.asList(range(-100, 0), range(0, 100), range(100, 200)))
+            .setMaxConcurrentRanges(1)).start();
+
+        futures.get(0).setException(new DriverException("test"));
+        for (int i = 0; i < 2; i++) {
+            try {
+                scan.isExhausted();
+                fail("Expected a DriverException");
+            } catch (DriverException e) {
+                assertThat(e).hasMessage("test");
+            }
+        }
+        assertThat(scan.getRemainingRanges()).containsExactly(range(-100, 0), range(0, 100), range(100, 200));
+        assertThat(futures).hasSize(1);
+    }
+
+    @Test(groups = "unit")
+    public void should_put_local_replicas_first_in_query_plan() {
+        Host host1 = mock(Host.class), host2 = mock(Host.class), host3 = mock(Host.class), remote = mock(Host.class);
+        LoadBalancingPolicy policy = mock(LoadBalancingPolicy.class);
+        when(policy.distance(any(Host.class))).thenReturn(HostDistance.LOCAL);
+        when(policy.distance(remote)).thenReturn(HostDistance.REMOTE);
+
+        TableScan.RangeStatement statement = new TableScan.RangeStatement(new SimpleStatement("SELECT * FROM t"), ImmutableSet.of(host3, remote));
+        Iterator<Host> plan = statement.adjustQueryPlan(Arrays.asList(host1, host2, remote, host3).iterator(), policy);
+
+        assertThat(Lists.newArrayList(plan)).containsExactly(host3, host1, host2, remote);
+    }
+
+    @Test(groups = "unit")
+    public void should_not_consume_query_plan_past_the_replicas() {
+        Host host1 = mock(Host.class), host2 = mock(Host.class), host3 = mock(Host.class);
+        LoadBalancingPolicy policy = mock(LoadBalancingPolicy.class);
+        when(policy.distance(any(Host.class))).thenReturn(HostDistance.LOCAL);
+
+        TableScan.RangeStatement statement = new TableScan.RangeStatement(new SimpleStatement("SELECT * FROM t"), ImmutableSet.of(host2));
+        Iterator<Host> queryPlan = Arrays.asList(host1, host2, host3).iterator();
+        Iterator<Host> plan = statement.adjustQueryPlan(queryPlan, policy);
+
+        assertThat(plan.next()).isSameAs(host2);
+        assertThat(plan.next()).isSameAs(host1);
+        assertThat(queryPlan.next()).isSameAs(host3);
+    }
+
+    private static TableMetadata table() {
+        KeyspaceMetadata keyspace = mock(KeyspaceMetadata.class);
+        when(keyspace.getName()).thenReturn("ks");
+        ColumnMetadata k1 = mock(ColumnMetadata.class), k2 = mock(ColumnMetadata.class);
+        when(k1.getName()).thenReturn("k1");
+        when(k2.getName()).thenReturn("k2");
+        TableMetadata table = mock(TableMetadata.class);
+        when(table.getKeyspace()).thenReturn(keyspace);
+        when(table.getName()).thenReturn("t");
+        when(table.getPartitionKey()).thenReturn(Arrays.asList(k1, k2));
+        return table;
+    }
+
+    private static TokenRange range(long start, long end) {
+        return new TokenRange(FACTORY.fromString(Long.toString(start)), FACTORY.fromString(Long.toString(end)), FACTORY);
+    }
+
+    /**
+     * A single page result set.
+     */
+    private static ResultSet resultSet(Row... rows) {
+        final Queue<Row> queue = new LinkedList<Row>(Arrays.asList(rows));
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.isFullyFetched()).thenReturn(true);
+        when(rs.getAvailableWithoutFetching()).thenAnswer(new Answer<Integer>() {
+            @Override
+            public Integer answer(InvocationOnMock invocation) throws Throwable {
+                return queue.size();
+            }
+        });
+        when(rs.one()).thenAnswer(new Answer<Row>() {
+            @Override
+            public Row answer(InvocationOnMock invocation) throws Throwable {
+                return queue.poll();
+            }
+        });
+        return rs;
+    }
+}
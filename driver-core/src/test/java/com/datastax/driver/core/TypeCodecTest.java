@@ -16,9 +16,13 @@
 package com.datastax.driver.core;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.Sets;
 
 import com.google.common.collect.Lists;
 import com.google.common.base.Strings;
@@ -26,6 +30,10 @@ import com.google.common.base.Strings;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
 import static com.datastax.driver.core.DataType.text;
 
 public class TypeCodecTest {
@@ -71,4 +79,65 @@ public class TypeCodecTest {
 
         listType.serialize(list);
     }
+
+    @Test(groups = "unit")
+    public void primitiveArraysTest() throws Exception {
+        for (ProtocolVersion version : new ProtocolVersion[]{ ProtocolVersion.V2, ProtocolVersion.V3 }) {
+            TypeCodec<List<Long>> listType = TypeCodec.listOf(DataType.bigint(), version);
+            TypeCodec<Set<Integer>> setType = TypeCodec.setOf(DataType.cint(), version);
+            TypeCodec<List<Double>> doubleListType = TypeCodec.listOf(DataType.cdouble(), version);
+
+            ByteBuffer longs = listType.serialize(Arrays.asList(1L, Long.MIN_VALUE, Long.MAX_VALUE));
+            assertThat(TypeCodec.LongArrayCodec.instance(version).deserialize(longs)).isEqualTo(new long[]{ 1L, Long.MIN_VALUE, Long.MAX_VALUE });
+            assertThat(TypeCodec.LongArrayCodec.instance(version).serialize(new long[]{ 1L, Long.MIN_VALUE, Long.MAX_VALUE })).isEqualTo(longs);
+
+            ByteBuffer ints = TypeCodec.IntArrayCodec.instance(version).serialize(new int[]{ 3, 1, 2 });
+            assertThat(setType.deserialize(ints)).isEqualTo(Sets.newHashSet(1, 2, 3));
+
+            ByteBuffer doubles = doubleListType.serialize(Arrays.asList(0.5, -1.0));
+            assertThat(TypeCodec.DoubleArrayCodec.instance(version).deserialize(doubles)).isEqualTo(new double[]{ 0.5, -1.0 });
+        }
+    }
+
+    @Test(groups = "unit")
+    public void primitiveArraysFormatTest() throws Exception {
+        TypeCodec.LongArrayCodec longs = TypeCodec.LongArrayCodec.instance(ProtocolVersion.V3);
+        assertThat(longs.format(new long[]{ 1L, -2L, 3L })).isEqualTo("[1, -2, 3]");
+        assertThat(longs.parse(" [ 1,-2 , 3 ] ")).isEqualTo(new long[]{ 1L, -2L, 3L });
+        assertThat(longs.parse("[]")).isEmpty();
+
+        TypeCodec.IntArrayCodec ints = TypeCodec.IntArrayCodec.instance(ProtocolVersion.V3);
+        assertThat(ints.parse(ints.format(new int[]{ 7, 0 }))).isEqualTo(new int[]{ 7, 0 });
+        assertThat(TypeCodec.DoubleArrayCodec.instance(ProtocolVersion.V3).format(new double[]{ 0.5 }))
+            .isEqualTo(TypeCodec.listOf(DataType.cdouble(), ProtocolVersion.V3).format(Arrays.asList(0.5)));
+    }
+
+    @Test(groups = "unit")
+    public void primitiveArrayAccessorsTest() throws Exception {
+        TupleValue value = TupleType.of(DataType.list(DataType.bigint()), DataType.set(DataType.cint()), DataType.list(DataType.text())).newValue();
+
+        assertThat(value.getLongArray(0)).isEqualTo(new long[0]);
+        value.setLongArray(0, new long[]{ 4L, 2L });
+        assertThat(value.getLongArray(0)).isEqualTo(new long[]{ 4L, 2L });
+        assertThat(value.getList(0, Long.class)).isEqualTo(Arrays.asList(4L, 2L));
+        value.setSet(1, Sets.newHashSet(7));
+        assertThat(value.getIntArray(1)).isEqualTo(new int[]{ 7 });
+        value.setLongArray(0, null);
+        assertThat(value.isNull(0)).isTrue();
+
+        try {
+            value.getIntArray(2);
+            Assert.fail("Expected an InvalidTypeException");
+        } catch (InvalidTypeException e) {
+            // expected
+        }
+    }
+
+    @Test(groups = "unit", expectedExceptions = { InvalidTypeException.class })
+    public void primitiveArrayTruncatedTest() throws Exception {
+        ByteBuffer longs = TypeCodec.listOf(DataType.bigint(), ProtocolVersion.V3).serialize(Arrays.asList(1L, 2L));
+        longs.limit(longs.limit() - 1);
+
+        TypeCodec.LongArrayCodec.instance(ProtocolVersion.V3).deserialize(longs);
+    }
 }
@@ -15,15 +15,21 @@
  */
 package com.datastax.driver.core.policies;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 
+import com.google.common.collect.Lists;
+
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.testng.annotations.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 
 import com.datastax.driver.core.*;
@@ -172,6 +178,53 @@ public class DCAwareRoundRobinPolicyTest {
         }
     }
 
+    @Test(groups = "unit")
+    public void should_try_local_hosts_then_allowed_remote_hosts() {
+        Host local1 = host("dc1"), local2 = host("dc1"), remote1 = host("dc2"), remote2 = host("dc2");
+        DCAwareRoundRobinPolicy policy = new DCAwareRoundRobinPolicy("dc1", 1);
+        policy.init(cluster(), Arrays.asList(local1, local2, remote1, remote2));
+
+        Statement statement = new SimpleStatement("SELECT * FROM t").setConsistencyLevel(ConsistencyLevel.ONE);
+        for (int i = 0; i < 4; i++) {
+            assertThat(Lists.newArrayList(policy.newQueryPlan(null, statement)))
+                .hasSize(3)
+                .startsWith(i % 2 == 0 ? local1 : local2)
+                .endsWith(remote1);
+        }
+        assertThat(policy.distance(remote1)).isEqualTo(HostDistance.REMOTE);
+        assertThat(policy.distance(remote2)).isEqualTo(HostDistance.IGNORED);
+
+        statement.setConsistencyLevel(ConsistencyLevel.LOCAL_ONE);
+        assertThat(Lists.newArrayList(policy.newQueryPlan(null, statement))).containsOnly(local1, local2);
+    }
+
+    @Test(groups = "unit")
+    public void should_not_change_existing_query_plans_when_hosts_go_up_or_down() {
+        Host host1 = host("dc1"), host2 = host("dc1"), host3 = host("dc1");
+        DCAwareRoundRobinPolicy policy = new DCAwareRoundRobinPolicy("dc1");
+        policy.init(cluster(), Arrays.asList(host1, host2));
+
+        Iterator<Host> plan = policy.newQueryPlan(null, new SimpleStatement("SELECT * FROM t"));
+        policy.onDown(host1);
+        policy.onDown(host2);
+        policy.onUp(host3);
+
+        assertThat(Lists.newArrayList(plan)).containsOnly(host1, host2);
+        assertThat(Lists.newArrayList(policy.newQueryPlan(null, new SimpleStatement("SELECT * FROM t")))).containsOnly(host3);
+    }
+
+    static Host host(String dc) {
+        Host host = mock(Host.class);
+        when(host.getDatacenter()).thenReturn(dc);
+        return host;
+    }
+
+    static Cluster cluster() {
+        Cluster cluster = mock(Cluster.class);
+        when(cluster.getConfiguration()).thenReturn(new Configuration());
+        return cluster;
+    }
+
     /**
      * Wraps the policy under test to spy the calls to init.
      */
@@ -15,14 +15,21 @@
  */
 package com.datastax.driver.core.policies;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+import org.mockito.ArgumentCaptor;
 import org.testng.annotations.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.scassandra.http.client.PrimingRequest.Result.read_request_timeout;
 import static org.scassandra.http.client.PrimingRequest.Result.unavailable;
 import static org.scassandra.http.client.PrimingRequest.queryBuilder;
@@ -167,4 +174,37 @@ public class LatencyAwarePolicyTest extends ScassandraTestBase {
         assertThat(stats.getLatencyScore()).isNotEqualTo(-1);
     }
 
+    @Test(groups = "unit")
+    public void should_account_for_all_measurements_from_concurrent_threads() throws Exception {
+        final Host host = mock(Host.class);
+        Cluster cluster = mock(Cluster.class);
+        LatencyAwarePolicy latencyAwarePolicy = LatencyAwarePolicy.builder(new RoundRobinPolicy())
+            .withMininumMeasurements(1)
+            .build();
+        latencyAwarePolicy.init(cluster, Collections.singletonList(host));
+        ArgumentCaptor<LatencyTracker> captor = ArgumentCaptor.forClass(LatencyTracker.class);
+        verify(cluster).register(captor.capture());
+        final LatencyTracker tracker = captor.getValue();
+
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 1000; j++)
+                        tracker.update(host, null, null, MILLISECONDS.toNanos(5));
+                }
+            });
+        }
+        for (Thread thread : threads)
+            thread.start();
+        for (Thread thread : threads)
+            thread.join();
+
+        latencyAwarePolicy.new Updater().run();
+        LatencyAwarePolicy.Snapshot.Stats stats = latencyAwarePolicy.getScoresSnapshot().getStats(host);
+        assertThat(stats.getMeasurementsCount()).isEqualTo(8000);
+        assertThat(stats.getLatencyScore()).isGreaterThan(MILLISECONDS.toNanos(4)).isLessThan(MILLISECONDS.toNanos(6));
+        latencyAwarePolicy.close();
+    }
 }
@@ -0,0 +1,95 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core.policies;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.driver.core.*;
+
+public class PowerOfTwoChoicesPolicyTest {
+
+    @Test(groups = "unit")
+    public void should_try_least_loaded_candidate_first() {
+        Host busy = host(10), idle = host(0), remote = host(0);
+        PowerOfTwoChoicesPolicy policy = new PowerOfTwoChoicesPolicy(childPolicy(Arrays.asList(busy, idle, remote), remote), 3, 10, TimeUnit.SECONDS);
+
+        // Only two local candidates, so they are always the ones compared
+        for (int i = 0; i < 10; i++)
+            assertThat(plan(policy)).containsExactly(idle, busy, remote);
+    }
+
+    @Test(groups = "unit")
+    public void should_weight_load_with_recent_latency() {
+        Host slow = host(1), fast = host(2);
+        PowerOfTwoChoicesPolicy policy = new PowerOfTwoChoicesPolicy(childPolicy(Arrays.asList(slow, fast), null), 3, 10, TimeUnit.SECONDS);
+
+        assertThat(plan(policy)).containsExactly(slow, fast);
+
+        policy.latencyTracker.update(slow, null, null, TimeUnit.MILLISECONDS.toNanos(100));
+        policy.latencyTracker.update(fast, null, null, TimeUnit.MILLISECONDS.toNanos(1));
+        assertThat(plan(policy)).containsExactly(fast, slow);
+
+        // Non-timeout errors are not considered
+        policy.latencyTracker.update(fast, null, new RuntimeException(), TimeUnit.SECONDS.toNanos(10));
+        assertThat(plan(policy)).containsExactly(fast, slow);
+    }
+
+    @Test(groups = "unit")
+    public void should_only_sample_among_configured_number_of_candidates() {
+        Host host1 = host(1), host2 = host(5), host3 = host(0);
+        PowerOfTwoChoicesPolicy policy = new PowerOfTwoChoicesPolicy(childPolicy(Arrays.asList(host1, host2, host3), null), 2, 10, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 10; i++)
+            assertThat(plan(policy)).containsExactly(host1, host2, host3);
+    }
+
+    private static List<Host> plan(LoadBalancingPolicy policy) {
+        return Lists.newArrayList(policy.newQueryPlan(null, new SimpleStatement("SELECT * FROM t")));
+    }
+
+    private static Host host(int inFlight) {
+        Host host = mock(Host.class);
+        when(host.getInFlightQueries()).thenReturn(inFlight);
+        return host;
+    }
+
+    private static LoadBalancingPolicy childPolicy(final List<Host> plan, Host remote) {
+        LoadBalancingPolicy childPolicy = mock(LoadBalancingPolicy.class);
+        when(childPolicy.newQueryPlan(anyString(), any(Statement.class))).thenAnswer(new Answer<Iterator<Host>>() {
+            @Override
+            public Iterator<Host> answer(InvocationOnMock invocation) throws Throwable {
+                return plan.iterator();
+            }
+        });
+        for (Host host : plan)
+            when(childPolicy.distance(host)).thenReturn(host == remote ? HostDistance.REMOTE : HostDistance.LOCAL);
+        return childPolicy;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core.policies;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import com.google.common.collect.Lists;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+
+import static com.datastax.driver.core.policies.DCAwareRoundRobinPolicyTest.cluster;
+import static com.datastax.driver.core.policies.DCAwareRoundRobinPolicyTest.host;
+
+public class RoundRobinPolicyTest {
+
+    @Test(groups = "unit")
+    public void should_cycle_over_hosts_without_being_affected_by_later_changes() {
+        Host host1 = host("dc1"), host2 = host("dc1"), host3 = host("dc1");
+        RoundRobinPolicy policy = new RoundRobinPolicy();
+        policy.init(cluster(), Arrays.asList(host1, host2, host3));
+        Statement statement = new SimpleStatement("SELECT * FROM t");
+
+        Host first = policy.newQueryPlan(null, statement).next();
+        Host second = policy.newQueryPlan(null, statement).next();
+        assertThat(second).isNotEqualTo(first);
+
+        Iterator<Host> plan = policy.newQueryPlan(null, statement);
+        policy.onDown(host1);
+        assertThat(Lists.newArrayList(plan)).containsOnly(host1, host2, host3);
+        assertThat(Lists.newArrayList(policy.newQueryPlan(null, statement))).containsOnly(host2, host3);
+
+        policy.onUp(host1);
+        policy.onUp(host1);
+        assertThat(Lists.newArrayList(policy.newQueryPlan(null, statement))).hasSize(3);
+    }
+}
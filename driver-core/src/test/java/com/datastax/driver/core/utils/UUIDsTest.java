@@ -93,6 +93,38 @@ public class UUIDsTest {
         }
     }
 
+    @Test(groups = "unit")
+    public void batchTest() {
+        List<UUID> uuids = UUIDs.timeBased(25000);
+
+        assertEquals(new HashSet<UUID>(uuids).size(), 25000);
+        long previous = 0;
+        for (UUID uuid : uuids) {
+            assertEquals(uuid.version(), 1);
+            assert previous < uuid.timestamp() : String.format("previous = %d >= %d = current", previous, uuid.timestamp());
+            previous = uuid.timestamp();
+        }
+        assertTrue(UUIDs.timeBased().timestamp() > previous);
+    }
+
+    @Test(groups = "unit")
+    public void clockTest() {
+        SettableTimeGenerator generator = new SettableTimeGenerator();
+        generator.time = 1234567890000L;
+
+        // A whole millisecond worth of UUIDs
+        List<UUID> uuids = generator.next(10000);
+        assertEquals(UUIDs.unixTimestamp(uuids.get(0)), generator.time);
+        assertEquals(UUIDs.unixTimestamp(uuids.get(9999)), generator.time);
+        assertEquals(uuids.get(9999).timestamp() - uuids.get(0).timestamp(), 9999);
+
+        // If the clock goes back in time, keep going from the last UUID
+        generator.time -= 1000;
+        UUID next = generator.next();
+        assertEquals(next.timestamp(), uuids.get(9999).timestamp() + 1);
+        assertEquals(next.clockSequence(), uuids.get(0).clockSequence());
+    }
+
     @Test(groups = "unit")
     public void startEndOfTest() {
 
@@ -145,6 +177,19 @@ public class UUIDsTest {
         return (o1.get(o1Pos + 3) & 0xFF) - (o2.get(o2Pos + 3) & 0xFF);
     }
 
+    private static class SettableTimeGenerator extends UUIDs.TimeBasedGenerator {
+        volatile long time;
+
+        SettableTimeGenerator() {
+            super(1, new Random(0), 0);
+        }
+
+        @Override
+        long currentTimeMillis() {
+            return time;
+        }
+    }
+
     private static class UUIDGenerator extends Thread {
 
         private final int toGenerate;